@@ -0,0 +1,66 @@
+package com.medease.benchmark;
+
+import com.medease.entity.Appointment;
+import com.medease.entity.Doctor;
+import com.medease.repository.AppointmentRepository;
+import com.medease.repository.DoctorRepository;
+import com.medease.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// The conflicting-appointment lookup bookAppointment makes before every
+// insert, over slots spread the way the seeder spreads appointments so that
+// some probes hit an existing booking and most do not.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentConflictBenchmark {
+
+    private static final int PROBES = 1024;
+
+    private AppointmentRepository appointmentRepository;
+    private final long[] doctorIds = new long[PROBES];
+    private final LocalDateTime[] slots = new LocalDateTime[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        appointmentRepository = application.getBean(AppointmentRepository.class);
+        List<Long> doctors = application.getBean(DoctorRepository.class).findAll().stream()
+                .map(Doctor::getId)
+                .toList();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate today = SeededApplication.REFERENCE_DATE;
+        for (int i = 0; i < PROBES; i++) {
+            doctorIds[i] = doctors.get(random.nextInt(doctors.size()));
+            slots[i] = today.plusDays(random.nextInt(-730, 91))
+                    .atTime(9 + random.nextInt(8), random.nextBoolean() ? 0 : 30);
+        }
+    }
+
+    @Benchmark
+    public List<Appointment> findConflicts() {
+        int i = next++ & (PROBES - 1);
+        LocalDateTime slot = slots[i];
+        return appointmentRepository.findByDoctorIdAndDateRange(doctorIds[i],
+                slot.minusMinutes(AppointmentService.CONFLICT_WINDOW_MINUTES),
+                slot.plusMinutes(AppointmentService.CONFLICT_WINDOW_MINUTES));
+    }
+}
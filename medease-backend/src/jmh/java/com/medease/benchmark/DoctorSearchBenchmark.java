@@ -0,0 +1,44 @@
+package com.medease.benchmark;
+
+import com.medease.entity.Doctor;
+import com.medease.service.DoctorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Free-text doctor search over the seeded doctors: a specialty fragment, a
+// name fragment that is both a first and a last name, and one matching nothing
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DoctorSearchBenchmark {
+
+    @Param({"cardio", "john", "zzz"})
+    private String query;
+
+    private DoctorService doctorService;
+
+    @Setup
+    public void setUp(SeededApplication application) {
+        doctorService = application.getBean(DoctorService.class);
+    }
+
+    @Benchmark
+    public List<Doctor> searchDoctors() {
+        return doctorService.searchDoctors(query);
+    }
+}
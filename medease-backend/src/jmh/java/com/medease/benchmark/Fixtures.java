@@ -0,0 +1,88 @@
+package com.medease.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medease.entity.Appointment;
+import com.medease.entity.Doctor;
+import com.medease.entity.Patient;
+import com.medease.entity.Role;
+import com.medease.entity.User;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// In-memory entities shaped like the sample data, so benchmarks without a database see realistic objects
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static User patientUser() {
+        User user = new User("John", "Doe", "patient@medease.com", "1234567890",
+                "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5zJ0rB5Z0wWl0gQ6b1E4d1e");
+        user.setId(1L);
+        user.setDateOfBirth(LocalDate.of(1990, 5, 15));
+        user.setGender(User.Gender.MALE);
+        user.setRoles(roles(1L, Role.RoleName.ROLE_PATIENT));
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        return user;
+    }
+
+    static Doctor doctor() {
+        User user = new User("Dr. Sarah", "Johnson", "dr.johnson@medease.com", "9876543210",
+                "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5zJ0rB5Z0wWl0gQ6b1E4d1e");
+        user.setId(2L);
+        user.setDateOfBirth(LocalDate.of(1980, 3, 20));
+        user.setGender(User.Gender.FEMALE);
+        user.setRoles(roles(2L, Role.RoleName.ROLE_DOCTOR));
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        user.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+
+        Doctor doctor = new Doctor(user, "Cardiology");
+        doctor.setId(1L);
+        doctor.setQualifications("MD, FACC");
+        doctor.setExperienceYears(15);
+        doctor.setHospitalAffiliation("City General Hospital");
+        doctor.setLatitude(40.7411);
+        doctor.setLongitude(-73.9897);
+        doctor.setLicenseNumber("MD12345");
+        doctor.setConsultationFee(new BigDecimal("200.00"));
+        doctor.setBio("Experienced cardiologist specializing in heart disease prevention and treatment.");
+        doctor.setRating(4.8);
+        doctor.setTotalReviews(150);
+        doctor.setIsAvailable(true);
+        return doctor;
+    }
+
+    static Appointment appointment() {
+        Patient patient = new Patient(patientUser());
+        patient.setId(1L);
+        Appointment appointment = new Appointment(patient, doctor(), LocalDateTime.of(2026, 12, 1, 10, 0), "Blood pressure review");
+        appointment.setId(1L);
+        appointment.setStatus(Appointment.AppointmentStatus.SCHEDULED);
+        appointment.setType(Appointment.AppointmentType.CONSULTATION);
+        appointment.setCreatedAt(LocalDateTime.of(2026, 11, 1, 9, 30));
+        appointment.setUpdatedAt(LocalDateTime.of(2026, 11, 1, 9, 30));
+        return appointment;
+    }
+
+    // Configured as the application's mapper is: ISO dates, JavaTimeModule
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static Set<Role> roles(Long id, Role.RoleName name) {
+        Role role = new Role(name);
+        role.setId(id);
+        Set<Role> roles = new HashSet<>();
+        roles.add(role);
+        return roles;
+    }
+}
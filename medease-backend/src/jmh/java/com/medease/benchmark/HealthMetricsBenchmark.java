@@ -0,0 +1,48 @@
+package com.medease.benchmark;
+
+import com.medease.entity.HealthMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// BMI is recomputed whenever weight or height is set, including on every load and update
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HealthMetricsBenchmark {
+
+    private static final double[] WEIGHTS = {48.5, 62.0, 70.0, 81.3, 95.7, 120.2, 56.8, 103.4};
+    private static final double[] HEIGHTS = {152.0, 160.5, 168.0, 175.0, 181.2, 190.0, 165.3, 172.8};
+
+    private HealthMetrics metrics;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        metrics = new HealthMetrics(70.0, 175.0, 72);
+    }
+
+    @Benchmark
+    public Double newWithBmi() {
+        int i = next++ & 7;
+        return new HealthMetrics(WEIGHTS[i], HEIGHTS[i], 72).getBmi();
+    }
+
+    @Benchmark
+    public Double updateWeight() {
+        metrics.setWeight(WEIGHTS[next++ & 7]);
+        return metrics.getBmi();
+    }
+}
@@ -0,0 +1,61 @@
+package com.medease.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.entity.Appointment;
+import com.medease.entity.Doctor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The entity graphs the appointment and doctor endpoints return, written the way the controllers write them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Appointment appointment;
+    private Doctor doctor;
+    private List<Doctor> doctorPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        appointment = Fixtures.appointment();
+        doctor = Fixtures.doctor();
+        doctorPage = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            doctorPage.add(Fixtures.doctor());
+        }
+    }
+
+    @Benchmark
+    public byte[] appointment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(appointment);
+    }
+
+    @Benchmark
+    public byte[] doctor() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(doctor);
+    }
+
+    @Benchmark
+    public byte[] doctorList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(doctorPage);
+    }
+}
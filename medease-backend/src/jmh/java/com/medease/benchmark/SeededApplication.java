@@ -0,0 +1,57 @@
+package com.medease.benchmark;
+
+import com.medease.MedeaseBackendApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+// The full application on its in-memory database, filled by the synthetic
+// seeder so queries run against a realistic number of rows rather than the
+// handful of sample records. Started once per fork and shared by its threads.
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    static final int PATIENTS = 5000;
+    static final int DOCTORS = 200;
+    static final int APPOINTMENTS_PER_PATIENT = 20;
+    // Fixed so every run seeds the same rows; the day baseline.json was recorded
+    static final LocalDate REFERENCE_DATE = LocalDate.of(2026, 10, 18);
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        Path chatLogs = Files.createTempDirectory("medease-jmh-chat");
+        // Passed as arguments, since defaults would lose to application.yml
+        context = new SpringApplicationBuilder(MedeaseBackendApplication.class)
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.medease=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--medease.chat.log.directory=" + chatLogs,
+                        "--seed.patients=" + PATIENTS,
+                        "--seed.doctors=" + DOCTORS,
+                        "--seed.appointmentsPerPatient=" + APPOINTMENTS_PER_PATIENT,
+                        "--seed.reference-date=" + REFERENCE_DATE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -2,8 +2,12 @@ package com.medease;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableAsync
 public class MedeaseBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(MedeaseBackendApplication.class, args);
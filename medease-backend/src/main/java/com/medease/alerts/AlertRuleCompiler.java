@@ -0,0 +1,109 @@
+package com.medease.alerts;
+
+import com.medease.entity.AlertRule;
+import com.medease.entity.VitalSign;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Rule syntax, clauses joined by AND:
+//   <metric> <op> <number> [TIMES <n> WITHIN <duration>]   op is >, >=, < or <=; duration like 30m, 24h, 7d
+//   CONDITION <name>                                       an active medical condition
+// Metrics are VitalSign names or HealthMetrics field names, e.g.
+//   "BLOOD_PRESSURE_SYSTOLIC > 140 TIMES 2 WITHIN 24h"
+//   "bmi > 30 AND CONDITION Hypertension"
+public final class AlertRuleCompiler {
+
+    private static final Pattern AND = Pattern.compile("\\s+AND\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CONDITION = Pattern.compile("^CONDITION\\s+(.+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern THRESHOLD = Pattern.compile(
+            "^([A-Za-z_]+)\\s*(>=|<=|>|<)\\s*(-?\\d+(?:\\.\\d+)?)(?:\\s+TIMES\\s+(\\d+)\\s+WITHIN\\s+(\\d+)\\s*([mhd]))?$",
+            Pattern.CASE_INSENSITIVE);
+
+    private AlertRuleCompiler() {}
+
+    public static CompiledRules compile(List<AlertRule> rules) {
+        Map<String, Integer> predicateIds = new HashMap<>();
+        List<CompiledRules.Predicate> predicates = new ArrayList<>();
+        List<CompiledRules.Rule> compiled = new ArrayList<>();
+
+        for (AlertRule rule : rules) {
+            Set<Integer> ids = new LinkedHashSet<>();
+            Set<String> conditions = new LinkedHashSet<>();
+            for (CompiledRules.Predicate predicate : parse(rule.getExpression(), conditions)) {
+                // Identical clauses in different rules are evaluated once
+                Integer id = predicateIds.get(predicate.key);
+                if (id == null) {
+                    id = predicates.size();
+                    predicates.add(predicate);
+                    predicateIds.put(predicate.key, id);
+                }
+                ids.add(id);
+            }
+            compiled.add(new CompiledRules.Rule(rule.getId(), rule.getName(), rule.getSeverity(), rule.getExpression(),
+                    ids.stream().mapToInt(Integer::intValue).toArray(), conditions.toArray(new String[0])));
+        }
+        return new CompiledRules(predicates, compiled);
+    }
+
+    // Checks an expression without compiling a rule set; throws on the first bad clause
+    public static void validate(String expression) {
+        parse(expression, new LinkedHashSet<>());
+    }
+
+    private static List<CompiledRules.Predicate> parse(String expression, Set<String> conditions) {
+        if (expression == null || expression.isBlank()) {
+            throw new RuntimeException("Alert rule expression is required");
+        }
+        List<CompiledRules.Predicate> predicates = new ArrayList<>();
+        for (String clause : AND.split(expression.trim())) {
+            Matcher condition = CONDITION.matcher(clause.trim());
+            if (condition.matches()) {
+                conditions.add(condition.group(1).trim().replaceAll("^[\"']|[\"']$", "").toLowerCase(Locale.ROOT));
+                continue;
+            }
+            Matcher threshold = THRESHOLD.matcher(clause.trim());
+            if (!threshold.matches()) {
+                throw new RuntimeException("Invalid alert rule clause: " + clause.trim());
+            }
+            VitalSign sign = resolveMetric(threshold.group(1));
+            String op = threshold.group(2);
+            double value = Double.parseDouble(threshold.group(3));
+            int times = threshold.group(4) != null ? Integer.parseInt(threshold.group(4)) : 1;
+            long windowSeconds = 0;
+            if (threshold.group(5) != null) {
+                long amount = Long.parseLong(threshold.group(5));
+                switch (threshold.group(6).toLowerCase(Locale.ROOT)) {
+                    case "m": windowSeconds = amount * 60; break;
+                    case "h": windowSeconds = amount * 3600; break;
+                    default: windowSeconds = amount * 86400;
+                }
+                if (times < 1 || windowSeconds <= 0) {
+                    throw new RuntimeException("Invalid alert rule window: " + clause.trim());
+                }
+            }
+            predicates.add(new CompiledRules.Predicate(sign, op.startsWith(">"), op.endsWith("="), value, times, windowSeconds));
+        }
+        if (predicates.isEmpty()) {
+            throw new RuntimeException("Alert rule needs at least one metric clause");
+        }
+        return predicates;
+    }
+
+    private static VitalSign resolveMetric(String name) {
+        String normalized = name.replace("_", "").toLowerCase(Locale.ROOT);
+        for (VitalSign sign : VitalSign.values()) {
+            if (sign.name().replace("_", "").toLowerCase(Locale.ROOT).equals(normalized)) {
+                return sign;
+            }
+        }
+        throw new RuntimeException("Unknown metric in alert rule: " + name);
+    }
+}
@@ -0,0 +1,217 @@
+package com.medease.alerts;
+
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.MedicalCondition;
+import com.medease.entity.VitalSign;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Immutable decision structure built by AlertRuleCompiler. Each metric has
+// its upper-bound clauses sorted by ascending threshold and its lower-bound
+// clauses by descending threshold, so a reading walks only the clauses it
+// satisfies plus one. Only rules that mention a metric present in the update
+// are checked, by testing their clause ids against the satisfied set.
+public final class CompiledRules {
+
+    public static final CompiledRules EMPTY = new CompiledRules(List.of(), List.of());
+
+    private final Predicate[] predicates;
+    private final Rule[] rules;
+    private final int[][] above;
+    private final int[][] below;
+    private final int[][] rulesBySign;
+
+    CompiledRules(List<Predicate> predicates, List<Rule> rules) {
+        this.predicates = predicates.toArray(new Predicate[0]);
+        this.rules = rules.toArray(new Rule[0]);
+
+        int signs = VitalSign.values().length;
+        this.above = new int[signs][];
+        this.below = new int[signs][];
+        this.rulesBySign = new int[signs][];
+        for (VitalSign sign : VitalSign.values()) {
+            List<Integer> up = new ArrayList<>();
+            List<Integer> down = new ArrayList<>();
+            for (int id = 0; id < this.predicates.length; id++) {
+                if (this.predicates[id].sign == sign) {
+                    (this.predicates[id].above ? up : down).add(id);
+                }
+            }
+            // On equal thresholds the inclusive clause is the weaker one and must come first
+            up.sort(Comparator.<Integer>comparingDouble(id -> this.predicates[id].threshold)
+                    .thenComparing(id -> !this.predicates[id].inclusive));
+            down.sort(Comparator.<Integer>comparingDouble(id -> -this.predicates[id].threshold)
+                    .thenComparing(id -> !this.predicates[id].inclusive));
+            above[sign.ordinal()] = up.stream().mapToInt(Integer::intValue).toArray();
+            below[sign.ordinal()] = down.stream().mapToInt(Integer::intValue).toArray();
+
+            List<Integer> touching = new ArrayList<>();
+            for (int r = 0; r < this.rules.length; r++) {
+                for (int id : this.rules[r].predicates) {
+                    if (this.predicates[id].sign == sign) {
+                        touching.add(r);
+                        break;
+                    }
+                }
+            }
+            rulesBySign[sign.ordinal()] = touching.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    // All metric clauses of a rule must hold in the same update. Active
+    // conditions are only fetched when a rule with a CONDITION clause gets that far.
+    public List<Firing> evaluate(HealthMetrics metrics, long timestamp, HitWindows windows,
+                                 Supplier<Set<String>> activeConditions) {
+        if (rules.length == 0) {
+            return List.of();
+        }
+        BitSet satisfied = new BitSet(predicates.length);
+        BitSet candidates = new BitSet(rules.length);
+        double[] values = new double[VitalSign.values().length];
+        for (VitalSign sign : VitalSign.values()) {
+            Double value = sign.extract(metrics);
+            if (value == null) {
+                continue;
+            }
+            int s = sign.ordinal();
+            values[s] = value;
+            for (int id : above[s]) {
+                Predicate predicate = predicates[id];
+                if (value < predicate.threshold || (value == predicate.threshold && !predicate.inclusive)) {
+                    break;
+                }
+                mark(satisfied, id, predicate, windows, timestamp);
+            }
+            for (int id : below[s]) {
+                Predicate predicate = predicates[id];
+                if (value > predicate.threshold || (value == predicate.threshold && !predicate.inclusive)) {
+                    break;
+                }
+                mark(satisfied, id, predicate, windows, timestamp);
+            }
+            for (int r : rulesBySign[s]) {
+                candidates.set(r);
+            }
+        }
+
+        List<Firing> firings = new ArrayList<>();
+        Set<String> conditions = null;
+        for (int r = candidates.nextSetBit(0); r >= 0; r = candidates.nextSetBit(r + 1)) {
+            Rule rule = rules[r];
+            boolean matched = true;
+            for (int id : rule.predicates) {
+                if (!satisfied.get(id)) {
+                    matched = false;
+                    break;
+                }
+            }
+            if (matched && rule.conditions.length > 0) {
+                if (conditions == null) {
+                    conditions = activeConditions.get();
+                }
+                for (String condition : rule.conditions) {
+                    if (!conditions.contains(condition)) {
+                        matched = false;
+                        break;
+                    }
+                }
+            }
+            if (matched) {
+                firings.add(new Firing(rule, describe(rule, values)));
+            }
+        }
+        return firings;
+    }
+
+    public int getRuleCount() {
+        return rules.length;
+    }
+
+    private static void mark(BitSet satisfied, int id, Predicate predicate, HitWindows windows, long timestamp) {
+        if (predicate.times <= 1 || windows.hit(predicate.key, predicate.times, predicate.windowSeconds, timestamp)) {
+            satisfied.set(id);
+        }
+    }
+
+    private String describe(Rule rule, double[] values) {
+        StringBuilder message = new StringBuilder(rule.name).append(": ");
+        boolean[] shown = new boolean[values.length];
+        boolean first = true;
+        for (int id : rule.predicates) {
+            VitalSign sign = predicates[id].sign;
+            if (!shown[sign.ordinal()]) {
+                if (!first) {
+                    message.append(", ");
+                }
+                first = false;
+                message.append(sign).append(' ').append(values[sign.ordinal()]);
+                shown[sign.ordinal()] = true;
+            }
+        }
+        return message.append(" (").append(rule.expression).append(')').toString();
+    }
+
+    static final class Predicate {
+        private final VitalSign sign;
+        private final boolean above;
+        private final boolean inclusive;
+        private final double threshold;
+        private final int times;
+        private final long windowSeconds;
+        // Stable across recompiles, so sliding-window state survives rule edits
+        final String key;
+
+        Predicate(VitalSign sign, boolean above, boolean inclusive, double threshold, int times, long windowSeconds) {
+            this.sign = sign;
+            this.above = above;
+            this.inclusive = inclusive;
+            this.threshold = threshold;
+            this.times = times;
+            this.windowSeconds = windowSeconds;
+            this.key = sign + (above ? ">" : "<") + (inclusive ? "=" : "") + threshold
+                    + (times > 1 ? "x" + times + "/" + windowSeconds : "");
+        }
+    }
+
+    static final class Rule {
+        private final Long id;
+        private final String name;
+        private final MedicalCondition.Severity severity;
+        private final String expression;
+        private final int[] predicates;
+        private final String[] conditions;
+
+        Rule(Long id, String name, MedicalCondition.Severity severity, String expression, int[] predicates, String[] conditions) {
+            this.id = id;
+            this.name = name;
+            this.severity = severity;
+            this.expression = expression;
+            this.predicates = predicates;
+            this.conditions = conditions;
+        }
+    }
+
+    public static final class Firing {
+        private final Long ruleId;
+        private final String ruleName;
+        private final MedicalCondition.Severity severity;
+        private final String message;
+
+        private Firing(Rule rule, String message) {
+            this.ruleId = rule.id;
+            this.ruleName = rule.name;
+            this.severity = rule.severity;
+            this.message = message;
+        }
+
+        public Long getRuleId() { return ruleId; }
+        public String getRuleName() { return ruleName; }
+        public MedicalCondition.Severity getSeverity() { return severity; }
+        public String getMessage() { return message; }
+    }
+}
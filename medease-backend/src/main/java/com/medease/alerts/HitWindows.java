@@ -0,0 +1,51 @@
+package com.medease.alerts;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Per-patient memory for "N times within a window" clauses: the last N hit
+// times of each clause, in a ring. Reading times are epoch seconds (UTC).
+public class HitWindows {
+
+    private final Map<String, Ring> rings = new HashMap<>();
+
+    public synchronized boolean hit(String key, int times, long windowSeconds, long timestamp) {
+        Ring ring = rings.computeIfAbsent(key, k -> new Ring(times));
+        ring.add(timestamp);
+        return ring.size == ring.hits.length && ring.oldest() >= timestamp - windowSeconds;
+    }
+
+    public synchronized HitWindows copy() {
+        HitWindows copy = new HitWindows();
+        rings.forEach((key, ring) -> copy.rings.put(key, ring.copy()));
+        return copy;
+    }
+
+    private static final class Ring {
+        private final long[] hits;
+        private int next;
+        private int size;
+
+        private Ring(int capacity) {
+            this.hits = new long[capacity];
+        }
+
+        private void add(long timestamp) {
+            hits[next] = timestamp;
+            next = (next + 1) % hits.length;
+            size = Math.min(size + 1, hits.length);
+        }
+
+        private Ring copy() {
+            Ring copy = new Ring(hits.length);
+            System.arraycopy(hits, 0, copy.hits, 0, hits.length);
+            copy.next = next;
+            copy.size = size;
+            return copy;
+        }
+
+        private long oldest() {
+            return hits[size < hits.length ? 0 : next];
+        }
+    }
+}
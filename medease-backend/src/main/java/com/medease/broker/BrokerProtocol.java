@@ -0,0 +1,112 @@
+package com.medease.broker;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+// Frames between the broker and its nodes: [int length][byte op][long topic hash], and for
+// a publish [short topic length][topic][payload] after that, all UTF-8. A frame is kept as
+// the bytes after the length, so the broker forwards a publish without decoding it.
+// A connection opens with a handshake: the broker sends a HELLO carrying a random
+// challenge, and the node must answer with a HELLO carrying HMAC-SHA256 of the challenge
+// under the shared secret before it may send anything else. The broker confirms with an
+// empty HELLO or closes the connection. The hash field of a HELLO is 0.
+final class BrokerProtocol {
+
+    static final byte SUBSCRIBE = 1;
+    static final byte UNSUBSCRIBE = 2;
+    static final byte PUBLISH = 3;
+    static final byte HELLO = 4;
+
+    static final int CHALLENGE_BYTES = 32;
+    static final int HANDSHAKE_TIMEOUT_MS = 5000;
+
+    private static final int MAX_FRAME = 16 * 1024 * 1024;
+
+    private BrokerProtocol() {
+    }
+
+    static byte[] control(byte op, long hash) {
+        return ByteBuffer.allocate(9).put(op).putLong(hash).array();
+    }
+
+    static byte[] publish(String topic, String payload) {
+        byte[] name = topic.getBytes(StandardCharsets.UTF_8);
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(11 + name.length + body.length)
+                .put(PUBLISH).putLong(BrokerRelay.topicHash(topic))
+                .putShort((short) name.length).put(name).put(body)
+                .array();
+    }
+
+    static byte[] hello(byte[] body) {
+        return ByteBuffer.allocate(9 + body.length).put(HELLO).putLong(0).put(body).array();
+    }
+
+    static byte[] helloBody(byte[] frame) {
+        return Arrays.copyOfRange(frame, 9, frame.length);
+    }
+
+    static byte[] sign(byte[] secret, byte[] challenge) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(challenge);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    static byte op(byte[] frame) {
+        return frame[0];
+    }
+
+    static long hash(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(1);
+    }
+
+    static String topic(byte[] frame) {
+        return new String(frame, 11, topicLength(frame), StandardCharsets.UTF_8);
+    }
+
+    static String payload(byte[] frame) {
+        int offset = 11 + topicLength(frame);
+        return new String(frame, offset, frame.length - offset, StandardCharsets.UTF_8);
+    }
+
+    // The next frame, or null once the other side has closed the stream
+    static byte[] read(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 9 || length > MAX_FRAME) {
+            throw new IOException("Bad broker frame length " + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        if (frame[0] == PUBLISH && (length < 11 || 11 + topicLength(frame) > length)) {
+            throw new IOException("Bad broker publish frame");
+        }
+        return frame;
+    }
+
+    static void write(DataOutputStream out, byte[] frame) throws IOException {
+        out.writeInt(frame.length);
+        out.write(frame);
+    }
+
+    private static int topicLength(byte[] frame) {
+        return ((frame[9] & 0xff) << 8) | (frame[10] & 0xff);
+    }
+}
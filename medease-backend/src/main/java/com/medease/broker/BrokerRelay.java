@@ -0,0 +1,38 @@
+package com.medease.broker;
+
+import java.nio.charset.StandardCharsets;
+
+// Carries live frames between backend nodes. A node subscribes to the topics
+// its own sockets care about and publishes what happened locally; the relay
+// hands it whatever other nodes published on its topics. Publishing never
+// blocks and never loops back to the publishing node, which has already
+// delivered locally. Frames are live updates only: a relay may drop them
+// under pressure, and clients catch up from history when they rejoin.
+public interface BrokerRelay {
+
+    interface Listener {
+        void onMessage(String topic, String payload);
+    }
+
+    void start(Listener listener);
+
+    // Calls are counted per topic; the node stays subscribed until every subscribe is undone
+    void subscribe(String topic);
+
+    void unsubscribe(String topic);
+
+    void publish(String topic, String payload);
+
+    void close();
+
+    // 64-bit FNV-1a of the topic name. Subscriptions and routing use only this,
+    // so a rare collision delivers a few extra frames that the receiver filters out.
+    static long topicHash(String topic) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : topic.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
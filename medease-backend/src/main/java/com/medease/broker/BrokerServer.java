@@ -0,0 +1,231 @@
+package com.medease.broker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Broker embedded in one backend node, which the other nodes (and that node
+// itself) connect to over TCP. Nodes subscribe by topic hash; a publish is
+// looked up by its hash and forwarded, as the bytes that arrived, to the other
+// nodes subscribed to it, so a node never receives topics it has no
+// subscribers for. Each node has a bounded outbound queue and is dropped when
+// it falls behind; it reconnects and subscribes again. A node must prove it
+// holds the shared secret (see BrokerProtocol) before its frames are read;
+// the frames themselves are not encrypted, so keep the broker on a private
+// network.
+public class BrokerServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrokerServer.class);
+
+    private final String bindAddress;
+    private final int port;
+    private final int maxQueuedFrames;
+    private final byte[] secret;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<Long, Set<Peer>> routes = new ConcurrentHashMap<>();
+    private final Set<Peer> peers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger peerCounter = new AtomicInteger();
+    private ServerSocket serverSocket;
+
+    public BrokerServer(String bindAddress, int port, int maxQueuedFrames, String secret) {
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(bindAddress, port));
+        Thread acceptor = new Thread(this::acceptLoop, "broker-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Broker listening on {}:{}", bindAddress, serverSocket.getLocalPort());
+    }
+
+    // The bound port, which differs from the configured one when that was 0
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // closing anyway
+        }
+        for (Peer peer : peers) {
+            peer.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Peer peer = new Peer(socket, peerCounter.incrementAndGet());
+                peers.add(peer);
+                peer.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Broker accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private final class Peer {
+        private final Socket socket;
+        private final int number;
+        private final BlockingQueue<byte[]> outbound = new ArrayBlockingQueue<>(maxQueuedFrames);
+        // Only touched by this peer's reader thread until it closes
+        private final Set<Long> hashes = new HashSet<>();
+        private final Thread reader;
+        private final Thread writer;
+        private volatile boolean closed;
+
+        private Peer(Socket socket, int number) {
+            this.socket = socket;
+            this.number = number;
+            this.reader = new Thread(this::readLoop, "broker-peer-" + number);
+            this.writer = new Thread(this::writeLoop, "broker-peer-" + number + "-writer");
+            reader.setDaemon(true);
+            writer.setDaemon(true);
+        }
+
+        private void start() {
+            reader.start();
+            writer.start();
+        }
+
+        private void send(byte[] frame) {
+            if (!outbound.offer(frame)) {
+                logger.warn("Broker peer {} fell behind with {} frames queued, disconnecting", number, outbound.size());
+                close();
+            }
+        }
+
+        private void readLoop() {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                if (!authenticate(in)) {
+                    logger.warn("Broker peer {} from {} failed authentication", number, socket.getRemoteSocketAddress());
+                    return;
+                }
+                send(BrokerProtocol.hello(new byte[0]));
+                byte[] frame;
+                while ((frame = BrokerProtocol.read(in)) != null) {
+                    long hash = BrokerProtocol.hash(frame);
+                    switch (BrokerProtocol.op(frame)) {
+                        case BrokerProtocol.SUBSCRIBE -> {
+                            if (hashes.add(hash)) {
+                                routes.compute(hash, (h, subscribers) -> {
+                                    Set<Peer> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                                    set.add(this);
+                                    return set;
+                                });
+                            }
+                        }
+                        case BrokerProtocol.UNSUBSCRIBE -> {
+                            if (hashes.remove(hash)) {
+                                unroute(hash);
+                            }
+                        }
+                        case BrokerProtocol.PUBLISH -> {
+                            Set<Peer> subscribers = routes.get(hash);
+                            if (subscribers != null) {
+                                for (Peer peer : subscribers) {
+                                    if (peer != this) {
+                                        peer.send(frame);
+                                    }
+                                }
+                            }
+                        }
+                        default -> throw new IOException("Unknown broker op " + BrokerProtocol.op(frame));
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.debug("Broker peer {} read failed: {}", number, e.getMessage());
+                }
+            } finally {
+                close();
+                for (Long hash : hashes) {
+                    unroute(hash);
+                }
+            }
+        }
+
+        private boolean authenticate(DataInputStream in) throws IOException {
+            byte[] challenge = new byte[BrokerProtocol.CHALLENGE_BYTES];
+            random.nextBytes(challenge);
+            send(BrokerProtocol.hello(challenge));
+            socket.setSoTimeout(BrokerProtocol.HANDSHAKE_TIMEOUT_MS);
+            byte[] reply = BrokerProtocol.read(in);
+            socket.setSoTimeout(0);
+            return reply != null && BrokerProtocol.op(reply) == BrokerProtocol.HELLO
+                    && MessageDigest.isEqual(BrokerProtocol.helloBody(reply), BrokerProtocol.sign(secret, challenge));
+        }
+
+        private void writeLoop() {
+            try {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                while (!closed) {
+                    BrokerProtocol.write(out, outbound.take());
+                    // Everything already queued goes out in the same flush
+                    byte[] frame;
+                    while ((frame = outbound.poll()) != null) {
+                        BrokerProtocol.write(out, frame);
+                    }
+                    out.flush();
+                }
+            } catch (IOException e) {
+                logger.debug("Broker peer {} write failed: {}", number, e.getMessage());
+                close();
+            } catch (InterruptedException e) {
+                // closed
+            }
+        }
+
+        private void unroute(long hash) {
+            routes.computeIfPresent(hash, (h, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+
+        // The reader then fails and drops this peer's routes
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            peers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+            writer.interrupt();
+        }
+    }
+}
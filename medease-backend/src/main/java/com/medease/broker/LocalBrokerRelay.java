@@ -0,0 +1,25 @@
+package com.medease.broker;
+
+// Single node: every subscriber is local and already served, so there is nothing to relay
+public class LocalBrokerRelay implements BrokerRelay {
+
+    @Override
+    public void start(Listener listener) {
+    }
+
+    @Override
+    public void subscribe(String topic) {
+    }
+
+    @Override
+    public void unsubscribe(String topic) {
+    }
+
+    @Override
+    public void publish(String topic, String payload) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,218 @@
+package com.medease.broker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A node's connection to a BrokerServer. Publishes go through a bounded queue
+// drained by a writer thread; overflowing it drops the connection, which is
+// re-established after a second together with every subscription, as happens
+// after any network failure. While disconnected, publishes are dropped. Each
+// connection starts by answering the broker's challenge with the shared secret.
+public class TcpBrokerRelay implements BrokerRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(TcpBrokerRelay.class);
+
+    private static final long RECONNECT_DELAY_MS = 1000;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private final String host;
+    private final int port;
+    private final byte[] secret;
+    private final BlockingQueue<byte[]> outbound;
+
+    // Changed under this lock; topics is read without it when filtering incoming frames
+    private final Map<String, Integer> topics = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> hashes = new HashMap<>();
+    // Set under this lock, read without it by publishers
+    private volatile boolean connected;
+
+    private volatile boolean running;
+    private volatile Socket socket;
+    private Listener listener;
+    private Thread connector;
+
+    public TcpBrokerRelay(String host, int port, int maxQueuedFrames, String secret) {
+        this.host = host;
+        this.port = port;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.outbound = new ArrayBlockingQueue<>(maxQueuedFrames);
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        running = true;
+        connector = new Thread(this::connectLoop, "broker-relay");
+        connector.setDaemon(true);
+        connector.start();
+    }
+
+    @Override
+    public synchronized void subscribe(String topic) {
+        topics.merge(topic, 1, Integer::sum);
+        long hash = BrokerRelay.topicHash(topic);
+        if (hashes.merge(hash, 1, Integer::sum) == 1) {
+            enqueue(BrokerProtocol.control(BrokerProtocol.SUBSCRIBE, hash));
+        }
+    }
+
+    @Override
+    public synchronized void unsubscribe(String topic) {
+        if (!topics.containsKey(topic)) {
+            return;
+        }
+        topics.computeIfPresent(topic, (t, count) -> count > 1 ? count - 1 : null);
+        long hash = BrokerRelay.topicHash(topic);
+        if (hashes.computeIfPresent(hash, (h, count) -> count > 1 ? count - 1 : null) == null) {
+            enqueue(BrokerProtocol.control(BrokerProtocol.UNSUBSCRIBE, hash));
+        }
+    }
+
+    @Override
+    public void publish(String topic, String payload) {
+        if (connected) {
+            enqueue(BrokerProtocol.publish(topic, payload));
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        connector.interrupt();
+        closeSocket();
+    }
+
+    // Control frames are only sent while connected, since connecting sends the full subscription set
+    private void enqueue(byte[] frame) {
+        if (connected && !outbound.offer(frame)) {
+            logger.warn("Broker relay fell behind with {} frames queued, reconnecting", outbound.size());
+            closeSocket();
+        }
+    }
+
+    private void connectLoop() {
+        while (running) {
+            Thread writer = null;
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                s.setTcpNoDelay(true);
+                socket = s;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+                answerChallenge(s, in, out);
+                synchronized (this) {
+                    outbound.clear();
+                    for (Long hash : hashes.keySet()) {
+                        outbound.add(BrokerProtocol.control(BrokerProtocol.SUBSCRIBE, hash));
+                    }
+                    connected = true;
+                }
+                writer = new Thread(() -> writeLoop(out), "broker-relay-writer");
+                writer.setDaemon(true);
+                writer.start();
+                logger.info("Connected to broker {}:{}", host, port);
+                readLoop(in);
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Broker {}:{} unavailable: {}", host, port, e.getMessage());
+                }
+            } finally {
+                synchronized (this) {
+                    connected = false;
+                }
+                socket = null;
+                if (writer != null) {
+                    writer.interrupt();
+                }
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void answerChallenge(Socket s, DataInputStream in, DataOutputStream out) throws IOException {
+        s.setSoTimeout(BrokerProtocol.HANDSHAKE_TIMEOUT_MS);
+        byte[] hello = BrokerProtocol.read(in);
+        if (hello == null || BrokerProtocol.op(hello) != BrokerProtocol.HELLO) {
+            throw new IOException("Broker did not send a challenge");
+        }
+        BrokerProtocol.write(out, BrokerProtocol.hello(BrokerProtocol.sign(secret, BrokerProtocol.helloBody(hello))));
+        out.flush();
+        byte[] accepted = BrokerProtocol.read(in);
+        if (accepted == null || BrokerProtocol.op(accepted) != BrokerProtocol.HELLO) {
+            throw new IOException("Broker rejected the shared secret");
+        }
+        s.setSoTimeout(0);
+    }
+
+    private void readLoop(DataInputStream in) throws IOException {
+        byte[] frame;
+        while ((frame = BrokerProtocol.read(in)) != null) {
+            if (BrokerProtocol.op(frame) != BrokerProtocol.PUBLISH) {
+                continue;
+            }
+            String topic = BrokerProtocol.topic(frame);
+            // Another topic with the same hash
+            if (!topics.containsKey(topic)) {
+                continue;
+            }
+            try {
+                listener.onMessage(topic, BrokerProtocol.payload(frame));
+            } catch (RuntimeException e) {
+                logger.error("Relayed frame on {} could not be delivered", topic, e);
+            }
+        }
+        throw new IOException("Broker closed the connection");
+    }
+
+    private void writeLoop(DataOutputStream out) {
+        try {
+            while (true) {
+                BrokerProtocol.write(out, outbound.take());
+                byte[] frame;
+                while ((frame = outbound.poll()) != null) {
+                    BrokerProtocol.write(out, frame);
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            logger.debug("Broker relay write failed: {}", e.getMessage());
+            closeSocket();
+        } catch (InterruptedException e) {
+            // disconnected
+        }
+    }
+
+    // The reader then fails and the connector starts over
+    private void closeSocket() {
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.medease.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.broker.BrokerRelay;
+import com.medease.dto.ChatMessage;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+// Live state of one chat room: who is subscribed, the recent history and the
+// room's log. A message is numbered and appended to the log under the channel
+// lock, and delivered (added to the history and queued to subscribers) once
+// the log has fsynced it, also under the lock. Every subscriber therefore sees
+// messages in the same order, nobody sees a message that could still be lost,
+// and a joiner gets each message exactly once, in its history frame or after.
+// Frames are also published on the room's broker topic; the channel holds
+// that subscription while it has subscribers.
+public class ChatChannel {
+
+    private final Long roomId;
+    private final Long patientId;
+    private final Long doctorId;
+    private final ObjectMapper objectMapper;
+    private final ChatLog chatLog;
+    private final RoomLog log;
+    private final BrokerRelay relay;
+    private final String topic;
+    private final MessageRing history;
+    private final Set<ChatConnection> subscribers = new HashSet<>();
+    private long lastId;
+    private long lastActivityMillis = System.currentTimeMillis();
+    // Set when the channel is evicted; callers holding a retired channel look it up again
+    private boolean retired;
+
+    private ChatChannel(Long roomId, Long patientId, Long doctorId, int historySize,
+                        ObjectMapper objectMapper, ChatLog chatLog, RoomLog log, BrokerRelay relay) {
+        this.roomId = roomId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.objectMapper = objectMapper;
+        this.chatLog = chatLog;
+        this.log = log;
+        this.relay = relay;
+        this.topic = topic(roomId);
+        this.history = new MessageRing(historySize);
+    }
+
+    public static ChatChannel open(Long roomId, Long patientId, Long doctorId, int historySize,
+                                   ObjectMapper objectMapper, ChatLog chatLog, BrokerRelay relay) throws IOException {
+        RoomLog log = chatLog.open(roomId);
+        ChatChannel channel = new ChatChannel(roomId, patientId, doctorId, historySize, objectMapper, chatLog, log, relay);
+        channel.lastId = log.lastSeq();
+        for (String json : log.readBefore(channel.lastId + 1, historySize)) {
+            channel.history.add(objectMapper.readValue(json, ChatMessage.class), json);
+        }
+        return channel;
+    }
+
+    // False if the channel was retired and must be looked up again
+    public synchronized boolean join(ChatConnection connection, int historyLimit) {
+        if (retired) {
+            return false;
+        }
+        if (subscribers.add(connection) && subscribers.size() == 1) {
+            relay.subscribe(topic);
+        }
+        lastActivityMillis = System.currentTimeMillis();
+        StringBuilder frame = new StringBuilder(256 + history.size() * 256)
+                .append("{\"type\":\"room_history\",\"roomId\":").append(roomId).append(",\"messages\":[");
+        history.appendJson(frame, historyLimit);
+        connection.send(new TextMessage(frame.append("]}").toString()));
+        return true;
+    }
+
+    public synchronized void leave(ChatConnection connection) {
+        if (subscribers.remove(connection) && subscribers.isEmpty()) {
+            relay.unsubscribe(topic);
+        }
+    }
+
+    // Numbers the message and appends it to the log; null if the channel was retired.
+    // Delivery follows once the log's next group commit covers it.
+    public synchronized ChatMessage publish(ChatMessage message) {
+        if (retired) {
+            return null;
+        }
+        message.setId(lastId + 1);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(message);
+            chatLog.append(log, message.getId(), json.getBytes(StandardCharsets.UTF_8), () -> deliver(message, json));
+        } catch (IOException e) {
+            throw new RuntimeException("Message could not be saved", e);
+        }
+        lastId++;
+        lastActivityMillis = System.currentTimeMillis();
+        return message;
+    }
+
+    // Newest messages before `before` (exclusive) from the log, oldest first
+    public synchronized List<ChatMessage> readBefore(long before, int limit) {
+        if (retired) {
+            return null;
+        }
+        try {
+            List<ChatMessage> messages = new ArrayList<>();
+            for (String json : log.readBefore(before, limit)) {
+                messages.add(objectMapper.readValue(json, ChatMessage.class));
+            }
+            return messages;
+        } catch (IOException e) {
+            throw new RuntimeException("Chat history could not be read", e);
+        }
+    }
+
+    public synchronized List<ChatMessage> recent(int limit) {
+        return history.newest(limit);
+    }
+
+    public synchronized ChatMessage lastMessage() {
+        return history.last();
+    }
+
+    // Seals the log so the room holds no open file while nobody is in it
+    public synchronized boolean retireIfIdle(long idleSinceMillis) throws IOException {
+        if (retired || !subscribers.isEmpty() || lastActivityMillis > idleSinceMillis) {
+            return false;
+        }
+        retire();
+        return true;
+    }
+
+    public synchronized void retire() throws IOException {
+        retired = true;
+        log.seal();
+    }
+
+    // Applies retention and compaction to the room's sealed segments
+    public synchronized int[] maintain(long retainAfterMillis) throws IOException {
+        if (retired) {
+            return null;
+        }
+        int deleted = retainAfterMillis > 0 ? log.deleteOlderThan(retainAfterMillis) : 0;
+        return new int[] {deleted, log.compact()};
+    }
+
+    // Queues a frame that is not part of the history, such as presence, to every subscriber and the room's topic
+    public synchronized void broadcast(TextMessage frame) {
+        broadcastLocal(frame);
+        relay.publish(topic, frame.getPayload());
+    }
+
+    // A frame the relay delivered on this room's topic
+    public synchronized void broadcastLocal(TextMessage frame) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (Iterator<ChatConnection> it = subscribers.iterator(); it.hasNext(); ) {
+            if (!it.next().send(frame)) {
+                it.remove();
+            }
+        }
+        if (subscribers.isEmpty()) {
+            relay.unsubscribe(topic);
+        }
+    }
+
+    public static String topic(Long roomId) {
+        return "chat.room." + roomId;
+    }
+
+    private synchronized void deliver(ChatMessage message, String json) {
+        history.add(message, json);
+        broadcast(new TextMessage("{\"type\":\"new_message\",\"message\":" + json + "}"));
+    }
+
+    public Long getRoomId() { return roomId; }
+    public Long getPatientId() { return patientId; }
+    public Long getDoctorId() { return doctorId; }
+}
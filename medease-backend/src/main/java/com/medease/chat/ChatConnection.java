@@ -0,0 +1,150 @@
+package com.medease.chat;
+
+import com.medease.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+// One authenticated WebSocket with its own bounded outbound queue. Publishers
+// only enqueue, so a room broadcast never waits on a slow socket; a writer
+// thread drains the queue. A client that falls further behind than the queue
+// allows is disconnected and catches up from the room history when it
+// rejoins, instead of buffering without limit on the server.
+public class ChatConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatConnection.class);
+
+    // Frames written per turn on a writer thread, so one busy socket cannot hold a writer indefinitely
+    private static final int FRAMES_PER_DRAIN = 64;
+
+    private final WebSocketSession session;
+    private final UserPrincipal principal;
+    private final Executor writer;
+    private final int maxQueuedFrames;
+    private final long maxQueuedBytes;
+
+    // Rooms this connection has joined, so disconnecting can leave them all
+    private final Set<Long> rooms = ConcurrentHashMap.newKeySet();
+
+    // Guarded by this
+    private final ArrayDeque<TextMessage> outbound = new ArrayDeque<>();
+    private long queuedBytes;
+    private boolean draining;
+    private boolean closed;
+
+    public ChatConnection(WebSocketSession session, UserPrincipal principal, Executor writer,
+                          int maxQueuedFrames, long maxQueuedBytes) {
+        this.session = session;
+        this.principal = principal;
+        this.writer = writer;
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    // Never blocks; false when the connection is gone, including when this frame overflowed its queue
+    public boolean send(TextMessage frame) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (outbound.size() >= maxQueuedFrames || queuedBytes + frame.getPayloadLength() > maxQueuedBytes) {
+                logger.debug("Chat connection {} fell behind with {} frames queued", session.getId(), outbound.size());
+                abort(CloseStatus.SESSION_NOT_RELIABLE.withReason("Send queue overflow"));
+                return false;
+            }
+            outbound.add(frame);
+            queuedBytes += frame.getPayloadLength();
+            if (draining) {
+                return true;
+            }
+            draining = true;
+        }
+        schedule();
+        return true;
+    }
+
+    public void close(CloseStatus status) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            abort(status);
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    // Called when the socket is already closed, from whichever side
+    public synchronized void closed() {
+        closed = true;
+        outbound.clear();
+        queuedBytes = 0;
+    }
+
+    // Must hold the lock; the close handshake itself is written by a writer thread
+    private void abort(CloseStatus status) {
+        closed = true;
+        outbound.clear();
+        queuedBytes = 0;
+        try {
+            writer.execute(() -> {
+                try {
+                    session.close(status);
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Closing chat connection {} failed: {}", session.getId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the container closes the socket
+        }
+    }
+
+    private void schedule() {
+        try {
+            writer.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            closed();
+        }
+    }
+
+    private void drain() {
+        for (int written = 0; written < FRAMES_PER_DRAIN; written++) {
+            TextMessage frame;
+            synchronized (this) {
+                frame = closed ? null : outbound.poll();
+                if (frame == null) {
+                    draining = false;
+                    return;
+                }
+                queuedBytes -= frame.getPayloadLength();
+            }
+            try {
+                session.sendMessage(frame);
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Chat connection {} write failed: {}", session.getId(), e.getMessage());
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                synchronized (this) {
+                    draining = false;
+                }
+                return;
+            }
+        }
+        // Still draining: go to the back of the writer queue behind the other connections
+        schedule();
+    }
+
+    public WebSocketSession getSession() { return session; }
+    public UserPrincipal getPrincipal() { return principal; }
+    public Set<Long> getRooms() { return rooms; }
+}
@@ -0,0 +1,144 @@
+package com.medease.chat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Durable chat history as one append-only segmented log per room
+// (root/room-<id>/). Appends are written straight away but become durable in
+// groups: a single committer thread fsyncs every room written since its last
+// pass, then runs the callbacks of all records in that group, in append order.
+// Records appended while an fsync is in flight simply join the next group, so
+// the fsync rate stays flat however many messages arrive.
+public class ChatLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatLog.class);
+
+    private final Path root;
+    private final long segmentBytes;
+    private final int indexInterval;
+    private final Thread committer;
+
+    // Guarded by this
+    private List<Pending> pending = new ArrayList<>();
+    private boolean running = true;
+
+    public ChatLog(Path root, long segmentBytes, int indexInterval) throws IOException {
+        this.root = root;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+        Files.createDirectories(root);
+        committer = new Thread(this::commitLoop, "chat-log-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    RoomLog open(long roomId) throws IOException {
+        return RoomLog.open(roomId, root.resolve("room-" + roomId), segmentBytes, indexInterval);
+    }
+
+    // Writes the record now; onDurable runs on the committer thread once it is fsynced
+    void append(RoomLog log, long seq, byte[] payload, Runnable onDurable) throws IOException {
+        log.append(seq, payload);
+        synchronized (this) {
+            pending.add(new Pending(log, onDurable));
+            notifyAll();
+        }
+    }
+
+    // Rooms with a log on disk, loaded or not
+    public List<Long> roomIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(root)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                String name = path.getFileName().toString();
+                if (name.startsWith("room-") && Files.isDirectory(path)) {
+                    try {
+                        ids.add(Long.parseLong(name.substring(5)));
+                    } catch (NumberFormatException e) {
+                        // not ours
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Commits whatever is pending and stops the committer
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            running = false;
+            notifyAll();
+        }
+        committer.join(10_000);
+    }
+
+    private void commitLoop() {
+        while (true) {
+            List<Pending> batch;
+            synchronized (this) {
+                while (pending.isEmpty() && running) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+            Set<RoomLog> dirty = new LinkedHashSet<>();
+            for (Pending entry : batch) {
+                dirty.add(entry.log);
+            }
+            try {
+                for (RoomLog log : dirty) {
+                    log.force();
+                }
+            } catch (IOException e) {
+                // Nothing in the group is acknowledged until an fsync covering it succeeds
+                logger.error("Chat log fsync failed, retrying: {}", e.getMessage());
+                synchronized (this) {
+                    batch.addAll(pending);
+                    pending = batch;
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            for (Pending entry : batch) {
+                try {
+                    entry.onDurable.run();
+                } catch (RuntimeException e) {
+                    logger.error("Chat delivery callback failed", e);
+                }
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final RoomLog log;
+        private final Runnable onDurable;
+
+        private Pending(RoomLog log, Runnable onDurable) {
+            this.log = log;
+            this.onDurable = onDurable;
+        }
+    }
+}
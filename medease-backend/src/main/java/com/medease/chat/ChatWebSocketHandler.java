@@ -0,0 +1,125 @@
+package com.medease.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.security.UserPrincipal;
+import com.medease.service.ChatService;
+import com.medease.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// JSON frames, named after the events of the dashboard's chat prototype:
+//   {"type":"join_room","roomId":1}                 -> room_history
+//   {"type":"leave_room","roomId":1}
+//   {"type":"send_message","roomId":1,"content":"..","clientId":".."} -> new_message to the room
+//   {"type":"typing_start","roomId":1} / {"type":"typing_stop","roomId":1}
+//   {"type":"ping"}                                 -> pong
+// Presence arrives as {"type":"presence","roomId":..,"snapshot":..,"members":[..]}:
+// the full state right after room_history, then only changes.
+// Failures come back as {"type":"error","roomId":..,"message":".."}.
+@Component
+public class ChatWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String CONNECTION_ATTRIBUTE = "chatConnection";
+    private static final TextMessage PONG = new TextMessage("{\"type\":\"pong\"}");
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        UserPrincipal principal = (UserPrincipal) session.getAttributes().get(JwtHandshakeInterceptor.PRINCIPAL_ATTRIBUTE);
+        ChatConnection connection = chatService.connect(session, principal);
+        session.getAttributes().put(CONNECTION_ATTRIBUTE, connection);
+        presenceService.connected(connection);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        ChatConnection connection = (ChatConnection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        JsonNode frame;
+        try {
+            frame = objectMapper.readTree(message.getPayload());
+        } catch (IOException e) {
+            connection.send(error(null, "Invalid JSON"));
+            return;
+        }
+        if (frame == null || !frame.isObject()) {
+            connection.send(error(null, "Frame must be a JSON object"));
+            return;
+        }
+        Long roomId = frame.path("roomId").canConvertToLong() ? frame.path("roomId").asLong() : null;
+        String type = frame.path("type").asText();
+        try {
+            switch (type) {
+                case "join_room" -> {
+                    chatService.join(connection, requireRoom(roomId));
+                    presenceService.joined(connection, roomId);
+                }
+                case "leave_room" -> {
+                    presenceService.left(connection, requireRoom(roomId));
+                    chatService.leave(connection, roomId);
+                }
+                case "send_message" -> {
+                    chatService.send(connection, requireRoom(roomId),
+                            frame.path("content").isTextual() ? frame.get("content").asText() : null,
+                            frame.path("clientId").isTextual() ? frame.get("clientId").asText() : null);
+                    presenceService.sent(connection, roomId);
+                }
+                case "typing_start" -> presenceService.typing(connection, requireRoom(roomId), true);
+                case "typing_stop" -> presenceService.typing(connection, requireRoom(roomId), false);
+                case "ping" -> connection.send(PONG);
+                default -> connection.send(error(roomId, "Unknown frame type"));
+            }
+        } catch (RuntimeException e) {
+            connection.send(error(roomId, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        ChatConnection connection = (ChatConnection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        // Cleanup happens in afterConnectionClosed, which follows
+        if (connection != null) {
+            connection.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ChatConnection connection = (ChatConnection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        if (connection != null) {
+            presenceService.disconnected(connection);
+            chatService.disconnect(connection);
+        }
+    }
+
+    private static Long requireRoom(Long roomId) {
+        if (roomId == null) {
+            throw new RuntimeException("roomId is required");
+        }
+        return roomId;
+    }
+
+    private TextMessage error(Long roomId, String message) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "error");
+        frame.put("roomId", roomId);
+        frame.put("message", message);
+        return new TextMessage(chatService.toJson(frame));
+    }
+}
@@ -0,0 +1,63 @@
+package com.medease.chat;
+
+import com.medease.security.JwtUtils;
+import com.medease.security.UserPrincipal;
+import com.medease.service.UserDetailsServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+// Authenticates the WebSocket upgrade request with the same JWT as the REST API.
+// Browsers cannot set headers on a WebSocket, so the token may also come as
+// the "token" query parameter.
+@Component
+public class JwtHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String PRINCIPAL_ATTRIBUTE = "principal";
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = token(request);
+        if (token != null && jwtUtils.validateJwtToken(token)) {
+            try {
+                UserPrincipal principal = (UserPrincipal) userDetailsService.loadUserByUsername(
+                        jwtUtils.getUserEmailFromJwtToken(token));
+                attributes.put(PRINCIPAL_ATTRIBUTE, principal);
+                return true;
+            } catch (UsernameNotFoundException e) {
+                // Account removed after the token was issued
+            }
+        }
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private static String token(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("token");
+    }
+}
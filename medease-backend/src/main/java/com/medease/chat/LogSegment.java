@@ -0,0 +1,360 @@
+package com.medease.chat;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// One file of a room's chat log, named by the sequence number of its first
+// record. Records are
+//   [int payload length][long seq][payload][int CRC32C of seq and payload]
+// with consecutive sequence numbers. Only the newest segment of a room is
+// appended to; once sealed it never changes and is read through a read-only
+// mapping. The segment being appended to is read with positional reads into a
+// reused buffer instead, as it would otherwise need a new mapping whenever it
+// grows. A sparse index holds the position of one record per
+// indexInterval bytes and is saved next to the segment when it is sealed.
+final class LogSegment {
+
+    static final int RECORD_OVERHEAD = 16;
+    static final int MAX_PAYLOAD = 1 << 20;
+
+    private static final int READ_BUFFER_BYTES = 16 * 1024;
+
+    private static final int INDEX_MAGIC = 0x4D43_4C58;
+    // magic, base seq, last seq, log size, last append millis, entry count
+    private static final int INDEX_HEADER_BYTES = 4 + 8 + 8 + 8 + 8 + 4;
+
+    private final long baseSeq;
+    private final Path file;
+    private final Path indexFile;
+    private final int indexInterval;
+
+    private long lastSeq;
+    private long size;
+    private long lastAppendMillis;
+
+    // Loaded on first read for sealed segments; indexCount is -1 until then
+    private long[] indexSeqs;
+    private long[] indexPositions;
+    private int indexCount = -1;
+
+    // Open only while the segment is being appended to
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    // Bytes of the open segment from readStart on, kept between reads; records never change once written
+    private ByteBuffer readBuffer;
+    private long readStart;
+
+    private LogSegment(Path dir, long baseSeq, int indexInterval) {
+        this.baseSeq = baseSeq;
+        this.file = dir.resolve(String.format("%020d.log", baseSeq));
+        this.indexFile = dir.resolve(String.format("%020d.idx", baseSeq));
+        this.indexInterval = indexInterval;
+        this.lastSeq = baseSeq - 1;
+    }
+
+    static LogSegment create(Path dir, long baseSeq, int indexInterval) throws IOException {
+        LogSegment segment = new LogSegment(dir, baseSeq, indexInterval);
+        segment.channel = FileChannel.open(segment.file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.indexSeqs = new long[16];
+        segment.indexPositions = new long[16];
+        segment.indexCount = 0;
+        segment.lastAppendMillis = System.currentTimeMillis();
+        return segment;
+    }
+
+    // A segment with a matching saved index is sealed. Anything else was being
+    // written when the process stopped: it is scanned, cut back to its last
+    // intact record, and stays open for appends if it is the room's newest.
+    static LogSegment load(Path file, int indexInterval, boolean newest) throws IOException {
+        String name = file.getFileName().toString();
+        long baseSeq = Long.parseLong(name.substring(0, name.indexOf('.')));
+        LogSegment segment = new LogSegment(file.getParent(), baseSeq, indexInterval);
+        if (segment.readIndexHeader()) {
+            return segment;
+        }
+        segment.recover();
+        if (newest) {
+            segment.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } else {
+            segment.writeIndex();
+        }
+        return segment;
+    }
+
+    // Concatenates adjacent sealed segments into one new sealed segment named after the first
+    static LogSegment merge(Path dir, List<LogSegment> parts, int indexInterval) throws IOException {
+        LogSegment first = parts.get(0);
+        LogSegment merged = new LogSegment(dir, first.baseSeq, indexInterval);
+        Path temp = dir.resolve(merged.file.getFileName() + ".tmp");
+        merged.indexSeqs = new long[16];
+        merged.indexPositions = new long[16];
+        merged.indexCount = 0;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            for (LogSegment part : parts) {
+                part.loadIndex();
+                for (int i = 0; i < part.indexCount; i++) {
+                    merged.addIndexEntry(part.indexSeqs[i], merged.size + part.indexPositions[i]);
+                }
+                try (FileChannel in = FileChannel.open(part.file, StandardOpenOption.READ)) {
+                    long copied = 0;
+                    while (copied < part.size) {
+                        copied += in.transferTo(copied, part.size - copied, out);
+                    }
+                }
+                merged.size += part.size;
+                merged.lastSeq = part.lastSeq;
+                merged.lastAppendMillis = Math.max(merged.lastAppendMillis, part.lastAppendMillis);
+            }
+            out.force(false);
+        }
+        // Index first: until the log is renamed the old index no longer matches, so a crash
+        // here only costs a rescan of the untouched first segment
+        merged.writeIndex();
+        Files.move(temp, merged.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return merged;
+    }
+
+    void append(long seq, byte[] payload) throws IOException {
+        byte[] record = new byte[payload.length + RECORD_OVERHEAD];
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(payload.length).putLong(seq).put(payload);
+        CRC32C crc = new CRC32C();
+        crc.update(record, 4, 8 + payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        try {
+            long position = size;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            // Leave no partial record behind for the next append to follow
+            channel.truncate(size);
+            throw e;
+        }
+        if (indexCount == 0 || size - indexPositions[indexCount - 1] >= indexInterval) {
+            addIndexEntry(seq, size);
+        }
+        size += record.length;
+        lastSeq = seq;
+        lastAppendMillis = System.currentTimeMillis();
+    }
+
+    void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    void seal() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        channel.force(false);
+        channel.close();
+        channel = null;
+        readBuffer = null;
+        writeIndex();
+    }
+
+    // Adds the payloads of records with from <= seq < before, at most max in total, to out.
+    // Returns true once a record at or past `before` was reached or out is full.
+    boolean read(long from, long before, int max, List<String> out) throws IOException {
+        loadIndex();
+        int slot = Arrays.binarySearch(indexSeqs, 0, indexCount, from);
+        if (slot < 0) {
+            slot = -slot - 2;
+        }
+        long position = slot < 0 ? 0 : indexPositions[slot];
+        while (position < size) {
+            ByteBuffer header = view(position, 12);
+            int length = header.getInt(0);
+            long seq = header.getLong(4);
+            if (seq >= before) {
+                return true;
+            }
+            if (seq >= from) {
+                byte[] payload = new byte[length];
+                view(position + 12, length).get(0, payload);
+                out.add(new String(payload, StandardCharsets.UTF_8));
+                if (out.size() >= max) {
+                    return true;
+                }
+            }
+            position += length + RECORD_OVERHEAD;
+        }
+        return false;
+    }
+
+    void delete() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        mapped = null;
+        readBuffer = null;
+        Files.deleteIfExists(indexFile);
+        Files.deleteIfExists(file);
+    }
+
+    boolean isSealed() { return channel == null; }
+    long getBaseSeq() { return baseSeq; }
+    long getLastSeq() { return lastSeq; }
+    long getSize() { return size; }
+    long getLastAppendMillis() { return lastAppendMillis; }
+
+    // The length bytes at position, indexed from 0
+    private ByteBuffer view(long position, int length) throws IOException {
+        if (channel == null) {
+            if (mapped == null) {
+                try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                    mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            }
+            return mapped.slice((int) position, length);
+        }
+        if (readBuffer == null || position < readStart || position + length > readStart + readBuffer.limit()) {
+            if (readBuffer == null || readBuffer.capacity() < length) {
+                readBuffer = ByteBuffer.allocate(Math.max(READ_BUFFER_BYTES, length));
+            }
+            readBuffer.clear().limit((int) Math.min(readBuffer.capacity(), size - position));
+            long at = position;
+            while (readBuffer.hasRemaining()) {
+                int read = channel.read(readBuffer, at);
+                if (read < 0) {
+                    throw new EOFException("Segment " + file.getFileName() + " is shorter than " + size + " bytes");
+                }
+                at += read;
+            }
+            readBuffer.flip();
+            readStart = position;
+        }
+        return readBuffer.slice((int) (position - readStart), length);
+    }
+
+    private void addIndexEntry(long seq, long position) {
+        if (indexCount == indexSeqs.length) {
+            indexSeqs = Arrays.copyOf(indexSeqs, indexCount * 2);
+            indexPositions = Arrays.copyOf(indexPositions, indexCount * 2);
+        }
+        indexSeqs[indexCount] = seq;
+        indexPositions[indexCount] = position;
+        indexCount++;
+    }
+
+    private void recover() throws IOException {
+        indexSeqs = new long[16];
+        indexPositions = new long[16];
+        indexCount = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = in.size();
+            ByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            CRC32C crc = new CRC32C();
+            long position = 0;
+            while (position + RECORD_OVERHEAD <= fileSize) {
+                int length = buffer.getInt((int) position);
+                if (length < 0 || length > MAX_PAYLOAD || position + RECORD_OVERHEAD + length > fileSize) {
+                    break;
+                }
+                long seq = buffer.getLong((int) position + 4);
+                if (seq != lastSeq + 1) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.duplicate().position((int) position + 4).limit((int) position + 12 + length));
+                if ((int) crc.getValue() != buffer.getInt((int) position + 12 + length)) {
+                    break;
+                }
+                if (indexCount == 0 || position - indexPositions[indexCount - 1] >= indexInterval) {
+                    addIndexEntry(seq, position);
+                }
+                lastSeq = seq;
+                position += length + RECORD_OVERHEAD;
+            }
+            size = position;
+            if (position < fileSize) {
+                in.truncate(position);
+                in.force(false);
+            }
+        }
+        lastAppendMillis = Files.getLastModifiedTime(file).toMillis();
+    }
+
+    private boolean readIndexHeader() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return false;
+        }
+        try (FileChannel in = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+            while (header.hasRemaining() && in.read(header) >= 0) {
+                // fill
+            }
+            header.flip();
+            if (header.remaining() < INDEX_HEADER_BYTES || header.getInt() != INDEX_MAGIC
+                    || header.getLong() != baseSeq) {
+                return false;
+            }
+            long last = header.getLong();
+            long logSize = header.getLong();
+            long appendMillis = header.getLong();
+            int count = header.getInt();
+            if (logSize != Files.size(file) || in.size() != INDEX_HEADER_BYTES + 16L * count) {
+                return false;
+            }
+            lastSeq = last;
+            size = logSize;
+            lastAppendMillis = appendMillis;
+            return true;
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        if (indexCount >= 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        bytes.position(INDEX_HEADER_BYTES - 4);
+        int count = bytes.getInt();
+        long[] seqs = new long[Math.max(count, 1)];
+        long[] positions = new long[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) {
+            seqs[i] = bytes.getLong();
+            positions[i] = bytes.getLong();
+        }
+        indexSeqs = seqs;
+        indexPositions = positions;
+        indexCount = count;
+    }
+
+    private void writeIndex() throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(INDEX_HEADER_BYTES + 16 * indexCount);
+        bytes.putInt(INDEX_MAGIC).putLong(baseSeq).putLong(lastSeq).putLong(size).putLong(lastAppendMillis).putInt(indexCount);
+        for (int i = 0; i < indexCount; i++) {
+            bytes.putLong(indexSeqs[i]).putLong(indexPositions[i]);
+        }
+        bytes.flip();
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(false);
+        }
+        Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
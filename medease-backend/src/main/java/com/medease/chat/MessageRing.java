@@ -0,0 +1,66 @@
+package com.medease.chat;
+
+import com.medease.dto.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The most recent messages of one room in a fixed-size circular array; the
+// oldest is overwritten once it is full. Each message is kept next to its JSON
+// so the history sent on join is concatenated, never serialized again. Not
+// thread-safe: the owning channel guards it.
+public class MessageRing {
+
+    private final ChatMessage[] messages;
+    private final String[] json;
+    private int next;
+    private int size;
+
+    public MessageRing(int capacity) {
+        this.messages = new ChatMessage[capacity];
+        this.json = new String[capacity];
+    }
+
+    public void add(ChatMessage message, String messageJson) {
+        messages[next] = message;
+        json[next] = messageJson;
+        next = (next + 1) % messages.length;
+        if (size < messages.length) {
+            size++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ChatMessage last() {
+        return size == 0 ? null : messages[index(size - 1)];
+    }
+
+    // Oldest first, at most `limit` of the newest messages
+    public List<ChatMessage> newest(int limit) {
+        int count = Math.min(limit, size);
+        List<ChatMessage> result = new ArrayList<>(count);
+        for (int i = size - count; i < size; i++) {
+            result.add(messages[index(i)]);
+        }
+        return result;
+    }
+
+    // Writes the newest messages as comma separated JSON objects, oldest first
+    public void appendJson(StringBuilder out, int limit) {
+        int count = Math.min(limit, size);
+        for (int i = size - count; i < size; i++) {
+            if (i > size - count) {
+                out.append(',');
+            }
+            out.append(json[index(i)]);
+        }
+    }
+
+    // Position of the i-th oldest retained message in the arrays
+    private int index(int i) {
+        return (next - size + i + messages.length) % messages.length;
+    }
+}
@@ -0,0 +1,194 @@
+package com.medease.chat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// The segments of one room, keyed by their first sequence number, so finding
+// the segment that holds a message is one floor lookup. Appends go to the
+// newest segment until it would outgrow segmentBytes; only records covered by
+// an fsync are readable.
+final class RoomLog {
+
+    private final long roomId;
+    private final Path dir;
+    private final long segmentBytes;
+    private final int indexInterval;
+    private final TreeMap<Long, LogSegment> segments = new TreeMap<>();
+    private LogSegment active;
+    private long lastSeq;
+    private long durableSeq;
+
+    private RoomLog(long roomId, Path dir, long segmentBytes, int indexInterval) {
+        this.roomId = roomId;
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = indexInterval;
+    }
+
+    static RoomLog open(long roomId, Path dir, long segmentBytes, int indexInterval) throws IOException {
+        Files.createDirectories(dir);
+        RoomLog log = new RoomLog(roomId, dir, segmentBytes, indexInterval);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(path);
+                } else if (name.endsWith(".log")) {
+                    files.add(path);
+                }
+            }
+        }
+        files.sort(null);
+        for (int i = 0; i < files.size(); i++) {
+            LogSegment segment = LogSegment.load(files.get(i), indexInterval, i == files.size() - 1);
+            if (segment.getBaseSeq() <= log.lastSeq || (segment.getSize() == 0 && !segment.isSealed())) {
+                // Left behind by a compaction that stopped before removing its sources, or never written to
+                segment.delete();
+                continue;
+            }
+            log.segments.put(segment.getBaseSeq(), segment);
+            log.lastSeq = segment.getLastSeq();
+            if (!segment.isSealed()) {
+                log.active = segment;
+            }
+        }
+        log.durableSeq = log.lastSeq;
+        return log;
+    }
+
+    long getRoomId() { return roomId; }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    synchronized void append(long seq, byte[] payload) throws IOException {
+        if (seq != lastSeq + 1) {
+            throw new IllegalStateException("Room " + roomId + " expected seq " + (lastSeq + 1) + " but got " + seq);
+        }
+        if (payload.length > LogSegment.MAX_PAYLOAD) {
+            throw new IOException("Chat record too large");
+        }
+        if (active == null || (active.getSize() > 0 && active.getSize() + payload.length + LogSegment.RECORD_OVERHEAD > segmentBytes)) {
+            roll(seq);
+        }
+        active.append(seq, payload);
+        lastSeq = seq;
+    }
+
+    // Makes every record appended so far durable
+    synchronized void force() throws IOException {
+        if (durableSeq == lastSeq) {
+            return;
+        }
+        if (active != null) {
+            active.force();
+        }
+        durableSeq = lastSeq;
+    }
+
+    synchronized void seal() throws IOException {
+        if (active == null) {
+            return;
+        }
+        if (active.getSize() == 0) {
+            segments.remove(active.getBaseSeq());
+            active.delete();
+        } else {
+            active.seal();
+        }
+        active = null;
+        durableSeq = lastSeq;
+    }
+
+    // Payloads of up to `limit` durable records just before `before`, oldest first. One floor
+    // lookup finds the segment, its sparse index the position, and the rest is a forward scan.
+    synchronized List<String> readBefore(long before, int limit) throws IOException {
+        List<String> out = new ArrayList<>(Math.min(limit, 256));
+        long end = Math.min(before, durableSeq + 1);
+        if (segments.isEmpty() || limit <= 0) {
+            return out;
+        }
+        long from = Math.max(segments.firstKey(), end - limit);
+        if (from >= end) {
+            return out;
+        }
+        Long start = segments.floorKey(from);
+        for (LogSegment segment : segments.tailMap(start, true).values()) {
+            if (segment.read(from, end, limit, out)) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    // Drops sealed segments whose newest record is older than the cutoff. The newest segment
+    // always stays, since it carries the sequence the room continues from.
+    synchronized int deleteOlderThan(long cutoffMillis) throws IOException {
+        int deleted = 0;
+        Iterator<LogSegment> it = segments.values().iterator();
+        while (it.hasNext()) {
+            LogSegment segment = it.next();
+            if (!segment.isSealed() || segment == segments.lastEntry().getValue()
+                    || segment.getLastAppendMillis() >= cutoffMillis) {
+                break;
+            }
+            segment.delete();
+            it.remove();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    // Rooms that go quiet seal a short segment each time, so runs of adjacent small
+    // sealed segments are merged into one of up to segmentBytes
+    synchronized int compact() throws IOException {
+        int merged = 0;
+        List<LogSegment> run = new ArrayList<>();
+        long runBytes = 0;
+        for (LogSegment segment : new ArrayList<>(segments.values())) {
+            boolean fits = segment.isSealed() && runBytes + segment.getSize() <= segmentBytes;
+            if (fits && (!run.isEmpty() || segment.getSize() < segmentBytes / 2)) {
+                run.add(segment);
+                runBytes += segment.getSize();
+                continue;
+            }
+            merged += mergeRun(run);
+            run.clear();
+            runBytes = 0;
+            // The segment that ended the run may start the next one
+            if (segment.isSealed() && segment.getSize() < segmentBytes / 2) {
+                run.add(segment);
+                runBytes = segment.getSize();
+            }
+        }
+        merged += mergeRun(run);
+        return merged;
+    }
+
+    private int mergeRun(List<LogSegment> run) throws IOException {
+        if (run.size() < 2) {
+            return 0;
+        }
+        LogSegment merged = LogSegment.merge(dir, run, indexInterval);
+        for (LogSegment part : run.subList(1, run.size())) {
+            segments.remove(part.getBaseSeq());
+            part.delete();
+        }
+        segments.put(merged.getBaseSeq(), merged);
+        return run.size() - 1;
+    }
+
+    private void roll(long baseSeq) throws IOException {
+        seal();
+        active = LogSegment.create(dir, baseSeq, indexInterval);
+        segments.put(baseSeq, active);
+    }
+}
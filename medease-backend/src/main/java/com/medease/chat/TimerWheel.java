@@ -0,0 +1,94 @@
+package com.medease.chat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Hashed timing wheel: a timeout lands in the slot of its deadline tick, so
+// scheduling, rescheduling and cancelling are O(1) and each advance only
+// looks at the slots it passes. Deadlines further out than one revolution
+// stay in their slot for the remaining rounds. Meant for many short timers
+// that are mostly pushed back before they fire, such as typing and idle
+// expiry, where a task per user would churn the scheduler. Each key has at
+// most one pending timeout. Not thread-safe.
+public class TimerWheel<K> {
+
+    private final long tickMillis;
+    private final ArrayDeque<Timeout<K>>[] slots;
+    private final Map<K, Timeout<K>> byKey = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayDeque[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    // Replaces any pending timeout of the key
+    public void schedule(K key, long deadlineMillis) {
+        Timeout<K> previous = byKey.remove(key);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        // Never in the past: the earliest slot is the next one to be advanced over
+        long tick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        Timeout<K> timeout = new Timeout<>(key, tick);
+        byKey.put(key, timeout);
+        slots[(int) (tick % slots.length)].add(timeout);
+    }
+
+    public boolean cancel(K key) {
+        Timeout<K> timeout = byKey.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        // Dropped from its slot when the wheel next passes it
+        timeout.cancelled = true;
+        return true;
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    // Moves the wheel up to now and returns the keys whose deadline passed
+    public List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        long target = nowMillis / tickMillis;
+        // After a long stall one revolution visits every slot; later ticks would only revisit them
+        long from = Math.max(currentTick + 1, target - slots.length + 1);
+        for (long tick = from; tick <= target; tick++) {
+            Iterator<Timeout<K>> it = slots[(int) (tick % slots.length)].iterator();
+            while (it.hasNext()) {
+                Timeout<K> timeout = it.next();
+                if (timeout.cancelled) {
+                    it.remove();
+                } else if (timeout.deadlineTick <= target) {
+                    it.remove();
+                    byKey.remove(timeout.key);
+                    expired.add(timeout.key);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, target);
+        return expired;
+    }
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Timeout(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.medease.codes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+// Sorted string table of (key, description) pairs read through a memory
+// mapping: lookups binary-search the offset array and only touch the pages
+// they need, and nothing is copied onto the heap until a match is returned.
+//
+// Layout (big-endian):
+//   int magic, int version, long source checksum, int count
+//   int[count] record offsets, relative to the first record
+//   records: byte key length, key (ASCII), short description length, description (UTF-8)
+public final class CodeTable {
+
+    private static final int MAGIC = 0x434f4454; // "CODT"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int recordsStart;
+
+    private CodeTable(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+        this.recordsStart = HEADER_BYTES + count * 4;
+    }
+
+    // Returns null when the file is missing, corrupt or was built from a different source
+    public static CodeTable open(Path path, long sourceChecksum) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(8) != sourceChecksum) {
+            return null;
+        }
+        int count = buffer.getInt(16);
+        if (count < 0 || HEADER_BYTES + (long) count * 4 > buffer.capacity()) {
+            return null;
+        }
+        CodeTable table = new CodeTable(buffer, count);
+        try {
+            if (count > 0) {
+                table.description(table.offset(count - 1));
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            return null;
+        }
+        return table;
+    }
+
+    // Writes to a temporary file first so a reader never maps a half-written table
+    public static void write(Path path, SortedMap<String, String> entries, long sourceChecksum) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            List<byte[]> keys = new ArrayList<>(entries.size());
+            List<byte[]> descriptions = new ArrayList<>(entries.size());
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.US_ASCII);
+                byte[] description = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                if (key.length == 0 || key.length > 127 || description.length > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Entry too long: " + entry.getKey());
+                }
+                keys.add(key);
+                descriptions.add(description);
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceChecksum);
+                out.writeInt(keys.size());
+                int offset = 0;
+                for (int i = 0; i < keys.size(); i++) {
+                    out.writeInt(offset);
+                    offset += 1 + keys.get(i).length + 2 + descriptions.get(i).length;
+                }
+                for (int i = 0; i < keys.size(); i++) {
+                    out.writeByte(keys.get(i).length);
+                    out.write(keys.get(i));
+                    out.writeShort(descriptions.get(i).length);
+                    out.write(descriptions.get(i));
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Entry get(String key) {
+        byte[] target = key.getBytes(StandardCharsets.US_ASCII);
+        int index = lowerBound(target);
+        if (index < count) {
+            int record = offset(index);
+            if (compareKey(record, target, false) == 0) {
+                return entry(record);
+            }
+        }
+        return null;
+    }
+
+    public List<Entry> withPrefix(String prefix, int limit) {
+        byte[] target = prefix.getBytes(StandardCharsets.US_ASCII);
+        List<Entry> found = new ArrayList<>();
+        for (int index = lowerBound(target); index < count && found.size() < limit; index++) {
+            int record = offset(index);
+            if (compareKey(record, target, true) != 0) {
+                break;
+            }
+            found.add(entry(record));
+        }
+        return found;
+    }
+
+    // Linear scan comparing raw bytes, so only matching records are decoded.
+    // `needle` must already be lower case; case folding is ASCII only.
+    public List<Entry> descriptionContains(String needle, int limit) {
+        byte[] target = needle.getBytes(StandardCharsets.UTF_8);
+        List<Entry> found = new ArrayList<>();
+        for (int index = 0; index < count && found.size() < limit; index++) {
+            int record = offset(index);
+            int start = record + 1 + keyLength(record) + 2;
+            if (containsIgnoreCase(start, descriptionLength(record), target)) {
+                found.add(entry(record));
+            }
+        }
+        return found;
+    }
+
+    private int lowerBound(byte[] target) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(offset(mid), target, false) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // With `prefixOnly`, a key that starts with the target compares equal
+    private int compareKey(int record, byte[] target, boolean prefixOnly) {
+        int length = keyLength(record);
+        int shared = Math.min(length, target.length);
+        for (int i = 0; i < shared; i++) {
+            int difference = (buffer.get(record + 1 + i) & 0xff) - (target[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        if (prefixOnly && length >= target.length) {
+            return 0;
+        }
+        return Integer.compare(length, target.length);
+    }
+
+    private boolean containsIgnoreCase(int start, int length, byte[] target) {
+        outer:
+        for (int i = 0; i <= length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                byte b = buffer.get(start + i + j);
+                if (b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                if (b != target[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private int offset(int index) {
+        return recordsStart + buffer.getInt(HEADER_BYTES + index * 4);
+    }
+
+    private int keyLength(int record) {
+        return buffer.get(record);
+    }
+
+    private int descriptionLength(int record) {
+        return buffer.getShort(record + 1 + keyLength(record)) & 0xffff;
+    }
+
+    private Entry entry(int record) {
+        int keyLength = keyLength(record);
+        byte[] key = new byte[keyLength];
+        buffer.get(record + 1, key);
+        return new Entry(new String(key, StandardCharsets.US_ASCII), description(record));
+    }
+
+    private String description(int record) {
+        byte[] description = new byte[descriptionLength(record)];
+        buffer.get(record + 1 + keyLength(record) + 2, description);
+        return new String(description, StandardCharsets.UTF_8);
+    }
+
+    public static final class Entry {
+        private final String key;
+        private final String description;
+
+        private Entry(String key, String description) {
+            this.key = key;
+            this.description = description;
+        }
+
+        public String getKey() { return key; }
+        public String getDescription() { return description; }
+    }
+}
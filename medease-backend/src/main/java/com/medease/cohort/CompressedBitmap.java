@@ -0,0 +1,427 @@
+package com.medease.cohort;
+
+import java.util.Arrays;
+
+// Compressed set of non-negative ints in the style of a Roaring bitmap. Values
+// are split on their high 16 bits into containers; a container holds a sorted
+// char array while it has at most 4096 values and a 1024-word bitmap beyond
+// that, so a sparse set costs ~2 bytes per value and a dense one 1 bit.
+public final class CompressedBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private int[] keys;
+    private Container[] containers;
+    private int size;
+
+    public CompressedBitmap() {
+        this(new int[4], new Container[4], 0);
+    }
+
+    private CompressedBitmap(int[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    public void add(int value) {
+        int key = value >>> 16;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+            return;
+        }
+        index = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = new ArrayContainer().add((char) value);
+        size++;
+    }
+
+    public void remove(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index].remove((char) value);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap(new int[Math.min(a.size, b.size) + 1],
+                new Container[Math.min(a.size, b.size) + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].and(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap(new int[a.size + b.size + 1],
+                new Container[a.size + b.size + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap(new int[a.size + 1], new Container[a.size + 1], 0);
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                result.append(a.keys[i], a.containers[i].andNot(b.containers[j]));
+            } else {
+                result.append(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    // Values in ascending order, skipping the first `offset`
+    public long[] toArray(int offset, int limit) {
+        long[] values = new long[Math.max(0, Math.min(limit, cardinality() - offset))];
+        int filled = 0;
+        int skip = offset;
+        for (int i = 0; i < size && filled < values.length; i++) {
+            int cardinality = containers[i].cardinality();
+            if (skip >= cardinality) {
+                skip -= cardinality;
+                continue;
+            }
+            filled = containers[i].copyTo(keys[i] << 16, skip, values, filled);
+            skip = 0;
+        }
+        return values;
+    }
+
+    private void append(int key, Container container) {
+        if (container.cardinality() == 0) {
+            return;
+        }
+        keys[size] = key;
+        containers[size++] = container;
+    }
+
+    private abstract static class Container {
+        abstract Container add(char value);
+        abstract Container remove(char value);
+        abstract boolean contains(char value);
+        abstract int cardinality();
+        abstract Container copy();
+        abstract Container and(Container other);
+        abstract Container or(Container other);
+        abstract Container andNot(Container other);
+        // Writes values from the `skip`-th on into `out` starting at `filled`, returns the new fill
+        abstract int copyTo(int high, int skip, long[] out, int filled);
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(1, cardinality));
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        Container and(Container other) {
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(1, cardinality)];
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    result.values[result.cardinality++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            if (cardinality + that.cardinality > ARRAY_MAX) {
+                return toBitmap().or(that);
+            }
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(1, cardinality + that.cardinality)];
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < that.cardinality) {
+                char next;
+                if (j == that.cardinality || (i < cardinality && values[i] < that.values[j])) {
+                    next = values[i++];
+                } else if (i == cardinality || values[i] > that.values[j]) {
+                    next = that.values[j++];
+                } else {
+                    next = values[i++];
+                    j++;
+                }
+                result.values[result.cardinality++] = next;
+            }
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(1, cardinality)];
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result.values[result.cardinality++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int copyTo(int high, int skip, long[] out, int filled) {
+            for (int i = skip; i < cardinality && filled < out.length; i++) {
+                out[filled++] = high | values[i];
+            }
+            return filled;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = cardinality;
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[WORDS];
+        private int cardinality;
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before | (1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            words[value >>> 6] = before & ~(1L << value);
+            if (before != words[value >>> 6]) {
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArrayContainer() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer that = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            for (int w = 0; w < WORDS; w++) {
+                result.words[w] = words[w] & that.words[w];
+                result.cardinality += Long.bitCount(result.words[w]);
+            }
+            return result.cardinality <= ARRAY_MAX ? result.toArrayContainer() : result;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    result.add(that.values[i]);
+                }
+                return result;
+            }
+            BitmapContainer that = (BitmapContainer) other;
+            result.cardinality = 0;
+            for (int w = 0; w < WORDS; w++) {
+                result.words[w] |= that.words[w];
+                result.cardinality += Long.bitCount(result.words[w]);
+            }
+            return result;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            BitmapContainer result = new BitmapContainer();
+            if (other instanceof ArrayContainer) {
+                System.arraycopy(words, 0, result.words, 0, WORDS);
+                result.cardinality = cardinality;
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    char value = that.values[i];
+                    if (result.contains(value)) {
+                        result.words[value >>> 6] &= ~(1L << value);
+                        result.cardinality--;
+                    }
+                }
+            } else {
+                BitmapContainer that = (BitmapContainer) other;
+                for (int w = 0; w < WORDS; w++) {
+                    result.words[w] = words[w] & ~that.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+            }
+            return result.cardinality <= ARRAY_MAX ? result.toArrayContainer() : result;
+        }
+
+        @Override
+        int copyTo(int high, int skip, long[] out, int filled) {
+            int seen = 0;
+            for (int w = 0; w < WORDS && filled < out.length; w++) {
+                long word = words[w];
+                int bits = Long.bitCount(word);
+                if (seen + bits <= skip) {
+                    seen += bits;
+                    continue;
+                }
+                while (word != 0 && filled < out.length) {
+                    int value = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (seen++ >= skip) {
+                        out[filled++] = high | value;
+                    }
+                }
+            }
+            return filled;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[Math.max(1, cardinality)];
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array.values[array.cardinality++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.medease.config;
+
+import com.medease.broker.BrokerRelay;
+import com.medease.broker.LocalBrokerRelay;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Live WebSocket frames are published through a BrokerRelay. Only the
+// in-process relay is wired: a room's sequence numbers, chat log, join-time
+// history and presence, and the calls signalled in it, are all held by the
+// node that serves the room, so relaying frames between nodes would not let a
+// room span them. TcpBrokerRelay and BrokerServer are the external relay and
+// its embedded broker, ready for when that state is shared.
+@Configuration
+public class BrokerConfig {
+
+    @Bean(destroyMethod = "close")
+    public BrokerRelay brokerRelay() {
+        return new LocalBrokerRelay();
+    }
+}
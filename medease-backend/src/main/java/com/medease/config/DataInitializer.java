@@ -2,6 +2,7 @@ package com.medease.config;
 
 import com.medease.entity.*;
 import com.medease.repository.*;
+import com.medease.service.SyntheticDataSeeder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -40,10 +41,24 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private MedicationEntryRepository medicationEntryRepository;
+
+    @Autowired
+    private SyntheticDataSeeder syntheticDataSeeder;
+
     @Override
     public void run(String... args) throws Exception {
         initializeRoles();
         initializeSampleData();
+        initializeAlertRules();
+        // Only when started with --seed.patients or --seed.doctors
+        if (syntheticDataSeeder.isEnabled()) {
+            syntheticDataSeeder.seed();
+        }
     }
 
     private void initializeRoles() {
@@ -54,6 +69,25 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
 
+    private void initializeAlertRules() {
+        if (alertRuleRepository.count() == 0) {
+            alertRuleRepository.save(new AlertRule("Sustained high systolic",
+                    "BLOOD_PRESSURE_SYSTOLIC > 140 TIMES 2 WITHIN 24h", MedicalCondition.Severity.MEDIUM));
+            alertRuleRepository.save(new AlertRule("Hypertensive crisis",
+                    "BLOOD_PRESSURE_SYSTOLIC >= 180", MedicalCondition.Severity.HIGH));
+            alertRuleRepository.save(new AlertRule("Obesity with hypertension",
+                    "BMI > 30 AND CONDITION Hypertension", MedicalCondition.Severity.MEDIUM));
+            alertRuleRepository.save(new AlertRule("Tachycardia",
+                    "HEART_RATE > 120", MedicalCondition.Severity.MEDIUM));
+            alertRuleRepository.save(new AlertRule("Bradycardia",
+                    "HEART_RATE < 40", MedicalCondition.Severity.HIGH));
+            alertRuleRepository.save(new AlertRule("Hyperglycemia",
+                    "BLOOD_SUGAR > 250", MedicalCondition.Severity.HIGH));
+            alertRuleRepository.save(new AlertRule("Hypoglycemia",
+                    "BLOOD_SUGAR < 70", MedicalCondition.Severity.HIGH));
+        }
+    }
+
     private void initializeSampleData() {
         if (userRepository.count() == 0) {
             // Create sample patient
@@ -61,9 +95,28 @@ public class DataInitializer implements CommandLineRunner {
             
             // Create sample doctors
             createSampleDoctors();
+
+            // Create admin account
+            createSampleAdmin();
         }
     }
 
+    private void createSampleAdmin() {
+        Role adminRole = roleRepository.findByName(Role.RoleName.ROLE_ADMIN).orElseThrow();
+
+        User adminUser = new User();
+        adminUser.setFirstName("System");
+        adminUser.setLastName("Admin");
+        adminUser.setEmail("admin@medease.com");
+        adminUser.setPhone("1112223333");
+        adminUser.setPassword(passwordEncoder.encode("admin123"));
+
+        Set<Role> roles = new HashSet<>();
+        roles.add(adminRole);
+        adminUser.setRoles(roles);
+        userRepository.save(adminUser);
+    }
+
     private void createSamplePatient() {
         Role patientRole = roleRepository.findByName(Role.RoleName.ROLE_PATIENT).orElseThrow();
         
@@ -103,12 +156,23 @@ public class DataInitializer implements CommandLineRunner {
         MedicalCondition condition = new MedicalCondition();
         condition.setPatient(savedPatient);
         condition.setName("Hypertension");
+        condition.setIcd10Code("I10");
         condition.setDescription("High blood pressure");
         condition.setSeverity(MedicalCondition.Severity.MEDIUM);
         condition.setDiagnosedDate(LocalDate.of(2023, 1, 15));
         condition.setIsActive(true);
         condition.setMedications("Lisinopril 10mg daily");
-        medicalConditionRepository.save(condition);
+        MedicalCondition savedCondition = medicalConditionRepository.save(condition);
+
+        MedicationEntry lisinopril = new MedicationEntry();
+        lisinopril.setPatientId(savedPatient.getId());
+        lisinopril.setConditionId(savedCondition.getId());
+        lisinopril.setMedicationCode("lisinopril");
+        lisinopril.setMedicationName("Lisinopril");
+        lisinopril.setDose("10mg");
+        lisinopril.setFrequency("daily");
+        lisinopril.setStartDate(LocalDate.of(2023, 1, 15));
+        medicationEntryRepository.save(lisinopril);
     }
 
     private void createSampleDoctors() {
@@ -134,6 +198,8 @@ public class DataInitializer implements CommandLineRunner {
         doctor1.setQualifications("MD, FACC");
         doctor1.setExperienceYears(15);
         doctor1.setHospitalAffiliation("City General Hospital");
+        doctor1.setLatitude(40.7411);
+        doctor1.setLongitude(-73.9897);
         doctor1.setLicenseNumber("MD12345");
         doctor1.setConsultationFee(new BigDecimal("200.00"));
         doctor1.setBio("Experienced cardiologist specializing in heart disease prevention and treatment.");
@@ -159,6 +225,8 @@ public class DataInitializer implements CommandLineRunner {
         doctor2.setQualifications("MD, MRCGP");
         doctor2.setExperienceYears(20);
         doctor2.setHospitalAffiliation("Community Health Center");
+        doctor2.setLatitude(40.6782);
+        doctor2.setLongitude(-73.9442);
         doctor2.setLicenseNumber("MD12346");
         doctor2.setConsultationFee(new BigDecimal("150.00"));
         doctor2.setBio("Family medicine physician providing comprehensive primary care.");
@@ -184,6 +252,8 @@ public class DataInitializer implements CommandLineRunner {
         doctor3.setQualifications("MD, FAAD");
         doctor3.setExperienceYears(10);
         doctor3.setHospitalAffiliation("Skin Care Clinic");
+        doctor3.setLatitude(40.7831);
+        doctor3.setLongitude(-73.9712);
         doctor3.setLicenseNumber("MD12347");
         doctor3.setConsultationFee(new BigDecimal("180.00"));
         doctor3.setBio("Board-certified dermatologist specializing in skin conditions and cosmetic procedures.");
@@ -61,7 +61,9 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
-                .requestMatchers("/doctors/all", "/doctors/available", "/doctors/specialty/**", "/doctors/search").permitAll()
+                // WebSocket upgrades authenticate their token in the handshake interceptor
+                .requestMatchers("/ws/**").permitAll()
+                .requestMatchers("/doctors/all", "/doctors/available", "/doctors/specialty/**", "/doctors/search", "/doctors/nearby", "/doctors/facets", "/doctors/recommend").permitAll()
                 .anyRequest().authenticated()
             );
 
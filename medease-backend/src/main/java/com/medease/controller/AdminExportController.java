@@ -0,0 +1,104 @@
+package com.medease.controller;
+
+import com.medease.entity.ExportJob;
+import com.medease.security.UserPrincipal;
+import com.medease.service.PatientExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/exports")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportController {
+
+    @Autowired
+    private PatientExportService patientExportService;
+
+    @PostMapping
+    public ResponseEntity<ExportJob> startExport(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Integer partitionSize) {
+        try {
+            return ResponseEntity.accepted().body(patientExportService.startExport(userPrincipal.getId(), gzip, partitionSize));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ExportJob>> getExports() {
+        return ResponseEntity.ok(patientExportService.getJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJob> getExport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(patientExportService.getJob(id));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ExportJob> resumeExport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.accepted().body(patientExportService.resumeExport(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ExportJob> cancelExport(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(patientExportService.cancelExport(id));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteExport(@PathVariable Long id) {
+        try {
+            patientExportService.deleteExport(id);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<StreamingResponseBody> downloadExport(@PathVariable Long id) {
+        try {
+            ExportJob job = patientExportService.getJob(id);
+            List<Path> parts = patientExportService.getCompletedParts(id);
+            long length = 0;
+            for (Path part : parts) {
+                length += Files.size(part);
+            }
+            String fileName = "patients-export-" + id + (job.getGzip() ? ".ndjson.gz" : ".ndjson");
+            StreamingResponseBody body = out -> PatientExportService.transfer(parts, Channels.newChannel(out));
+            return ResponseEntity.ok()
+                    .contentType(job.getGzip() ? MediaType.parseMediaType("application/gzip")
+                            : MediaType.parseMediaType("application/x-ndjson"))
+                    .contentLength(length)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.medease.controller;
+
+import com.medease.dto.ImportResponse;
+import com.medease.service.AccountImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/admin/imports")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminImportController {
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    // The request body is the raw file: CSV with a header row, or one JSON object per line
+    @PostMapping("/{kind}")
+    public ResponseEntity<ImportResponse> importAccounts(
+            @PathVariable String kind,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) {
+        try {
+            AccountImportService.Kind importKind = AccountImportService.Kind.valueOf(kind.toUpperCase(Locale.ROOT));
+            AccountImportService.Format importFormat = AccountImportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            ImportResponse response = accountImportService.importAccounts(importKind, importFormat, request.getInputStream());
+            if (response.getError() != null) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.medease.controller;
+
+import com.medease.entity.AlertRule;
+import com.medease.entity.HealthAlert;
+import com.medease.security.UserPrincipal;
+import com.medease.service.HealthAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/alerts")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AlertController {
+
+    @Autowired
+    private HealthAlertService healthAlertService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<Page<HealthAlert>> getMyAlerts(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            return ResponseEntity.ok(healthAlertService.getPatientAlerts(patientId, PageRequest.of(page, size)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{alertId}/acknowledge")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<HealthAlert> acknowledgeAlert(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long alertId) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            return ResponseEntity.ok(healthAlertService.acknowledgeAlert(patientId, alertId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<List<AlertRule>> getRules() {
+        return ResponseEntity.ok(healthAlertService.getRules());
+    }
+
+    @PostMapping("/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AlertRule> createRule(@RequestBody AlertRule rule) {
+        try {
+            return ResponseEntity.ok(healthAlertService.createRule(rule));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/rules/{ruleId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AlertRule> updateRule(@PathVariable Long ruleId, @RequestBody AlertRule rule) {
+        try {
+            return ResponseEntity.ok(healthAlertService.updateRule(ruleId, rule));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/rules/{ruleId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long ruleId) {
+        try {
+            healthAlertService.deleteRule(ruleId);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.medease.controller;
 
+import com.medease.dto.DrugInteraction;
+import com.medease.dto.PrescriptionResult;
 import com.medease.entity.Appointment;
+import com.medease.entity.MedicationEntry;
 import com.medease.security.UserPrincipal;
 import com.medease.service.AppointmentService;
-import com.medease.service.PatientService;
+import com.medease.service.MedicationService;
+import com.medease.web.ConditionalGet;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,7 +29,7 @@ public class AppointmentController {
     private AppointmentService appointmentService;
 
     @Autowired
-    private PatientService patientService;
+    private MedicationService medicationService;
 
     @PostMapping("/book")
     @PreAuthorize("hasRole('PATIENT')")
@@ -42,10 +48,10 @@ public class AppointmentController {
             Appointment.AppointmentType type = Appointment.AppointmentType.valueOf(typeStr.toUpperCase());
 
             // Get patient
-            var patient = patientService.getPatientByUserId(userPrincipal.getId());
+            Long patientId = userPrincipal.requirePatientId();
 
             Appointment appointment = appointmentService.bookAppointment(
-                    patient.getId(), doctorId, appointmentDateTime, reason, type);
+                    patientId, doctorId, appointmentDateTime, reason, type);
             
             return ResponseEntity.ok(appointment);
         } catch (Exception e) {
@@ -55,11 +61,13 @@ public class AppointmentController {
 
     @GetMapping("/patient")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<List<Appointment>> getPatientAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<List<Appointment>> getPatientAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal, WebRequest request) {
         try {
-            var patient = patientService.getPatientByUserId(userPrincipal.getId());
-            List<Appointment> appointments = appointmentService.getPatientAppointments(patient.getId());
-            return ResponseEntity.ok(appointments);
+            Long userId = userPrincipal.getId();
+            return ConditionalGet.respond(request, "appointments-" + userId, appointmentService.getPatientAppointmentsVersion(userId), () -> {
+                Long patientId = userPrincipal.requirePatientId();
+                return appointmentService.getPatientAppointments(patientId);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -67,21 +75,23 @@ public class AppointmentController {
 
     @GetMapping("/patient/upcoming")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<List<Appointment>> getUpcomingPatientAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<List<Appointment>> getUpcomingPatientAppointments(@AuthenticationPrincipal UserPrincipal userPrincipal, WebRequest request) {
         try {
-            var patient = patientService.getPatientByUserId(userPrincipal.getId());
-            List<Appointment> appointments = appointmentService.getUpcomingPatientAppointments(patient.getId());
-            return ResponseEntity.ok(appointments);
+            Long userId = userPrincipal.getId();
+            return ConditionalGet.respond(request, "upcoming-appointments-" + userId, appointmentService.getUpcomingPatientAppointmentsVersion(userId), () -> {
+                Long patientId = userPrincipal.requirePatientId();
+                return appointmentService.getUpcomingPatientAppointments(patientId);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Long id) {
+    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Long id, WebRequest request) {
         try {
-            Appointment appointment = appointmentService.getAppointmentById(id);
-            return ResponseEntity.ok(appointment);
+            return ConditionalGet.respond(request, "appointment-" + id, appointmentService.getAppointmentVersion(id),
+                    () -> appointmentService.getAppointmentById(id));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -125,4 +135,31 @@ public class AppointmentController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    // Saved even when interactions are found; they are returned for the doctor to act on
+    @PostMapping("/{id}/prescriptions")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<PrescriptionResult> prescribe(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long id,
+            @Valid @RequestBody MedicationEntry entry) {
+        try {
+            return ResponseEntity.ok(medicationService.prescribe(userPrincipal.requireDoctorId(), id, entry));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/prescriptions/check")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<List<DrugInteraction>> checkPrescription(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long id,
+            @RequestParam String code) {
+        try {
+            return ResponseEntity.ok(medicationService.checkPrescription(userPrincipal.requireDoctorId(), id, code));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
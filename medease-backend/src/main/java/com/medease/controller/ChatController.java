@@ -0,0 +1,62 @@
+package com.medease.controller;
+
+import com.medease.dto.ChatMessage;
+import com.medease.dto.ChatRoomSummary;
+import com.medease.entity.ChatRoom;
+import com.medease.security.UserPrincipal;
+import com.medease.service.ChatService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+// Room management over REST; messages themselves flow over the /ws/chat WebSocket
+@RestController
+@RequestMapping("/chat")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ChatController {
+
+    @Autowired
+    private ChatService chatService;
+
+    @GetMapping("/rooms")
+    @PreAuthorize("hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<List<ChatRoomSummary>> getRooms(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        return ResponseEntity.ok(chatService.getRooms(userPrincipal));
+    }
+
+    // A patient sends {"doctorId": ..}, a doctor {"patientId": ..}
+    @PostMapping("/rooms")
+    @PreAuthorize("hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<ChatRoom> openRoom(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestBody Map<String, Long> request) {
+        try {
+            ChatRoom room = userPrincipal.getPatientId() != null
+                    ? chatService.openRoom(userPrincipal.getPatientId(), request.get("doctorId"))
+                    : chatService.openRoom(request.get("patientId"), userPrincipal.requireDoctorId());
+            return ResponseEntity.ok(room);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Newest messages without `before`; pass the oldest id already shown to page further back
+    @GetMapping("/rooms/{roomId}/messages")
+    @PreAuthorize("hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<List<ChatMessage>> getMessages(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(chatService.getMessages(userPrincipal, roomId, before, limit));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.medease.controller;
+
+import com.medease.dto.CohortQuery;
+import com.medease.dto.CohortResult;
+import com.medease.service.PatientCohortIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/cohorts")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class CohortController {
+
+    @Autowired
+    private PatientCohortIndex patientCohortIndex;
+
+    // e.g. {"conditions": ["Hypertension"], "metrics": [{"metric": "BMI", "op": ">=", "value": 30}],
+    //       "noAppointmentWithinDays": 90}
+    @PostMapping("/query")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<CohortResult> queryCohort(@RequestBody CohortQuery query) {
+        try {
+            return ResponseEntity.ok(patientCohortIndex.query(query));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medease.controller;
+
+import com.medease.dto.ConditionCode;
+import com.medease.service.ConditionCodeIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/conditions")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ConditionCodeController {
+
+    // The code table only changes on redeploy, so clients may reuse answers per keystroke
+    private static final CacheControl CODES_CACHE = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate();
+
+    @Autowired
+    private ConditionCodeIndex conditionCodeIndex;
+
+    @GetMapping("/codes")
+    public ResponseEntity<List<ConditionCode>> suggestCodes(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CODES_CACHE)
+                .body(conditionCodeIndex.suggest(prefix, Math.max(1, Math.min(limit, 50))));
+    }
+
+    @GetMapping("/codes/{code}")
+    public ResponseEntity<ConditionCode> getCode(@PathVariable String code) {
+        ConditionCode conditionCode = conditionCodeIndex.find(code);
+        return conditionCode != null
+                ? ResponseEntity.ok().cacheControl(CODES_CACHE).body(conditionCode)
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -1,15 +1,26 @@
 package com.medease.controller;
 
+import com.medease.dto.DoctorFacetResponse;
+import com.medease.dto.DoctorRecommendation;
+import com.medease.dto.NearbyDoctorResponse;
 import com.medease.entity.Doctor;
+import com.medease.service.DoctorFacetIndex;
+import com.medease.service.DoctorRecommendationService;
 import com.medease.service.DoctorService;
+import com.medease.web.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/doctors")
@@ -19,11 +30,14 @@ public class DoctorController {
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private DoctorRecommendationService doctorRecommendationService;
+
     @GetMapping("/all")
-    public ResponseEntity<List<Doctor>> getAllDoctors() {
+    public ResponseEntity<List<Doctor>> getAllDoctors(WebRequest request) {
         try {
-            List<Doctor> doctors = doctorService.getAllDoctors();
-            return ResponseEntity.ok(doctors);
+            return ConditionalGet.respond(request, "doctors", doctorService.getDirectoryVersion(),
+                    () -> doctorService.getAllDoctors());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -32,51 +46,111 @@ public class DoctorController {
     @GetMapping
     public ResponseEntity<Page<Doctor>> getDoctors(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
         try {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Doctor> doctors = doctorService.getAllDoctors(pageable);
-            return ResponseEntity.ok(doctors);
+            return ConditionalGet.respond(request, "doctors", doctorService.getDirectoryVersion(),
+                    () -> doctorService.getAllDoctors(pageable));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Doctor> getDoctorById(@PathVariable Long id) {
+    public ResponseEntity<Doctor> getDoctorById(@PathVariable Long id, WebRequest request) {
         try {
-            Doctor doctor = doctorService.getDoctorById(id);
-            return ResponseEntity.ok(doctor);
+            return ConditionalGet.respond(request, "doctor-" + id, doctorService.getDoctorVersion(id),
+                    () -> doctorService.getDoctorById(id));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<Doctor>> getAvailableDoctors() {
+    public ResponseEntity<List<Doctor>> getAvailableDoctors(WebRequest request) {
         try {
-            List<Doctor> doctors = doctorService.getAvailableDoctors();
-            return ResponseEntity.ok(doctors);
+            return ConditionalGet.respond(request, "doctors", doctorService.getDirectoryVersion(),
+                    () -> doctorService.getAvailableDoctors());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/specialty/{specialty}")
-    public ResponseEntity<List<Doctor>> getDoctorsBySpecialty(@PathVariable String specialty) {
+    public ResponseEntity<List<Doctor>> getDoctorsBySpecialty(@PathVariable String specialty, WebRequest request) {
+        try {
+            return ConditionalGet.respond(request, "doctors", doctorService.getDirectoryVersion(),
+                    () -> doctorService.getDoctorsBySpecialty(specialty));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyDoctorResponse>> getNearbyDoctors(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "25") double radius,
+            @RequestParam(required = false) String specialty,
+            @RequestParam(defaultValue = "10") int limit) {
         try {
-            List<Doctor> doctors = doctorService.getDoctorsBySpecialty(specialty);
+            double radiusKm = Math.max(0.1, Math.min(radius, 500));
+            int boundedLimit = Math.max(1, Math.min(limit, 100));
+            List<NearbyDoctorResponse> doctors = doctorService.findNearbyDoctors(lat, lon, radiusKm, specialty, boundedLimit);
             return ResponseEntity.ok(doctors);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @GetMapping("/facets")
+    public ResponseEntity<DoctorFacetResponse> browseDoctors(
+            @RequestParam(required = false) List<String> specialty,
+            @RequestParam(required = false) List<String> feeBand,
+            @RequestParam(required = false) List<String> experienceBand,
+            @RequestParam(required = false) List<String> availability,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Map<String, Set<String>> filters = new HashMap<>();
+            if (specialty != null) filters.put(DoctorFacetIndex.SPECIALTY, new HashSet<>(specialty));
+            if (feeBand != null) filters.put(DoctorFacetIndex.FEE_BAND, new HashSet<>(feeBand));
+            if (experienceBand != null) filters.put(DoctorFacetIndex.EXPERIENCE_BAND, new HashSet<>(experienceBand));
+            if (availability != null) filters.put(DoctorFacetIndex.AVAILABILITY, new HashSet<>(availability));
+
+            DoctorFacetResponse response = doctorService.browseDoctors(filters, Math.max(0, page), Math.max(1, Math.min(size, 100)));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/recommend")
+    public ResponseEntity<List<DoctorRecommendation>> recommendDoctors(
+            @RequestParam(required = false) String specialty,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) Double ratingWeight,
+            @RequestParam(required = false) Double reviewsWeight,
+            @RequestParam(required = false) Double feeWeight,
+            @RequestParam(required = false) Double experienceWeight,
+            @RequestParam(required = false) Double availabilityWeight) {
+        try {
+            DoctorRecommendationService.Weights weights = new DoctorRecommendationService.Weights(
+                    ratingWeight, reviewsWeight, feeWeight, experienceWeight, availabilityWeight);
+            List<DoctorRecommendation> recommendations = doctorRecommendationService.recommend(
+                    specialty, Math.max(1, Math.min(k, 50)), weights);
+            return ResponseEntity.ok(recommendations);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<Doctor>> searchDoctors(@RequestParam String query) {
+    public ResponseEntity<List<Doctor>> searchDoctors(@RequestParam String query, WebRequest request) {
         try {
-            List<Doctor> doctors = doctorService.searchDoctors(query);
-            return ResponseEntity.ok(doctors);
+            return ConditionalGet.respond(request, "doctors", doctorService.getDirectoryVersion(),
+                    () -> doctorService.searchDoctors(query));
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
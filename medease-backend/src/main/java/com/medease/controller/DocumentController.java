@@ -0,0 +1,130 @@
+package com.medease.controller;
+
+import com.medease.documents.BlobStore;
+import com.medease.entity.MedicalDocument;
+import com.medease.security.UserPrincipal;
+import com.medease.service.DocumentService;
+import com.medease.web.ByteRangeResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/documents")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class DocumentController {
+
+    // Anything else is served as an attachment so uploaded HTML or SVG never renders on our origin
+    private static final Set<String> INLINE_TYPES = Set.of(
+            "application/pdf", "image/png", "image/jpeg", "image/gif", "image/webp", "text/plain");
+
+    // A document's bytes never change, only whether the caller may still read them
+    private static final CacheControl CONTENT_CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate();
+
+    @Autowired
+    private DocumentService documentService;
+
+    // multipart/form-data with a "file" part and optional "category" and "description" fields
+    @PostMapping
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<MedicalDocument> uploadDocument(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            HttpServletRequest request) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            return ResponseEntity.ok(documentService.upload(patientId, userPrincipal.getId(),
+                    request.getContentType(), request.getInputStream()));
+        } catch (BlobStore.TooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<List<MedicalDocument>> getMyDocuments(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) MedicalDocument.Category category) {
+        try {
+            return ResponseEntity.ok(documentService.getPatientDocuments(userPrincipal.requirePatientId(), category));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/patients/{patientId}")
+    @PreAuthorize("hasRole('DOCTOR')")
+    public ResponseEntity<List<MedicalDocument>> getPatientDocuments(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long patientId,
+            @RequestParam(required = false) MedicalDocument.Category category) {
+        try {
+            return ResponseEntity.ok(documentService.getPatientDocumentsForDoctor(
+                    userPrincipal.requireDoctorId(), patientId, category));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<MedicalDocument> getDocument(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(documentService.getReadableDocument(
+                    id, userPrincipal.getPatientId(), userPrincipal.getDoctorId()));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/content")
+    @PreAuthorize("hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<StreamingResponseBody> getDocumentContent(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean download,
+            HttpServletRequest request) {
+        try {
+            MedicalDocument document = documentService.getReadableDocument(
+                    id, userPrincipal.getPatientId(), userPrincipal.getDoctorId());
+            MediaType contentType = MediaType.parseMediaType(document.getMimeType());
+            boolean inline = !download && INLINE_TYPES.contains(contentType.getType() + "/" + contentType.getSubtype());
+            ContentDisposition disposition = (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                    .filename(document.getOriginalName(), StandardCharsets.UTF_8)
+                    .build();
+            return ByteRangeResponse.respond(request, documentService.getContentPath(document),
+                    "\"" + document.getSha256() + "\"", contentType, disposition, CONTENT_CACHE_CONTROL);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<Void> deleteDocument(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long id) {
+        try {
+            documentService.deleteDocument(userPrincipal.requirePatientId(), id);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.medease.controller;
+
+import com.medease.dto.DrugInteraction;
+import com.medease.dto.Medication;
+import com.medease.service.MedicationCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/medications")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class MedicationController {
+
+    @Autowired
+    private MedicationCatalog medicationCatalog;
+
+    @GetMapping
+    public ResponseEntity<List<Medication>> searchMedications(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(medicationCatalog.search(q, Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/{code}")
+    public ResponseEntity<Medication> getMedication(@PathVariable String code) {
+        Medication medication = medicationCatalog.find(code);
+        return medication != null ? ResponseEntity.ok(medication) : ResponseEntity.notFound().build();
+    }
+
+    // Pairwise interactions within a list of codes, e.g. ?codes=warfarin,aspirin,omeprazole
+    @GetMapping("/interactions")
+    public ResponseEntity<List<DrugInteraction>> checkInteractions(@RequestParam List<String> codes) {
+        return ResponseEntity.ok(medicationCatalog.interactionsAmong(codes));
+    }
+}
@@ -1,17 +1,43 @@
 package com.medease.controller;
 
+import com.medease.dto.BulkIngestResponse;
+import com.medease.dto.DrugInteraction;
+import com.medease.dto.PatientDashboard;
+import com.medease.dto.PrescriptionResult;
+import com.medease.dto.RenderedReport;
+import com.medease.dto.VitalPoint;
+import com.medease.dto.VitalStats;
 import com.medease.entity.HealthMetrics;
 import com.medease.entity.MedicalCondition;
+import com.medease.entity.MedicationEntry;
 import com.medease.entity.Patient;
+import com.medease.entity.VitalSign;
 import com.medease.security.UserPrincipal;
+import com.medease.service.HealthReportService;
+import com.medease.service.MedicationService;
+import com.medease.service.PatientDashboardService;
 import com.medease.service.PatientService;
+import com.medease.service.VitalsIngestionService;
+import com.medease.service.VitalsStatsService;
+import com.medease.service.VitalsTimeSeriesService;
+import com.medease.web.ConditionalGet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/patients")
@@ -21,12 +47,69 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientDashboardService patientDashboardService;
+
+    @Autowired
+    private MedicationService medicationService;
+
+    @Autowired
+    private VitalsTimeSeriesService vitalsTimeSeriesService;
+
+    @Autowired
+    private VitalsIngestionService vitalsIngestionService;
+
+    @Autowired
+    private VitalsStatsService vitalsStatsService;
+
+    @Autowired
+    private HealthReportService healthReportService;
+
     @GetMapping("/profile")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<Patient> getProfile(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<Patient> getProfile(@AuthenticationPrincipal UserPrincipal userPrincipal, WebRequest request) {
+        try {
+            Long userId = userPrincipal.getId();
+            return ConditionalGet.respond(request, "profile-" + userId, patientService.getProfileVersion(userId),
+                    () -> patientService.getPatientById(userPrincipal.requirePatientId()));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Profile, health metrics, conditions and upcoming appointments in one round trip
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<PatientDashboard> getDashboard(@AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            Patient patient = patientService.getPatientByUserId(userPrincipal.getId());
-            return ResponseEntity.ok(patient);
+            return ResponseEntity.ok(patientDashboardService.getDashboard(userPrincipal.requirePatientId()));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Printable HTML summary for the Reports page
+    @GetMapping("/report")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<byte[]> getHealthReport(@AuthenticationPrincipal UserPrincipal userPrincipal,
+                                                  WebRequest request) {
+        try {
+            RenderedReport report = healthReportService.getReport(userPrincipal.getId(), userPrincipal.requirePatientId());
+            String timing = "report;desc=\"" + (report.isCached() ? "cache" : "render") + "\";dur=" + report.getElapsedMicros() / 1000.0;
+            // Weak If-None-Match comparison; a match already set the ETag on the response
+            if (request.checkNotModified(report.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .header("Server-Timing", timing)
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("text/html;charset=UTF-8"))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(report.getEtag())
+                    .header("Server-Timing", timing)
+                    .body(report.getHtml());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -34,11 +117,13 @@ public class PatientController {
 
     @GetMapping("/health-metrics")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<HealthMetrics> getHealthMetrics(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<HealthMetrics> getHealthMetrics(@AuthenticationPrincipal UserPrincipal userPrincipal, WebRequest request) {
         try {
-            Patient patient = patientService.getPatientByUserId(userPrincipal.getId());
-            HealthMetrics metrics = patientService.getHealthMetrics(patient.getId());
-            return ResponseEntity.ok(metrics);
+            Long userId = userPrincipal.getId();
+            return ConditionalGet.respond(request, "health-metrics-" + userId, patientService.getHealthMetricsVersion(userId), () -> {
+                Long patientId = userPrincipal.requirePatientId();
+                return patientService.getHealthMetrics(patientId);
+            });
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
@@ -50,21 +135,91 @@ public class PatientController {
             @AuthenticationPrincipal UserPrincipal userPrincipal,
             @RequestBody HealthMetrics healthMetrics) {
         try {
-            Patient patient = patientService.getPatientByUserId(userPrincipal.getId());
-            HealthMetrics updated = patientService.updateHealthMetrics(patient.getId(), healthMetrics);
+            Long patientId = userPrincipal.requirePatientId();
+            HealthMetrics updated = patientService.updateHealthMetrics(patientId, healthMetrics);
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // Body is a JSON array of readings, streamed rather than bound up front
+    @PostMapping("/health-metrics/bulk")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<BulkIngestResponse> bulkIngestHealthMetrics(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            HttpServletRequest request) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            BulkIngestResponse response = vitalsIngestionService.ingest(patientId, request.getInputStream());
+            if (response.isMalformed()) {
+                return ResponseEntity.badRequest().body(response);
+            }
+            if (response.getError() != null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/health-metrics/history")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<List<VitalPoint>> getHealthMetricsHistory(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam String metric,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") long bucketMinutes,
+            @RequestParam(defaultValue = "AVG") String aggregation) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusDays(30);
+            List<VitalPoint> points = vitalsTimeSeriesService.getSeries(patientId,
+                    VitalSign.valueOf(metric.toUpperCase()), start, end, bucketMinutes * 60,
+                    VitalsTimeSeriesService.Aggregation.valueOf(aggregation.toUpperCase()));
+            return ResponseEntity.ok(points);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/health-metrics/stats")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<List<VitalStats>> getHealthMetricsStats(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam(required = false) String metric,
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "50,90,95") List<Double> percentiles) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            List<VitalSign> signs = metric != null
+                    ? List.of(VitalSign.valueOf(metric.toUpperCase()))
+                    : List.of(VitalSign.values());
+            List<VitalStats> stats = new ArrayList<>();
+            for (VitalSign sign : signs) {
+                VitalStats summary = vitalsStatsService.getStats(patientId, sign, days, percentiles);
+                if (metric != null || summary.getCount() > 0) {
+                    stats.add(summary);
+                }
+            }
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/conditions")
     @PreAuthorize("hasRole('PATIENT')")
-    public ResponseEntity<List<MedicalCondition>> getConditions(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<List<MedicalCondition>> getConditions(@AuthenticationPrincipal UserPrincipal userPrincipal, WebRequest request) {
         try {
-            Patient patient = patientService.getPatientByUserId(userPrincipal.getId());
-            List<MedicalCondition> conditions = patientService.getPatientConditions(patient.getId());
-            return ResponseEntity.ok(conditions);
+            Long userId = userPrincipal.getId();
+            return ConditionalGet.respond(request, "conditions-" + userId, patientService.getConditionsVersion(userId), () -> {
+                Long patientId = userPrincipal.requirePatientId();
+                return patientService.getPatientConditions(patientId);
+            });
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -76,8 +231,8 @@ public class PatientController {
             @AuthenticationPrincipal UserPrincipal userPrincipal,
             @RequestBody MedicalCondition condition) {
         try {
-            Patient patient = patientService.getPatientByUserId(userPrincipal.getId());
-            MedicalCondition added = patientService.addCondition(patient.getId(), condition);
+            Long patientId = userPrincipal.requirePatientId();
+            MedicalCondition added = patientService.addCondition(patientId, condition);
             return ResponseEntity.ok(added);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -107,4 +262,52 @@ public class PatientController {
             return ResponseEntity.badRequest().build();
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/medications")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<List<MedicationEntry>> getMedications(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        try {
+            return ResponseEntity.ok(medicationService.getActiveMedications(userPrincipal.requirePatientId()));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/medications/check")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<List<DrugInteraction>> checkMedication(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @RequestParam String code) {
+        try {
+            return ResponseEntity.ok(medicationService.checkInteractions(userPrincipal.requirePatientId(), code));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/conditions/{conditionId}/medications")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<PrescriptionResult> addConditionMedication(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long conditionId,
+            @Valid @RequestBody MedicationEntry entry) {
+        try {
+            Long patientId = userPrincipal.requirePatientId();
+            return ResponseEntity.ok(medicationService.addConditionMedication(patientId, conditionId, entry));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/medications/{entryId}/stop")
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<MedicationEntry> stopMedication(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long entryId) {
+        try {
+            return ResponseEntity.ok(medicationService.stopMedication(userPrincipal.requirePatientId(), entryId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
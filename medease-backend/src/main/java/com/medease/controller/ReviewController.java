@@ -0,0 +1,64 @@
+package com.medease.controller;
+
+import com.medease.dto.RatingSummary;
+import com.medease.entity.Review;
+import com.medease.security.UserPrincipal;
+import com.medease.service.ReviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/doctors/{doctorId}/reviews")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ReviewController {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('PATIENT')")
+    public ResponseEntity<Review> submitReview(
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            @PathVariable Long doctorId,
+            @RequestBody Map<String, Object> request) {
+        try {
+            Integer rating = Integer.valueOf(request.get("rating").toString());
+            String comment = request.get("comment") != null ? request.get("comment").toString() : null;
+
+            Long patientId = userPrincipal.requirePatientId();
+            Review review = reviewService.submitReview(patientId, doctorId, rating, comment);
+            return ResponseEntity.ok(review);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<Page<Review>> getReviews(
+            @PathVariable Long doctorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            Page<Review> reviews = reviewService.getDoctorReviews(doctorId, PageRequest.of(page, size));
+            return ResponseEntity.ok(reviews);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<RatingSummary> getRatingSummary(@PathVariable Long doctorId) {
+        try {
+            return ResponseEntity.ok(reviewService.getRatingSummary(doctorId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.medease.documents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+// Content-addressed file store: a blob is named by the SHA-256 of its bytes
+// (blobs/ab/abcdef...), so storing the same content twice keeps one file.
+// Uploads are hashed while they are written to a temporary file and only then
+// moved into place.
+public class BlobStore {
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path blobs;
+    private final Path incoming;
+
+    public BlobStore(Path root) throws IOException {
+        this.blobs = root.resolve("blobs");
+        this.incoming = root.resolve("incoming");
+        Files.createDirectories(blobs);
+        Files.createDirectories(incoming);
+        // Leftovers of uploads interrupted by a restart
+        try (var stale = Files.list(incoming)) {
+            for (Path path : (Iterable<Path>) stale::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // Streams the upload to a temporary file; nothing is visible under its hash until commit
+    public Upload receive(InputStream in, long maxBytes) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Path temp = Files.createTempFile(incoming, "upload-", ".tmp");
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            byte[] chunk = new byte[64 * 1024];
+            ByteBuffer view = ByteBuffer.wrap(chunk);
+            int read;
+            while ((read = in.read(chunk)) >= 0) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new TooLargeException(maxBytes);
+                }
+                digest.update(chunk, 0, read);
+                view.clear().limit(read);
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return new Upload(temp, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    // Returns false when a blob with the same content already existed and the upload was dropped
+    public boolean commit(Upload upload) throws IOException {
+        Path target = path(upload.getSha256());
+        if (Files.exists(target)) {
+            Files.deleteIfExists(upload.temp);
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(upload.temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(upload.temp, target);
+            } catch (FileAlreadyExistsException exists) {
+                Files.deleteIfExists(upload.temp);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void discard(Upload upload) throws IOException {
+        Files.deleteIfExists(upload.temp);
+    }
+
+    public Path path(String sha256) {
+        if (!SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest");
+        }
+        return blobs.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    public void delete(String sha256) throws IOException {
+        Files.deleteIfExists(path(sha256));
+    }
+
+    public static class Upload {
+        private final Path temp;
+        private final String sha256;
+        private final long size;
+
+        private Upload(Path temp, String sha256, long size) {
+            this.temp = temp;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        public String getSha256() { return sha256; }
+        public long getSize() { return size; }
+    }
+
+    public static class TooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public TooLargeException(long maxBytes) {
+            super("Upload exceeds " + maxBytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.medease.documents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads a multipart/form-data body part by part straight off the request
+// stream. Only a fixed window is buffered, so a file part can be copied to disk
+// without the upload ever being held in memory.
+public class MultipartStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int head;
+    private int tail;
+    private boolean eof;
+    private boolean finished;
+    private PartInputStream current;
+
+    public MultipartStream(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        // The first delimiter has no preceding line break; pretend it does so every delimiter looks the same
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "boundary=", 0, 9)) {
+                String boundary = trimmed.substring(9);
+                if (boundary.length() >= 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                    boundary = boundary.substring(1, boundary.length() - 1);
+                }
+                return boundary.isEmpty() || boundary.length() > 70 ? null : boundary;
+            }
+        }
+        return null;
+    }
+
+    // Returns null after the closing delimiter; whatever is left of the previous part is skipped
+    public Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Before the first part this skips the preamble
+        PartInputStream previous = current != null ? current : new PartInputStream();
+        previous.skipToEnd();
+
+        if (!ensure(2)) {
+            throw new MalformedMultipartException("Missing closing boundary");
+        }
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            finished = true;
+            current = null;
+            return null;
+        }
+        // Transport padding may follow the delimiter before the line break
+        while (ensure(1) && (buffer[head] == ' ' || buffer[head] == '\t')) {
+            head++;
+        }
+        if (!ensure(2) || buffer[head] != '\r' || buffer[head + 1] != '\n') {
+            throw new MalformedMultipartException("Malformed boundary line");
+        }
+        head += 2;
+
+        Map<String, String> headers = readHeaders();
+        current = new PartInputStream();
+        return new Part(headers, current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        int total = 0;
+        while (true) {
+            String line = readLine();
+            if (line == null) {
+                throw new MalformedMultipartException("Unexpected end of part headers");
+            }
+            total += line.length() + 2;
+            if (total > MAX_HEADER_BYTES) {
+                throw new MalformedMultipartException("Part headers too large");
+            }
+            if (line.isEmpty()) {
+                return headers;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        int scanned = 0;
+        while (true) {
+            for (int i = head + scanned; i + 1 < tail; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    // Header values are UTF-8 in practice (browsers send raw UTF-8 file names)
+                    String line = new String(buffer, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            scanned = Math.max(0, tail - head - 1);
+            if (tail - head >= MAX_HEADER_BYTES || !ensure(tail - head + 1)) {
+                return null;
+            }
+        }
+    }
+
+    // Makes at least `count` unread bytes available; false if the stream ends first
+    private boolean ensure(int count) throws IOException {
+        while (tail - head < count) {
+            if (eof) {
+                return false;
+            }
+            if (head > 0) {
+                System.arraycopy(buffer, head, buffer, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+            int read = in.read(buffer, tail, buffer.length - tail);
+            if (read < 0) {
+                eof = true;
+            } else {
+                tail += read;
+            }
+        }
+        return true;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            if (buffer[i] != delimiter[0]) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    public static class Part {
+        private final Map<String, String> headers;
+        private final InputStream body;
+        private final String name;
+        private final String fileName;
+
+        private Part(Map<String, String> headers, InputStream body) {
+            this.headers = headers;
+            this.body = body;
+            String disposition = headers.getOrDefault("content-disposition", "");
+            this.name = dispositionParameter(disposition, "name");
+            this.fileName = dispositionParameter(disposition, "filename");
+        }
+
+        public String getName() { return name; }
+        public String getFileName() { return fileName; }
+        public String getContentType() { return headers.get("content-type"); }
+        public boolean isFile() { return fileName != null; }
+        public InputStream getInputStream() { return body; }
+
+        // Form fields are small; anything longer than maxBytes is rejected rather than buffered
+        public String readString(int maxBytes) throws IOException {
+            byte[] value = body.readNBytes(maxBytes + 1);
+            if (value.length > maxBytes) {
+                throw new MalformedMultipartException("Field " + name + " is too long");
+            }
+            return new String(value, StandardCharsets.UTF_8);
+        }
+
+        private static String dispositionParameter(String disposition, String parameter) {
+            int index = 0;
+            while (index < disposition.length()) {
+                int semicolon = disposition.indexOf(';', index);
+                if (semicolon < 0) {
+                    return null;
+                }
+                index = semicolon + 1;
+                while (index < disposition.length() && disposition.charAt(index) == ' ') {
+                    index++;
+                }
+                int equals = disposition.indexOf('=', index);
+                if (equals < 0) {
+                    return null;
+                }
+                String key = disposition.substring(index, equals).trim();
+                int valueStart = equals + 1;
+                String value;
+                if (valueStart < disposition.length() && disposition.charAt(valueStart) == '"') {
+                    StringBuilder quoted = new StringBuilder();
+                    int i = valueStart + 1;
+                    // Browsers percent-encode quotes instead of escaping them, and a backslash may be a Windows path separator
+                    while (i < disposition.length() && disposition.charAt(i) != '"') {
+                        quoted.append(disposition.charAt(i));
+                        i++;
+                    }
+                    value = quoted.toString();
+                    index = i + 1;
+                } else {
+                    int end = disposition.indexOf(';', valueStart);
+                    value = disposition.substring(valueStart, end < 0 ? disposition.length() : end).trim();
+                    index = end < 0 ? disposition.length() : end;
+                }
+                if (key.equalsIgnoreCase(parameter)) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static class MalformedMultipartException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public MalformedMultipartException(String message) {
+            super(message);
+        }
+    }
+
+    // Yields the bytes of one part, stopping in front of the next delimiter
+    private final class PartInputStream extends InputStream {
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (ended) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            ensure(delimiter.length);
+            int found = indexOfDelimiter();
+            int available;
+            if (found >= 0) {
+                available = found - head;
+                if (available == 0) {
+                    head += delimiter.length;
+                    ended = true;
+                    return -1;
+                }
+            } else {
+                // The tail of the window may be the start of a delimiter split across reads
+                available = tail - head - (delimiter.length - 1);
+                if (available <= 0) {
+                    if (eof) {
+                        throw new MalformedMultipartException("Missing closing boundary");
+                    }
+                    ensure(tail - head + 1);
+                    return read(target, offset, length);
+                }
+            }
+            int count = Math.min(length, available);
+            System.arraycopy(buffer, head, target, offset, count);
+            head += count;
+            return count;
+        }
+
+        private void skipToEnd() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) >= 0) {
+                // discard
+            }
+        }
+    }
+}
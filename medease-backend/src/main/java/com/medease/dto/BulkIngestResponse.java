@@ -0,0 +1,85 @@
+package com.medease.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResponse {
+    private int accepted;
+    private int duplicates;
+    private int rejected;
+    private long elapsedMs;
+    private double readingsPerSecond;
+    // Set when the upload stopped early; results then cover only what was stored before
+    private String error;
+    // The error is a malformed body rather than a conflicting upload
+    @JsonIgnore
+    private boolean malformed;
+    private List<ItemResult> results = new ArrayList<>();
+
+    // Constructors
+    public BulkIngestResponse() {}
+
+    public void record(int index, Status status, String message) {
+        switch (status) {
+            case ACCEPTED: accepted++; break;
+            case DUPLICATE: duplicates++; break;
+            default: rejected++;
+        }
+        results.add(new ItemResult(index, status, message));
+    }
+
+    // Getters and Setters
+    public int getAccepted() { return accepted; }
+    public void setAccepted(int accepted) { this.accepted = accepted; }
+
+    public int getDuplicates() { return duplicates; }
+    public void setDuplicates(int duplicates) { this.duplicates = duplicates; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public double getReadingsPerSecond() { return readingsPerSecond; }
+    public void setReadingsPerSecond(double readingsPerSecond) { this.readingsPerSecond = readingsPerSecond; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    @JsonIgnore
+    public boolean isMalformed() { return malformed; }
+    public void setMalformed(boolean malformed) { this.malformed = malformed; }
+
+    public List<ItemResult> getResults() { return results; }
+    public void setResults(List<ItemResult> results) { this.results = results; }
+
+    public enum Status {
+        ACCEPTED, DUPLICATE, REJECTED
+    }
+
+    public static class ItemResult {
+        private int index;
+        private Status status;
+        private String message;
+
+        public ItemResult() {}
+
+        public ItemResult(int index, Status status, String message) {
+            this.index = index;
+            this.status = status;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+        public void setIndex(int index) { this.index = index; }
+
+        public Status getStatus() { return status; }
+        public void setStatus(Status status) { this.status = status; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,57 @@
+package com.medease.dto;
+
+import java.time.LocalDateTime;
+
+public class ChatMessage {
+    // Sequence number within the room, assigned when the message is accepted
+    private Long id;
+    private Long roomId;
+    private Long senderId;
+    private String senderName;
+    private Boolean isFromDoctor;
+    private String content;
+    private String type = "TEXT";
+    // Echoed back so the sender can match the broadcast to its optimistic copy
+    private String clientId;
+    private LocalDateTime timestamp;
+
+    // Constructors
+    public ChatMessage() {}
+
+    public ChatMessage(Long roomId, Long senderId, String senderName, Boolean isFromDoctor, String content, String clientId) {
+        this.roomId = roomId;
+        this.senderId = senderId;
+        this.senderName = senderName;
+        this.isFromDoctor = isFromDoctor;
+        this.content = content;
+        this.clientId = clientId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRoomId() { return roomId; }
+    public void setRoomId(Long roomId) { this.roomId = roomId; }
+
+    public Long getSenderId() { return senderId; }
+    public void setSenderId(Long senderId) { this.senderId = senderId; }
+
+    public String getSenderName() { return senderName; }
+    public void setSenderName(String senderName) { this.senderName = senderName; }
+
+    public Boolean getIsFromDoctor() { return isFromDoctor; }
+    public void setIsFromDoctor(Boolean isFromDoctor) { this.isFromDoctor = isFromDoctor; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getClientId() { return clientId; }
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,41 @@
+package com.medease.dto;
+
+public class ChatRoomSummary {
+    private Long id;
+    private Long patientId;
+    private Long doctorId;
+    // The other participant, seen from the caller's side
+    private String participantName;
+    private String specialty;
+    private ChatMessage lastMessage;
+
+    // Constructors
+    public ChatRoomSummary() {}
+
+    public ChatRoomSummary(Long id, Long patientId, Long doctorId, String participantName, String specialty) {
+        this.id = id;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.participantName = participantName;
+        this.specialty = specialty;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public String getParticipantName() { return participantName; }
+    public void setParticipantName(String participantName) { this.participantName = participantName; }
+
+    public String getSpecialty() { return specialty; }
+    public void setSpecialty(String specialty) { this.specialty = specialty; }
+
+    public ChatMessage getLastMessage() { return lastMessage; }
+    public void setLastMessage(ChatMessage lastMessage) { this.lastMessage = lastMessage; }
+}
@@ -0,0 +1,72 @@
+package com.medease.dto;
+
+import com.medease.entity.VitalSign;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CohortQuery {
+    // Every listed condition must be active; names match case-insensitively
+    private List<String> conditions = new ArrayList<>();
+    // Full codes ("E11.9") or three-character categories ("E11")
+    private List<String> icd10Codes = new ArrayList<>();
+    private List<String> excludeConditions = new ArrayList<>();
+    private List<MetricFilter> metrics = new ArrayList<>();
+    // Kept appointments in the past N days, today included
+    private Integer appointmentWithinDays;
+    private Integer noAppointmentWithinDays;
+    private int offset = 0;
+    private int limit = 100;
+
+    // Constructors
+    public CohortQuery() {}
+
+    // Getters and Setters
+    public List<String> getConditions() { return conditions; }
+    public void setConditions(List<String> conditions) { this.conditions = conditions; }
+
+    public List<String> getIcd10Codes() { return icd10Codes; }
+    public void setIcd10Codes(List<String> icd10Codes) { this.icd10Codes = icd10Codes; }
+
+    public List<String> getExcludeConditions() { return excludeConditions; }
+    public void setExcludeConditions(List<String> excludeConditions) { this.excludeConditions = excludeConditions; }
+
+    public List<MetricFilter> getMetrics() { return metrics; }
+    public void setMetrics(List<MetricFilter> metrics) { this.metrics = metrics; }
+
+    public Integer getAppointmentWithinDays() { return appointmentWithinDays; }
+    public void setAppointmentWithinDays(Integer appointmentWithinDays) { this.appointmentWithinDays = appointmentWithinDays; }
+
+    public Integer getNoAppointmentWithinDays() { return noAppointmentWithinDays; }
+    public void setNoAppointmentWithinDays(Integer noAppointmentWithinDays) { this.noAppointmentWithinDays = noAppointmentWithinDays; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    // Compares the patient's latest reading, e.g. {"metric": "BMI", "op": ">=", "value": 30}
+    public static class MetricFilter {
+        private VitalSign metric;
+        private String op;
+        private double value;
+
+        public MetricFilter() {}
+
+        public MetricFilter(VitalSign metric, String op, double value) {
+            this.metric = metric;
+            this.op = op;
+            this.value = value;
+        }
+
+        public VitalSign getMetric() { return metric; }
+        public void setMetric(VitalSign metric) { this.metric = metric; }
+
+        public String getOp() { return op; }
+        public void setOp(String op) { this.op = op; }
+
+        public double getValue() { return value; }
+        public void setValue(double value) { this.value = value; }
+    }
+}
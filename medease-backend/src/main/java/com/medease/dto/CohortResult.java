@@ -0,0 +1,28 @@
+package com.medease.dto;
+
+import java.util.List;
+
+public class CohortResult {
+    private int count;
+    private List<Long> patientIds;
+    private long elapsedMicros;
+
+    // Constructors
+    public CohortResult() {}
+
+    public CohortResult(int count, List<Long> patientIds, long elapsedMicros) {
+        this.count = count;
+        this.patientIds = patientIds;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    // Getters and Setters
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public List<Long> getPatientIds() { return patientIds; }
+    public void setPatientIds(List<Long> patientIds) { this.patientIds = patientIds; }
+
+    public long getElapsedMicros() { return elapsedMicros; }
+    public void setElapsedMicros(long elapsedMicros) { this.elapsedMicros = elapsedMicros; }
+}
@@ -0,0 +1,21 @@
+package com.medease.dto;
+
+public class ConditionCode {
+    private String code;
+    private String description;
+
+    // Constructors
+    public ConditionCode() {}
+
+    public ConditionCode(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    // Getters and Setters
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+}
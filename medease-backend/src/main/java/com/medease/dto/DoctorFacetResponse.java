@@ -0,0 +1,31 @@
+package com.medease.dto;
+
+import com.medease.entity.Doctor;
+
+import java.util.List;
+import java.util.Map;
+
+public class DoctorFacetResponse {
+    private Map<String, Map<String, Integer>> facets;
+    private int totalElements;
+    private List<Doctor> doctors;
+
+    // Constructors
+    public DoctorFacetResponse() {}
+
+    public DoctorFacetResponse(Map<String, Map<String, Integer>> facets, int totalElements, List<Doctor> doctors) {
+        this.facets = facets;
+        this.totalElements = totalElements;
+        this.doctors = doctors;
+    }
+
+    // Getters and Setters
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Integer>> facets) { this.facets = facets; }
+
+    public int getTotalElements() { return totalElements; }
+    public void setTotalElements(int totalElements) { this.totalElements = totalElements; }
+
+    public List<Doctor> getDoctors() { return doctors; }
+    public void setDoctors(List<Doctor> doctors) { this.doctors = doctors; }
+}
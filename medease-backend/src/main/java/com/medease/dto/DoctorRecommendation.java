@@ -0,0 +1,30 @@
+package com.medease.dto;
+
+import com.medease.entity.Doctor;
+
+import java.time.LocalDateTime;
+
+public class DoctorRecommendation {
+    private Doctor doctor;
+    private double score;
+    private LocalDateTime earliestAvailableSlot;
+
+    // Constructors
+    public DoctorRecommendation() {}
+
+    public DoctorRecommendation(Doctor doctor, double score, LocalDateTime earliestAvailableSlot) {
+        this.doctor = doctor;
+        this.score = Math.round(score * 1000.0) / 1000.0;
+        this.earliestAvailableSlot = earliestAvailableSlot;
+    }
+
+    // Getters and Setters
+    public Doctor getDoctor() { return doctor; }
+    public void setDoctor(Doctor doctor) { this.doctor = doctor; }
+
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+
+    public LocalDateTime getEarliestAvailableSlot() { return earliestAvailableSlot; }
+    public void setEarliestAvailableSlot(LocalDateTime earliestAvailableSlot) { this.earliestAvailableSlot = earliestAvailableSlot; }
+}
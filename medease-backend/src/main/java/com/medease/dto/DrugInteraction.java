@@ -0,0 +1,35 @@
+package com.medease.dto;
+
+public class DrugInteraction {
+    private Medication medication;
+    private Medication interactsWith;
+    private Severity severity;
+    private String description;
+
+    // Constructors
+    public DrugInteraction() {}
+
+    public DrugInteraction(Medication medication, Medication interactsWith, Severity severity, String description) {
+        this.medication = medication;
+        this.interactsWith = interactsWith;
+        this.severity = severity;
+        this.description = description;
+    }
+
+    // Getters and Setters
+    public Medication getMedication() { return medication; }
+    public void setMedication(Medication medication) { this.medication = medication; }
+
+    public Medication getInteractsWith() { return interactsWith; }
+    public void setInteractsWith(Medication interactsWith) { this.interactsWith = interactsWith; }
+
+    public Severity getSeverity() { return severity; }
+    public void setSeverity(Severity severity) { this.severity = severity; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public enum Severity {
+        MINOR, MODERATE, MAJOR, CONTRAINDICATED
+    }
+}
@@ -0,0 +1,100 @@
+package com.medease.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResponse {
+    // Only the first errors are listed; the counts always cover every row
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private String kind;
+    private int rows;
+    private int imported;
+    private int rejected;
+    private long elapsedMs;
+    // Summed over all hash threads, so it can exceed elapsedMs
+    private long hashingMs;
+    private long insertMs;
+    private int hashThreads;
+    private double rowsPerSecond;
+    // Every row up to this one was either imported or listed in errors
+    private int completedThrough;
+    // Set when the import stopped early
+    private String error;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Constructors
+    public ImportResponse() {}
+
+    public ImportResponse(String kind, int hashThreads) {
+        this.kind = kind;
+        this.hashThreads = hashThreads;
+    }
+
+    public void reject(int row, String email, String message) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, email, message));
+        }
+    }
+
+    // Getters and Setters
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public int getRows() { return rows; }
+    public void setRows(int rows) { this.rows = rows; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public long getHashingMs() { return hashingMs; }
+    public void setHashingMs(long hashingMs) { this.hashingMs = hashingMs; }
+
+    public long getInsertMs() { return insertMs; }
+    public void setInsertMs(long insertMs) { this.insertMs = insertMs; }
+
+    public int getHashThreads() { return hashThreads; }
+    public void setHashThreads(int hashThreads) { this.hashThreads = hashThreads; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public int getCompletedThrough() { return completedThrough; }
+    public void setCompletedThrough(int completedThrough) { this.completedThrough = completedThrough; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        private int row;
+        private String email;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(int row, String email, String message) {
+            this.row = row;
+            this.email = email;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public String getEmail() { return email; }
+        public void setEmail(String email) { this.email = email; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
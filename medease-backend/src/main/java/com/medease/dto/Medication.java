@@ -0,0 +1,26 @@
+package com.medease.dto;
+
+public class Medication {
+    private String code;
+    private String name;
+    private String drugClass;
+
+    // Constructors
+    public Medication() {}
+
+    public Medication(String code, String name, String drugClass) {
+        this.code = code;
+        this.name = name;
+        this.drugClass = drugClass;
+    }
+
+    // Getters and Setters
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDrugClass() { return drugClass; }
+    public void setDrugClass(String drugClass) { this.drugClass = drugClass; }
+}
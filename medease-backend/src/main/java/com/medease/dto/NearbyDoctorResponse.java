@@ -0,0 +1,23 @@
+package com.medease.dto;
+
+import com.medease.entity.Doctor;
+
+public class NearbyDoctorResponse {
+    private Doctor doctor;
+    private double distanceKm;
+
+    // Constructors
+    public NearbyDoctorResponse() {}
+
+    public NearbyDoctorResponse(Doctor doctor, double distanceKm) {
+        this.doctor = doctor;
+        this.distanceKm = Math.round(distanceKm * 100.0) / 100.0;
+    }
+
+    // Getters and Setters
+    public Doctor getDoctor() { return doctor; }
+    public void setDoctor(Doctor doctor) { this.doctor = doctor; }
+
+    public double getDistanceKm() { return distanceKm; }
+    public void setDistanceKm(double distanceKm) { this.distanceKm = distanceKm; }
+}
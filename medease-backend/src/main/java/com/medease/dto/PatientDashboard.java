@@ -0,0 +1,101 @@
+package com.medease.dto;
+
+import com.medease.entity.Appointment;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.MedicalCondition;
+import com.medease.entity.Patient;
+import com.medease.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatientDashboard {
+    private Profile profile;
+    private HealthMetrics healthMetrics;
+    private List<MedicalCondition> conditions;
+    private List<UpcomingAppointment> upcomingAppointments;
+    // Sections that failed or timed out; they are left null
+    private List<String> unavailable = new ArrayList<>();
+
+    // Constructors
+    public PatientDashboard() {}
+
+    // Getters and Setters
+    public Profile getProfile() { return profile; }
+    public void setProfile(Profile profile) { this.profile = profile; }
+
+    public HealthMetrics getHealthMetrics() { return healthMetrics; }
+    public void setHealthMetrics(HealthMetrics healthMetrics) { this.healthMetrics = healthMetrics; }
+
+    public List<MedicalCondition> getConditions() { return conditions; }
+    public void setConditions(List<MedicalCondition> conditions) { this.conditions = conditions; }
+
+    public List<UpcomingAppointment> getUpcomingAppointments() { return upcomingAppointments; }
+    public void setUpcomingAppointments(List<UpcomingAppointment> upcomingAppointments) { this.upcomingAppointments = upcomingAppointments; }
+
+    public List<String> getUnavailable() { return unavailable; }
+    public void setUnavailable(List<String> unavailable) { this.unavailable = unavailable; }
+
+    public static class Profile {
+        private Long patientId;
+        private String firstName;
+        private String lastName;
+        private String email;
+        private String phone;
+        private LocalDate dateOfBirth;
+        private User.Gender gender;
+
+        public Profile(Patient patient) {
+            User user = patient.getUser();
+            this.patientId = patient.getId();
+            this.firstName = user.getFirstName();
+            this.lastName = user.getLastName();
+            this.email = user.getEmail();
+            this.phone = user.getPhone();
+            this.dateOfBirth = user.getDateOfBirth();
+            this.gender = user.getGender();
+        }
+
+        public Long getPatientId() { return patientId; }
+        public String getFirstName() { return firstName; }
+        public String getLastName() { return lastName; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+        public LocalDate getDateOfBirth() { return dateOfBirth; }
+        public User.Gender getGender() { return gender; }
+    }
+
+    public static class UpcomingAppointment {
+        private Long id;
+        private LocalDateTime appointmentDate;
+        private Appointment.AppointmentStatus status;
+        private Appointment.AppointmentType type;
+        private String reason;
+        private Long doctorId;
+        private String doctorName;
+        private String specialty;
+
+        public UpcomingAppointment(Appointment appointment) {
+            this.id = appointment.getId();
+            this.appointmentDate = appointment.getAppointmentDate();
+            this.status = appointment.getStatus();
+            this.type = appointment.getType();
+            this.reason = appointment.getReason();
+            this.doctorId = appointment.getDoctor().getId();
+            User doctorUser = appointment.getDoctor().getUser();
+            this.doctorName = doctorUser.getFirstName() + " " + doctorUser.getLastName();
+            this.specialty = appointment.getDoctor().getSpecialty();
+        }
+
+        public Long getId() { return id; }
+        public LocalDateTime getAppointmentDate() { return appointmentDate; }
+        public Appointment.AppointmentStatus getStatus() { return status; }
+        public Appointment.AppointmentType getType() { return type; }
+        public String getReason() { return reason; }
+        public Long getDoctorId() { return doctorId; }
+        public String getDoctorName() { return doctorName; }
+        public String getSpecialty() { return specialty; }
+    }
+}
@@ -0,0 +1,26 @@
+package com.medease.dto;
+
+import com.medease.entity.MedicationEntry;
+
+import java.util.List;
+
+public class PrescriptionResult {
+    private MedicationEntry entry;
+    // Interactions with the patient's other active medications at the time of saving
+    private List<DrugInteraction> interactions;
+
+    // Constructors
+    public PrescriptionResult() {}
+
+    public PrescriptionResult(MedicationEntry entry, List<DrugInteraction> interactions) {
+        this.entry = entry;
+        this.interactions = interactions;
+    }
+
+    // Getters and Setters
+    public MedicationEntry getEntry() { return entry; }
+    public void setEntry(MedicationEntry entry) { this.entry = entry; }
+
+    public List<DrugInteraction> getInteractions() { return interactions; }
+    public void setInteractions(List<DrugInteraction> interactions) { this.interactions = interactions; }
+}
@@ -0,0 +1,43 @@
+package com.medease.dto;
+
+import java.util.Objects;
+
+public class PresenceState {
+    public enum Status {
+        ONLINE, IDLE, OFFLINE
+    }
+
+    private Long userId;
+    private String name;
+    private Status status;
+    private boolean typing;
+
+    // Constructors
+    public PresenceState() {}
+
+    public PresenceState(Long userId, String name, Status status, boolean typing) {
+        this.userId = userId;
+        this.name = name;
+        this.status = status;
+        this.typing = typing;
+    }
+
+    // Same status and typing flag, i.e. nothing worth sending
+    public boolean sameAs(PresenceState other) {
+        return other != null && status == other.status && typing == other.typing
+                && Objects.equals(userId, other.userId);
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public boolean isTyping() { return typing; }
+    public void setTyping(boolean typing) { this.typing = typing; }
+}
@@ -0,0 +1,26 @@
+package com.medease.dto;
+
+public class RatingSummary {
+    private Long doctorId;
+    private Double rating;
+    private Integer totalReviews;
+
+    // Constructors
+    public RatingSummary() {}
+
+    public RatingSummary(Long doctorId, Double rating, Integer totalReviews) {
+        this.doctorId = doctorId;
+        this.rating = rating;
+        this.totalReviews = totalReviews;
+    }
+
+    // Getters and Setters
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Double getRating() { return rating; }
+    public void setRating(Double rating) { this.rating = rating; }
+
+    public Integer getTotalReviews() { return totalReviews; }
+    public void setTotalReviews(Integer totalReviews) { this.totalReviews = totalReviews; }
+}
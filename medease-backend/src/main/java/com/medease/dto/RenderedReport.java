@@ -0,0 +1,22 @@
+package com.medease.dto;
+
+public class RenderedReport {
+    private final byte[] html;
+    private final String etag;
+    private final boolean cached;
+    private final long elapsedMicros;
+
+    // Constructors
+    public RenderedReport(byte[] html, String etag, boolean cached, long elapsedMicros) {
+        this.html = html;
+        this.etag = etag;
+        this.cached = cached;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    // Getters
+    public byte[] getHtml() { return html; }
+    public String getEtag() { return etag; }
+    public boolean isCached() { return cached; }
+    public long getElapsedMicros() { return elapsedMicros; }
+}
@@ -0,0 +1,23 @@
+package com.medease.dto;
+
+import java.time.LocalDateTime;
+
+public class VitalPoint {
+    private LocalDateTime timestamp;
+    private double value;
+
+    // Constructors
+    public VitalPoint() {}
+
+    public VitalPoint(LocalDateTime timestamp, double value) {
+        this.timestamp = timestamp;
+        this.value = value;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+}
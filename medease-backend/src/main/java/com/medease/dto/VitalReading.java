@@ -0,0 +1,65 @@
+package com.medease.dto;
+
+import com.medease.entity.HealthMetrics;
+
+import java.time.LocalDateTime;
+
+public class VitalReading {
+    private String deviceId;
+    private LocalDateTime timestamp;
+    private Double weight;
+    private Double height;
+    private Integer heartRate;
+    private Integer bloodPressureSystolic;
+    private Integer bloodPressureDiastolic;
+    private Double bloodSugar;
+    private Double cholesterol;
+    private Double temperature;
+
+    // Constructors
+    public VitalReading() {}
+
+    public HealthMetrics toHealthMetrics() {
+        HealthMetrics metrics = new HealthMetrics();
+        metrics.setWeight(weight);
+        metrics.setHeight(height);
+        metrics.setHeartRate(heartRate);
+        metrics.setBloodPressureSystolic(bloodPressureSystolic);
+        metrics.setBloodPressureDiastolic(bloodPressureDiastolic);
+        metrics.setBloodSugar(bloodSugar);
+        metrics.setCholesterol(cholesterol);
+        metrics.setTemperature(temperature);
+        return metrics;
+    }
+
+    // Getters and Setters
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+
+    public Double getWeight() { return weight; }
+    public void setWeight(Double weight) { this.weight = weight; }
+
+    public Double getHeight() { return height; }
+    public void setHeight(Double height) { this.height = height; }
+
+    public Integer getHeartRate() { return heartRate; }
+    public void setHeartRate(Integer heartRate) { this.heartRate = heartRate; }
+
+    public Integer getBloodPressureSystolic() { return bloodPressureSystolic; }
+    public void setBloodPressureSystolic(Integer bloodPressureSystolic) { this.bloodPressureSystolic = bloodPressureSystolic; }
+
+    public Integer getBloodPressureDiastolic() { return bloodPressureDiastolic; }
+    public void setBloodPressureDiastolic(Integer bloodPressureDiastolic) { this.bloodPressureDiastolic = bloodPressureDiastolic; }
+
+    public Double getBloodSugar() { return bloodSugar; }
+    public void setBloodSugar(Double bloodSugar) { this.bloodSugar = bloodSugar; }
+
+    public Double getCholesterol() { return cholesterol; }
+    public void setCholesterol(Double cholesterol) { this.cholesterol = cholesterol; }
+
+    public Double getTemperature() { return temperature; }
+    public void setTemperature(Double temperature) { this.temperature = temperature; }
+}
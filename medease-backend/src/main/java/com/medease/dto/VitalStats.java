@@ -0,0 +1,51 @@
+package com.medease.dto;
+
+import com.medease.entity.VitalSign;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class VitalStats {
+    private VitalSign metric;
+    private int days;
+    private LocalDateTime from;
+    private long count;
+    private Double mean;
+    private Double min;
+    private Double max;
+    private Map<String, Double> percentiles;
+
+    // Constructors
+    public VitalStats() {}
+
+    public VitalStats(VitalSign metric, int days, LocalDateTime from) {
+        this.metric = metric;
+        this.days = days;
+        this.from = from;
+    }
+
+    // Getters and Setters
+    public VitalSign getMetric() { return metric; }
+    public void setMetric(VitalSign metric) { this.metric = metric; }
+
+    public int getDays() { return days; }
+    public void setDays(int days) { this.days = days; }
+
+    public LocalDateTime getFrom() { return from; }
+    public void setFrom(LocalDateTime from) { this.from = from; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+
+    public Map<String, Double> getPercentiles() { return percentiles; }
+    public void setPercentiles(Map<String, Double> percentiles) { this.percentiles = percentiles; }
+}
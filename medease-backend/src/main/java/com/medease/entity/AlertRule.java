@@ -0,0 +1,72 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// See com.medease.alerts.AlertRuleCompiler for the expression syntax
+@Entity
+@Table(name = "alert_rules")
+public class AlertRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(nullable = false, length = 500)
+    private String expression;
+
+    @Enumerated(EnumType.STRING)
+    private MedicalCondition.Severity severity = MedicalCondition.Severity.MEDIUM;
+
+    private Boolean enabled = true;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public AlertRule() {}
+
+    public AlertRule(String name, String expression, MedicalCondition.Severity severity) {
+        this.name = name;
+        this.expression = expression;
+        this.severity = severity;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getExpression() { return expression; }
+    public void setExpression(String expression) { this.expression = expression; }
+
+    public MedicalCondition.Severity getSeverity() { return severity; }
+    public void setSeverity(MedicalCondition.Severity severity) { this.severity = severity; }
+
+    public Boolean getEnabled() { return enabled; }
+    public void setEnabled(Boolean enabled) { this.enabled = enabled; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -7,6 +7,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "appointments")
 public class Appointment {
+    public static final int PRESCRIPTION_LENGTH = 2000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,6 +35,8 @@ public class Appointment {
 
     private String reason;
     private String notes;
+    // Mirrors the MedicationEntry lines prescribed here for older clients
+    @Column(length = PRESCRIPTION_LENGTH)
     private String prescription;
 
     @Column(name = "created_at")
@@ -0,0 +1,56 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A conversation between a patient and one of their doctors; there is at most
+// one room per pair.
+@Entity
+@Table(name = "chat_rooms", uniqueConstraints = @UniqueConstraint(name = "uk_chat_rooms_pair", columnNames = {"patient_id", "doctor_id"}),
+        indexes = @Index(name = "idx_chat_rooms_doctor", columnList = "doctor_id"))
+public class ChatRoom {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public ChatRoom() {}
+
+    public ChatRoom(Long patientId, Long doctorId) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,39 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Dedup key for device uploads; the values themselves live in the vitals time series
+@Entity
+@Table(name = "device_readings",
+       uniqueConstraints = @UniqueConstraint(name = "uk_device_readings", columnNames = {"patient_id", "device_id", "recorded_at"}))
+public class DeviceReading {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "device_id", length = 64, nullable = false)
+    private String deviceId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    // Constructors
+    public DeviceReading() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+}
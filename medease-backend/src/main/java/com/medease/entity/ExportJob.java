@@ -0,0 +1,118 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "export_jobs")
+public class ExportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Status status = Status.QUEUED;
+
+    private Boolean gzip = false;
+
+    // The partition plan is fixed when the job is created so a resume covers the same ranges
+    @Column(name = "min_patient_id")
+    private Long minPatientId;
+
+    @Column(name = "max_patient_id")
+    private Long maxPatientId;
+
+    @Column(name = "partition_size")
+    private Integer partitionSize;
+
+    @Column(name = "partition_count")
+    private Integer partitionCount = 0;
+
+    @Column(name = "completed_partitions")
+    private Integer completedPartitions = 0;
+
+    @Column(name = "exported_patients")
+    private Long exportedPatients = 0L;
+
+    @Column(name = "bytes_written")
+    private Long bytesWritten = 0L;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "requested_by")
+    private Long requestedBy;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public ExportJob() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Boolean getGzip() { return gzip; }
+    public void setGzip(Boolean gzip) { this.gzip = gzip; }
+
+    public Long getMinPatientId() { return minPatientId; }
+    public void setMinPatientId(Long minPatientId) { this.minPatientId = minPatientId; }
+
+    public Long getMaxPatientId() { return maxPatientId; }
+    public void setMaxPatientId(Long maxPatientId) { this.maxPatientId = maxPatientId; }
+
+    public Integer getPartitionSize() { return partitionSize; }
+    public void setPartitionSize(Integer partitionSize) { this.partitionSize = partitionSize; }
+
+    public Integer getPartitionCount() { return partitionCount; }
+    public void setPartitionCount(Integer partitionCount) { this.partitionCount = partitionCount; }
+
+    public Integer getCompletedPartitions() { return completedPartitions; }
+    public void setCompletedPartitions(Integer completedPartitions) { this.completedPartitions = completedPartitions; }
+
+    public Long getExportedPatients() { return exportedPatients; }
+    public void setExportedPatients(Long exportedPatients) { this.exportedPatients = exportedPatients; }
+
+    public Long getBytesWritten() { return bytesWritten; }
+    public void setBytesWritten(Long bytesWritten) { this.bytesWritten = bytesWritten; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public Long getRequestedBy() { return requestedBy; }
+    public void setRequestedBy(Long requestedBy) { this.requestedBy = requestedBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public double getProgress() {
+        return partitionCount == null || partitionCount == 0 ? (status == Status.COMPLETED ? 1.0 : 0.0)
+                : (double) completedPartitions / partitionCount;
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
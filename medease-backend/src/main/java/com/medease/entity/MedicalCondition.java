@@ -1,5 +1,6 @@
 package com.medease.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -7,16 +8,22 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "medical_conditions")
 public class MedicalCondition {
+    public static final int MEDICATIONS_LENGTH = 2000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id")
     private Patient patient;
 
     private String name;
 
+    @Column(name = "icd10_code", length = 8)
+    private String icd10Code;
+
     @Enumerated(EnumType.STRING)
     private Severity severity;
 
@@ -25,14 +32,25 @@ public class MedicalCondition {
 
     private String description;
     private Boolean isActive = true;
+    // Mirrors the active MedicationEntry lines for older clients
+    @Column(length = MEDICATIONS_LENGTH)
     private String medications;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
     // Constructors
@@ -54,6 +72,9 @@ public class MedicalCondition {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
+    public String getIcd10Code() { return icd10Code; }
+    public void setIcd10Code(String icd10Code) { this.icd10Code = icd10Code; }
+
     public Severity getSeverity() { return severity; }
     public void setSeverity(Severity severity) { this.severity = severity; }
 
@@ -66,6 +87,9 @@ public class MedicalCondition {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
 
@@ -0,0 +1,123 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A structured medication a patient takes, coded against the medication
+// catalog and linked to the condition or appointment it came from.
+@Entity
+@Table(name = "medication_entries", indexes = @Index(name = "idx_medication_entries_patient", columnList = "patient_id, active"))
+public class MedicationEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "medication_code", nullable = false, length = 64)
+    private String medicationCode;
+
+    @Column(name = "medication_name", length = 128)
+    private String medicationName;
+
+    @Size(max = 64, message = "Dose must be at most 64 characters")
+    @Column(length = 64)
+    private String dose;
+
+    @Size(max = 64, message = "Frequency must be at most 64 characters")
+    @Column(length = 64)
+    private String frequency;
+
+    @Size(max = 500, message = "Instructions must be at most 500 characters")
+    @Column(length = 500)
+    private String instructions;
+
+    @Column(name = "condition_id")
+    private Long conditionId;
+
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    @Column(name = "prescribed_by_doctor_id")
+    private Long prescribedByDoctorId;
+
+    private Boolean active = true;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (startDate == null) {
+            startDate = LocalDate.now();
+        }
+    }
+
+    // Constructors
+    public MedicationEntry() {}
+
+    // Helper methods
+    public String describe() {
+        StringBuilder text = new StringBuilder(medicationName != null ? medicationName : medicationCode);
+        if (dose != null && !dose.isBlank()) {
+            text.append(' ').append(dose);
+        }
+        if (frequency != null && !frequency.isBlank()) {
+            text.append(' ').append(frequency);
+        }
+        return text.toString();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public String getMedicationCode() { return medicationCode; }
+    public void setMedicationCode(String medicationCode) { this.medicationCode = medicationCode; }
+
+    public String getMedicationName() { return medicationName; }
+    public void setMedicationName(String medicationName) { this.medicationName = medicationName; }
+
+    public String getDose() { return dose; }
+    public void setDose(String dose) { this.dose = dose; }
+
+    public String getFrequency() { return frequency; }
+    public void setFrequency(String frequency) { this.frequency = frequency; }
+
+    public String getInstructions() { return instructions; }
+    public void setInstructions(String instructions) { this.instructions = instructions; }
+
+    public Long getConditionId() { return conditionId; }
+    public void setConditionId(Long conditionId) { this.conditionId = conditionId; }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+    public Long getPrescribedByDoctorId() { return prescribedByDoctorId; }
+    public void setPrescribedByDoctorId(Long prescribedByDoctorId) { this.prescribedByDoctorId = prescribedByDoctorId; }
+
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+
+    public LocalDate getStartDate() { return startDate; }
+    public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+
+    public LocalDate getEndDate() { return endDate; }
+    public void setEndDate(LocalDate endDate) { this.endDate = endDate; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,68 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+
+// A compressed run of readings for one patient and one vital sign.
+// Times are epoch seconds (UTC); see com.medease.timeseries.ChunkEncoder for the format.
+@Entity
+@Table(name = "metric_chunks", indexes = @Index(name = "idx_metric_chunks_series", columnList = "patient_id, metric, end_time"))
+public class MetricChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private VitalSign metric;
+
+    @Column(name = "start_time", nullable = false)
+    private Long startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private Long endTime;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;
+
+    private Boolean sealed = false;
+
+    // Worst case is about 18 bytes a point, so no fixed length fits every chunk size
+    @Lob
+    private byte[] data;
+
+    // Constructors
+    public MetricChunk() {}
+
+    public MetricChunk(Long patientId, VitalSign metric) {
+        this.patientId = patientId;
+        this.metric = metric;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public VitalSign getMetric() { return metric; }
+    public void setMetric(VitalSign metric) { this.metric = metric; }
+
+    public Long getStartTime() { return startTime; }
+    public void setStartTime(Long startTime) { this.startTime = startTime; }
+
+    public Long getEndTime() { return endTime; }
+    public void setEndTime(Long endTime) { this.endTime = endTime; }
+
+    public Integer getPointCount() { return pointCount; }
+    public void setPointCount(Integer pointCount) { this.pointCount = pointCount; }
+
+    public Boolean getSealed() { return sealed; }
+    public void setSealed(Boolean sealed) { this.sealed = sealed; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+}
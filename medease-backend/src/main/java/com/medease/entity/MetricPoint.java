@@ -0,0 +1,46 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+
+// A reading in the open tail of a patient's series for one vital sign, kept
+// uncompressed until the tail is sealed into a MetricChunk.
+// Times are epoch seconds (UTC).
+@Entity
+@Table(name = "metric_points", indexes = @Index(name = "idx_metric_points_series", columnList = "patient_id, metric, point_time"))
+public class MetricPoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private VitalSign metric;
+
+    @Column(name = "point_time", nullable = false)
+    private Long timestamp;
+
+    @Column(name = "point_value", nullable = false)
+    private Double value;
+
+    // Constructors
+    public MetricPoint() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public VitalSign getMetric() { return metric; }
+    public void setMetric(VitalSign metric) { this.metric = metric; }
+
+    public Long getTimestamp() { return timestamp; }
+    public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
+
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+}
@@ -1,5 +1,6 @@
 package com.medease.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -34,6 +35,7 @@ public class User {
     @Size(max = 15)
     private String phone;
 
+    @JsonIgnore
     @NotBlank
     @Size(max = 120)
     private String password;
@@ -0,0 +1,40 @@
+package com.medease.entity;
+
+public enum VitalSign {
+    WEIGHT, HEIGHT, HEART_RATE, BLOOD_PRESSURE_SYSTOLIC, BLOOD_PRESSURE_DIASTOLIC,
+    BLOOD_SUGAR, CHOLESTEROL, TEMPERATURE, BMI;
+
+    public Double extract(HealthMetrics metrics) {
+        switch (this) {
+            case WEIGHT: return metrics.getWeight();
+            case HEIGHT: return metrics.getHeight();
+            case HEART_RATE: return toDouble(metrics.getHeartRate());
+            case BLOOD_PRESSURE_SYSTOLIC: return toDouble(metrics.getBloodPressureSystolic());
+            case BLOOD_PRESSURE_DIASTOLIC: return toDouble(metrics.getBloodPressureDiastolic());
+            case BLOOD_SUGAR: return metrics.getBloodSugar();
+            case CHOLESTEROL: return metrics.getCholesterol();
+            case TEMPERATURE: return metrics.getTemperature();
+            case BMI: return metrics.getBmi();
+            default: return null;
+        }
+    }
+
+    // BMI is derived from weight and height when the snapshot is saved
+    public void assign(HealthMetrics metrics, double value) {
+        switch (this) {
+            case WEIGHT: metrics.setWeight(value); break;
+            case HEIGHT: metrics.setHeight(value); break;
+            case HEART_RATE: metrics.setHeartRate((int) Math.round(value)); break;
+            case BLOOD_PRESSURE_SYSTOLIC: metrics.setBloodPressureSystolic((int) Math.round(value)); break;
+            case BLOOD_PRESSURE_DIASTOLIC: metrics.setBloodPressureDiastolic((int) Math.round(value)); break;
+            case BLOOD_SUGAR: metrics.setBloodSugar(value); break;
+            case CHOLESTEROL: metrics.setCholesterol(value); break;
+            case TEMPERATURE: metrics.setTemperature(value); break;
+            default: break;
+        }
+    }
+
+    private static Double toDouble(Integer value) {
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.medease.entity;
+
+import jakarta.persistence.*;
+
+// Exact count/sum/min/max plus a quantile sketch (com.medease.timeseries.QuantileSketch)
+// over one patient's readings of one vital sign within a fixed window.
+// bucketStart is epoch seconds (UTC), aligned to the window size.
+@Entity
+@Table(name = "vital_stats_buckets",
+       uniqueConstraints = @UniqueConstraint(name = "uk_vital_stats_buckets", columnNames = {"patient_id", "metric", "bucket_start"}))
+public class VitalStatsBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32, nullable = false)
+    private VitalSign metric;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Long bucketStart;
+
+    @Column(name = "reading_count", nullable = false)
+    private Long count;
+
+    @Column(name = "value_sum", nullable = false)
+    private Double sum;
+
+    @Column(name = "min_value")
+    private Double min;
+
+    @Column(name = "max_value")
+    private Double max;
+
+    @Column(length = 16384)
+    private byte[] sketch;
+
+    // Constructors
+    public VitalStatsBucket() {}
+
+    public VitalStatsBucket(Long patientId, VitalSign metric, Long bucketStart) {
+        this.patientId = patientId;
+        this.metric = metric;
+        this.bucketStart = bucketStart;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public VitalSign getMetric() { return metric; }
+    public void setMetric(VitalSign metric) { this.metric = metric; }
+
+    public Long getBucketStart() { return bucketStart; }
+    public void setBucketStart(Long bucketStart) { this.bucketStart = bucketStart; }
+
+    public Long getCount() { return count; }
+    public void setCount(Long count) { this.count = count; }
+
+    public Double getSum() { return sum; }
+    public void setSum(Double sum) { this.sum = sum; }
+
+    public Double getMin() { return min; }
+    public void setMin(Double min) { this.min = min; }
+
+    public Double getMax() { return max; }
+    public void setMax(Double max) { this.max = max; }
+
+    public byte[] getSketch() { return sketch; }
+    public void setSketch(byte[] sketch) { this.sketch = sketch; }
+}
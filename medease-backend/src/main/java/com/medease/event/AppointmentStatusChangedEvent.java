@@ -0,0 +1,16 @@
+package com.medease.event;
+
+import com.medease.entity.Appointment;
+
+public class AppointmentStatusChangedEvent {
+    private final Long appointmentId;
+    private final Appointment.AppointmentStatus status;
+
+    public AppointmentStatusChangedEvent(Long appointmentId, Appointment.AppointmentStatus status) {
+        this.appointmentId = appointmentId;
+        this.status = status;
+    }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public Appointment.AppointmentStatus getStatus() { return status; }
+}
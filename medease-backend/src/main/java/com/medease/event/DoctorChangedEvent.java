@@ -0,0 +1,16 @@
+package com.medease.event;
+
+import com.medease.entity.Doctor;
+
+public class DoctorChangedEvent {
+    private final Doctor doctor;
+    private final boolean removed;
+
+    public DoctorChangedEvent(Doctor doctor, boolean removed) {
+        this.doctor = doctor;
+        this.removed = removed;
+    }
+
+    public Doctor getDoctor() { return doctor; }
+    public boolean isRemoved() { return removed; }
+}
@@ -0,0 +1,28 @@
+package com.medease.event;
+
+import com.medease.entity.Doctor;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Keeps in-memory doctor indexes in sync with every write, whichever service made it
+@Component
+public class DoctorEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Doctor doctor) {
+        eventPublisher.publishEvent(new DoctorChangedEvent(doctor, false));
+    }
+
+    @PostRemove
+    public void onRemove(Doctor doctor) {
+        eventPublisher.publishEvent(new DoctorChangedEvent(doctor, true));
+    }
+}
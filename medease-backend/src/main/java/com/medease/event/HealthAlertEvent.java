@@ -0,0 +1,21 @@
+package com.medease.event;
+
+import com.medease.alerts.CompiledRules;
+
+import java.time.LocalDateTime;
+
+public class HealthAlertEvent {
+    private final Long patientId;
+    private final CompiledRules.Firing firing;
+    private final LocalDateTime readingTime;
+
+    public HealthAlertEvent(Long patientId, CompiledRules.Firing firing, LocalDateTime readingTime) {
+        this.patientId = patientId;
+        this.firing = firing;
+        this.readingTime = readingTime;
+    }
+
+    public Long getPatientId() { return patientId; }
+    public CompiledRules.Firing getFiring() { return firing; }
+    public LocalDateTime getReadingTime() { return readingTime; }
+}
@@ -0,0 +1,18 @@
+package com.medease.event;
+
+public class PatientChangedEvent {
+    public enum Aspect {
+        REGISTERED, CONDITIONS, HEALTH_METRICS, APPOINTMENTS, MEDICATIONS
+    }
+
+    private final Long patientId;
+    private final Aspect aspect;
+
+    public PatientChangedEvent(Long patientId, Aspect aspect) {
+        this.patientId = patientId;
+        this.aspect = aspect;
+    }
+
+    public Long getPatientId() { return patientId; }
+    public Aspect getAspect() { return aspect; }
+}
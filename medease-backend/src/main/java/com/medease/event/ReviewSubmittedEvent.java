@@ -0,0 +1,14 @@
+package com.medease.event;
+
+public class ReviewSubmittedEvent {
+    private final Long doctorId;
+    private final int rating;
+
+    public ReviewSubmittedEvent(Long doctorId, int rating) {
+        this.doctorId = doctorId;
+        this.rating = rating;
+    }
+
+    public Long getDoctorId() { return doctorId; }
+    public int getRating() { return rating; }
+}
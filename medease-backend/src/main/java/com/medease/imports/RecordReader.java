@@ -0,0 +1,232 @@
+package com.medease.imports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Pulls one record at a time from a CSV (RFC 4180, header row) or NDJSON
+// stream. Field names are normalized to lower case without separators, so
+// "first_name", "First Name" and "firstName" all read as "firstname".
+public abstract class RecordReader {
+
+    protected int recordNumber;
+
+    public static RecordReader csv(Reader reader) {
+        return new CsvRecordReader(reader);
+    }
+
+    public static RecordReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new NdjsonRecordReader(reader, objectMapper);
+    }
+
+    // Returns null at the end of the input; a malformed record throws MalformedRecordException
+    public abstract Map<String, String> next() throws IOException;
+
+    // 1-based data record number of the record last returned (the CSV header is not counted)
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+
+    public static String normalize(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static class MalformedRecordException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class CsvRecordReader extends RecordReader {
+        private final Reader reader;
+        private List<String> header;
+        private int pending = -2;
+        // Input read back after an unterminated quoted field
+        private String replay;
+        private int replayPosition;
+
+        private CsvRecordReader(Reader reader) {
+            this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader, 64 * 1024);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                List<String> names = readRow();
+                if (names == null) {
+                    return null;
+                }
+                header = new ArrayList<>(names.size());
+                for (String name : names) {
+                    header.add(normalize(name));
+                }
+            }
+            List<String> row;
+            do {
+                try {
+                    row = readRow();
+                } catch (MalformedRecordException e) {
+                    recordNumber++;
+                    throw e;
+                }
+                if (row == null) {
+                    return null;
+                }
+            } while (row.size() == 1 && row.get(0).isEmpty());
+            recordNumber++;
+            if (row.size() != header.size()) {
+                throw new MalformedRecordException("Expected " + header.size() + " fields but found " + row.size());
+            }
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < row.size(); i++) {
+                record.put(header.get(i), row.get(i));
+            }
+            return record;
+        }
+
+        // Quoted fields may contain commas, doubled quotes and line breaks. A quote
+        // still open at the end of the input fails its own row only: the rows after
+        // the field's first line break are read again.
+        private List<String> readRow() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            StringBuilder afterBreak = null;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        if (afterBreak != null) {
+                            replay = afterBreak.toString();
+                            replayPosition = 0;
+                        }
+                        throw new MalformedRecordException("Unterminated quoted field");
+                    }
+                    if (afterBreak != null) {
+                        afterBreak.append((char) c);
+                    } else if (c == '\n' || c == '\r') {
+                        afterBreak = new StringBuilder();
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                            if (afterBreak != null) {
+                                afterBreak.append('"');
+                            }
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == ',') {
+                    fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            unread(following);
+                        }
+                    }
+                    fields.add(wasQuoted ? field.toString() : field.toString().trim());
+                    return fields;
+                } else if (c == '"' && field.toString().isBlank()) {
+                    field.setLength(0);
+                    quoted = true;
+                    wasQuoted = true;
+                    afterBreak = null;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            if (replay != null) {
+                if (replayPosition < replay.length()) {
+                    return replay.charAt(replayPosition++);
+                }
+                replay = null;
+            }
+            return reader.read();
+        }
+
+        private void unread(int c) {
+            pending = c;
+        }
+    }
+
+    private static final class NdjsonRecordReader extends RecordReader {
+        private final BufferedReader reader;
+        private final ObjectMapper objectMapper;
+
+        private NdjsonRecordReader(Reader reader, ObjectMapper objectMapper) {
+            this.reader = new BufferedReader(reader, 64 * 1024);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            recordNumber++;
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException e) {
+                throw new MalformedRecordException("Invalid JSON");
+            }
+            if (node == null || !node.isObject()) {
+                throw new MalformedRecordException("Each line must be a JSON object");
+            }
+            Map<String, String> record = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                JsonNode value = field.getValue();
+                if (!value.isNull()) {
+                    record.put(normalize(field.getKey()), value.isValueNode() ? value.asText() : value.toString());
+                }
+            }
+            return record;
+        }
+    }
+}
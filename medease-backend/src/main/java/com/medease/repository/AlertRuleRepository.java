@@ -0,0 +1,15 @@
+package com.medease.repository;
+
+import com.medease.entity.AlertRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertRuleRepository extends JpaRepository<AlertRule, Long> {
+
+    List<AlertRule> findByEnabledTrueOrderByIdAsc();
+
+    boolean existsByName(String name);
+}
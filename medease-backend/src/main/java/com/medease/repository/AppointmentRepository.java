@@ -1,22 +1,31 @@
 package com.medease.repository;
 
 import com.medease.entity.Appointment;
+import com.medease.web.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     List<Appointment> findByPatientId(Long patientId);
     
     List<Appointment> findByDoctorId(Long doctorId);
+
+    boolean existsByDoctorIdAndPatientId(Long doctorId, Long patientId);
     
     @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId AND a.appointmentDate >= :startDate ORDER BY a.appointmentDate ASC")
     List<Appointment> findUpcomingAppointmentsByPatient(@Param("patientId") Long patientId, @Param("startDate") LocalDateTime startDate);
+
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.doctor d JOIN FETCH d.user " +
+           "WHERE a.patient.id = :patientId AND a.appointmentDate >= :startDate ORDER BY a.appointmentDate ASC")
+    List<Appointment> findUpcomingWithDoctorByPatient(@Param("patientId") Long patientId, @Param("startDate") LocalDateTime startDate);
     
     @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDate >= :startDate ORDER BY a.appointmentDate ASC")
     List<Appointment> findUpcomingAppointmentsByDoctor(@Param("doctorId") Long doctorId, @Param("startDate") LocalDateTime startDate);
@@ -29,4 +38,32 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     
     @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentDate BETWEEN :startDate AND :endDate AND a.status != 'CANCELLED'")
     List<Appointment> findByDoctorIdAndDateRange(@Param("doctorId") Long doctorId, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
-}
\ No newline at end of file
+
+    @Query("SELECT a.doctor.id, a.appointmentDate FROM Appointment a WHERE a.appointmentDate BETWEEN :startDate AND :endDate AND a.status != 'CANCELLED' ORDER BY a.appointmentDate ASC")
+    List<Object[]> findBookedSlotsBetweenDates(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT a.patient.id, a.appointmentDate FROM Appointment a WHERE a.status NOT IN ('CANCELLED', 'NO_SHOW')")
+    List<Object[]> findKeptAppointmentDates();
+
+    @Query("SELECT a.patient.id, a.appointmentDate FROM Appointment a WHERE a.patient.id = :patientId AND a.status NOT IN ('CANCELLED', 'NO_SHOW')")
+    List<Object[]> findKeptAppointmentDatesByPatientId(@Param("patientId") Long patientId);
+
+    // An appointment is serialized with its doctor and patient, so their edits change its version too
+    @Query("SELECT new com.medease.web.ResourceVersion(a.updatedAt, d.updatedAt, du.updatedAt, pu.updatedAt, 1L) " +
+           "FROM Appointment a JOIN a.doctor d JOIN d.user du JOIN a.patient p JOIN p.user pu WHERE a.id = :appointmentId")
+    Optional<ResourceVersion> findVersionById(@Param("appointmentId") Long appointmentId);
+
+    @Query("SELECT new com.medease.web.ResourceVersion(MAX(a.updatedAt), MAX(d.updatedAt), MAX(du.updatedAt), MAX(pu.updatedAt), COUNT(a)) " +
+           "FROM Appointment a JOIN a.doctor d JOIN d.user du JOIN a.patient p JOIN p.user pu WHERE pu.id = :userId")
+    ResourceVersion findVersionByPatientUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.medease.web.ResourceVersion(MAX(a.updatedAt), MAX(d.updatedAt), MAX(du.updatedAt), MAX(pu.updatedAt), COUNT(a)) " +
+           "FROM Appointment a JOIN a.doctor d JOIN d.user du JOIN a.patient p JOIN p.user pu WHERE pu.id = :userId AND a.appointmentDate >= :startDate")
+    ResourceVersion findUpcomingVersionByPatientUserId(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
+
+    @Query("SELECT a.id, a.patient.id, a.doctor.id, a.type, a.status FROM Appointment a WHERE a.id = :appointmentId")
+    List<Object[]> findParticipantsById(@Param("appointmentId") Long appointmentId);
+
+    @Query("SELECT a.id FROM Appointment a WHERE a.id IN :appointmentIds AND a.status NOT IN ('SCHEDULED', 'CONFIRMED', 'IN_PROGRESS')")
+    List<Long> findEndedIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+}
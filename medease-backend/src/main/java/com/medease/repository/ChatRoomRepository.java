@@ -0,0 +1,26 @@
+package com.medease.repository;
+
+import com.medease.entity.ChatRoom;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
+
+    Optional<ChatRoom> findByPatientIdAndDoctorId(Long patientId, Long doctorId);
+
+    // Rows of {room, doctor first name, doctor last name, specialty}
+    @Query("SELECT r, u.firstName, u.lastName, d.specialty FROM ChatRoom r, Doctor d JOIN d.user u " +
+           "WHERE d.id = r.doctorId AND r.patientId = :patientId AND r.isActive = true")
+    List<Object[]> findPatientRooms(@Param("patientId") Long patientId);
+
+    // Rows of {room, patient first name, patient last name}
+    @Query("SELECT r, u.firstName, u.lastName FROM ChatRoom r, Patient p JOIN p.user u " +
+           "WHERE p.id = r.patientId AND r.doctorId = :doctorId AND r.isActive = true")
+    List<Object[]> findDoctorRooms(@Param("doctorId") Long doctorId);
+}
@@ -1,31 +1,67 @@
 package com.medease.repository;
 
 import com.medease.entity.Doctor;
+import com.medease.web.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     Optional<Doctor> findByUserId(Long userId);
+
+    @Query("SELECT d.id FROM Doctor d WHERE d.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
     
     List<Doctor> findBySpecialtyContainingIgnoreCase(String specialty);
     
     List<Doctor> findByIsAvailableTrue();
+
+    List<Doctor> findByLatitudeIsNotNullAndLongitudeIsNotNull();
+
+    // Scalar columns only: scoring never materializes Doctor or User entities
+    @Query("SELECT d.id, d.rating, d.totalReviews, d.consultationFee, d.experienceYears FROM Doctor d " +
+           "WHERE d.isAvailable = true AND (:specialty IS NULL OR LOWER(d.specialty) LIKE LOWER(CONCAT('%', :specialty, '%')))")
+    List<Object[]> findRecommendationCandidates(@Param("specialty") String specialty);
     
     @Query("SELECT d FROM Doctor d WHERE d.specialty LIKE %:specialty% AND d.isAvailable = true")
     List<Doctor> findAvailableDoctorsBySpecialty(@Param("specialty") String specialty);
     
     @Query("SELECT d FROM Doctor d JOIN FETCH d.user WHERE d.id = :doctorId")
     Optional<Doctor> findByIdWithUser(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT d FROM Doctor d JOIN FETCH d.user u WHERE u.id IN :userIds")
+    List<Doctor> findByUserIdInWithUser(@Param("userIds") Collection<Long> userIds);
     
     @Query("SELECT d FROM Doctor d JOIN d.user u WHERE " +
            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
            "LOWER(d.specialty) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<Doctor> findByUserFirstNameContainingIgnoreCaseOrUserLastNameContainingIgnoreCaseOrSpecialtyContainingIgnoreCase(@Param("query") String query1, @Param("query") String query2, @Param("query") String query3);
-}
\ No newline at end of file
+
+    // Applied in place so concurrent flushes and profile edits never lose an update
+    @Modifying
+    @Query("UPDATE Doctor d SET " +
+           "d.rating = (COALESCE(d.rating, 0) * COALESCE(d.totalReviews, 0) + :ratingSum) / (COALESCE(d.totalReviews, 0) + :reviewCount), " +
+           "d.totalReviews = COALESCE(d.totalReviews, 0) + :reviewCount, " +
+           "d.updatedAt = :now " +
+           "WHERE d.id = :doctorId")
+    int addRatings(@Param("doctorId") Long doctorId, @Param("ratingSum") double ratingSum,
+                   @Param("reviewCount") int reviewCount, @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.medease.web.ResourceVersion(MAX(d.updatedAt), MAX(u.updatedAt), COUNT(d)) FROM Doctor d JOIN d.user u")
+    ResourceVersion findDirectoryVersion();
+
+    @Query("SELECT new com.medease.web.ResourceVersion(d.updatedAt, u.updatedAt, 1L) FROM Doctor d JOIN d.user u WHERE d.id = :doctorId")
+    Optional<ResourceVersion> findVersionById(@Param("doctorId") Long doctorId);
+
+    @Query("SELECT d.id, d.user.id FROM Doctor d WHERE d.user.id IN :userIds")
+    List<Object[]> findIdAndUserIdByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,26 @@
+package com.medease.repository;
+
+import com.medease.entity.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    List<ExportJob> findAllByOrderByCreatedAtDesc();
+
+    List<ExportJob> findByStatusIn(List<ExportJob.Status> statuses);
+
+    // Partitions finish concurrently, so progress is added in the database rather than read-modify-written
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.completedPartitions = j.completedPartitions + 1, " +
+           "j.exportedPatients = j.exportedPatients + :patients, j.bytesWritten = j.bytesWritten + :bytes WHERE j.id = :id")
+    int addProgress(@Param("id") Long id, @Param("patients") long patients, @Param("bytes") long bytes);
+}
@@ -0,0 +1,13 @@
+package com.medease.repository;
+
+import com.medease.entity.HealthAlert;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HealthAlertRepository extends JpaRepository<HealthAlert, Long> {
+
+    Page<HealthAlert> findByPatientIdOrderByCreatedAtDesc(Long patientId, Pageable pageable);
+}
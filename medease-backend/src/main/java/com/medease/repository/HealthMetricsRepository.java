@@ -1,9 +1,13 @@
 package com.medease.repository;
 
 import com.medease.entity.HealthMetrics;
+import com.medease.web.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,12 @@ public interface HealthMetricsRepository extends JpaRepository<HealthMetrics, Lo
     Optional<HealthMetrics> findByPatientId(Long patientId);
     
     boolean existsByPatientId(Long patientId);
+
+    // Column projection, so the eager patient association is never loaded
+    @Query("SELECT h.patient.id, h.weight, h.height, h.heartRate, h.bloodPressureSystolic, h.bloodPressureDiastolic, " +
+           "h.bloodSugar, h.cholesterol, h.temperature, h.bmi FROM HealthMetrics h")
+    List<Object[]> findAllValues();
+
+    @Query("SELECT new com.medease.web.ResourceVersion(h.lastUpdated) FROM HealthMetrics h WHERE h.patient.user.id = :userId")
+    Optional<ResourceVersion> findVersionByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
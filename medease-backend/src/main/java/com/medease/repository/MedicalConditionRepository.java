@@ -1,7 +1,10 @@
 package com.medease.repository;
 
 import com.medease.entity.MedicalCondition;
+import com.medease.web.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,13 @@ public interface MedicalConditionRepository extends JpaRepository<MedicalConditi
     List<MedicalCondition> findByPatientId(Long patientId);
     
     List<MedicalCondition> findByPatientIdAndIsActiveTrue(Long patientId);
+
+    @Query("SELECT c.patient.id, c.name, c.icd10Code FROM MedicalCondition c WHERE c.isActive = true")
+    List<Object[]> findActiveConditionKeys();
+
+    @Query("SELECT c.patient.id, c.name, c.icd10Code FROM MedicalCondition c WHERE c.patient.id = :patientId AND c.isActive = true")
+    List<Object[]> findActiveConditionKeysByPatientId(@Param("patientId") Long patientId);
+
+    @Query("SELECT new com.medease.web.ResourceVersion(MAX(c.updatedAt), COUNT(c)) FROM MedicalCondition c WHERE c.patient.user.id = :userId")
+    ResourceVersion findVersionByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.medease.repository;
+
+import com.medease.entity.MedicalDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MedicalDocumentRepository extends JpaRepository<MedicalDocument, Long> {
+
+    List<MedicalDocument> findByPatientIdOrderByUploadedAtDesc(Long patientId);
+
+    List<MedicalDocument> findByPatientIdAndCategoryOrderByUploadedAtDesc(Long patientId, MedicalDocument.Category category);
+
+    Optional<MedicalDocument> findByIdAndPatientId(Long id, Long patientId);
+
+    @Query("SELECT d.patient.id FROM MedicalDocument d WHERE d.id = :id")
+    Optional<Long> findPatientIdById(@Param("id") Long id);
+
+    // Blobs are shared between identical uploads and removed with their last reference
+    long countBySha256(String sha256);
+}
@@ -0,0 +1,24 @@
+package com.medease.repository;
+
+import com.medease.entity.MedicationEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MedicationEntryRepository extends JpaRepository<MedicationEntry, Long> {
+
+    List<MedicationEntry> findByPatientIdAndActiveTrueOrderByStartDateDesc(Long patientId);
+
+    @Query("SELECT e.medicationCode FROM MedicationEntry e WHERE e.patientId = :patientId AND e.active = true")
+    List<String> findActiveCodesByPatientId(@Param("patientId") Long patientId);
+
+    List<MedicationEntry> findByAppointmentId(Long appointmentId);
+
+    List<MedicationEntry> findByConditionIdAndActiveTrue(Long conditionId);
+
+    List<MedicationEntry> findByAppointmentIdAndActiveTrue(Long appointmentId);
+}
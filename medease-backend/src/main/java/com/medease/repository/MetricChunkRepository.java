@@ -0,0 +1,30 @@
+package com.medease.repository;
+
+import com.medease.entity.MetricChunk;
+import com.medease.entity.VitalSign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MetricChunkRepository extends JpaRepository<MetricChunk, Long> {
+
+    @Query("SELECT c FROM MetricChunk c WHERE c.patientId = :patientId AND c.metric = :metric " +
+           "AND c.endTime >= :startTime AND c.startTime <= :endTime ORDER BY c.startTime ASC")
+    List<MetricChunk> findOverlapping(@Param("patientId") Long patientId, @Param("metric") VitalSign metric,
+                                      @Param("startTime") long startTime, @Param("endTime") long endTime);
+
+    @Query("SELECT MAX(c.endTime) FROM MetricChunk c WHERE c.patientId = :patientId AND c.metric = :metric")
+    Long findLatestEndTime(@Param("patientId") Long patientId, @Param("metric") VitalSign metric);
+
+    @Query("SELECT c.patientId, c.metric FROM MetricChunk c WHERE c.pointCount < :pointCount " +
+           "GROUP BY c.patientId, c.metric HAVING COUNT(c) > 1")
+    List<Object[]> findSeriesWithSmallChunks(@Param("pointCount") int pointCount);
+
+    @Query("SELECT c.id, c.pointCount FROM MetricChunk c WHERE c.patientId = :patientId AND c.metric = :metric " +
+           "ORDER BY c.startTime ASC, c.id ASC")
+    List<Object[]> findSizes(@Param("patientId") Long patientId, @Param("metric") VitalSign metric);
+}
@@ -0,0 +1,27 @@
+package com.medease.repository;
+
+import com.medease.entity.MetricPoint;
+import com.medease.entity.VitalSign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MetricPointRepository extends JpaRepository<MetricPoint, Long> {
+
+    List<MetricPoint> findByPatientIdAndMetricOrderByTimestampAscIdAsc(Long patientId, VitalSign metric);
+
+    List<MetricPoint> findByPatientIdAndMetricAndTimestampBetweenOrderByTimestampAscIdAsc(
+            Long patientId, VitalSign metric, Long startTime, Long endTime);
+
+    @Query("SELECT DISTINCT p.patientId, p.metric FROM MetricPoint p WHERE p.timestamp < :cutoff")
+    List<Object[]> findSeriesOlderThan(@Param("cutoff") long cutoff);
+
+    @Modifying
+    @Query("DELETE FROM MetricPoint p WHERE p.patientId = :patientId AND p.metric = :metric")
+    int deleteSeries(@Param("patientId") Long patientId, @Param("metric") VitalSign metric);
+}
@@ -1,20 +1,44 @@
 package com.medease.repository;
 
 import com.medease.entity.Patient;
+import com.medease.web.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     
     Optional<Patient> findByUserId(Long userId);
+
+    @Query("SELECT p.id FROM Patient p WHERE p.user.id = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
     
     @Query("SELECT p FROM Patient p WHERE p.user.email = :email")
     Optional<Patient> findByUserEmail(@Param("email") String email);
     
     boolean existsByUserId(Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT p.id FROM Patient p")
+    List<Long> findAllIds();
+
+    @Query("SELECT p.id FROM Patient p WHERE p.user.id IN :userIds")
+    List<Long> findIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT MIN(p.id) FROM Patient p")
+    Long findMinId();
+
+    @Query("SELECT MAX(p.id) FROM Patient p")
+    Long findMaxId();
+
+    @Query("SELECT new com.medease.web.ResourceVersion(u.updatedAt) FROM Patient p JOIN p.user u WHERE u.id = :userId")
+    Optional<ResourceVersion> findProfileVersionByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT p.id, p.user.id FROM Patient p WHERE p.user.id IN :userIds")
+    List<Object[]> findIdAndUserIdByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
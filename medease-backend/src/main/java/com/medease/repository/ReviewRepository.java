@@ -0,0 +1,16 @@
+package com.medease.repository;
+
+import com.medease.entity.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    @Query("SELECT r FROM Review r WHERE r.doctor.id = :doctorId ORDER BY r.createdAt DESC")
+    Page<Review> findByDoctorIdOrderByCreatedAtDesc(@Param("doctorId") Long doctorId, Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.medease.repository;
+
+import com.medease.entity.VitalSign;
+import com.medease.entity.VitalStatsBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VitalStatsBucketRepository extends JpaRepository<VitalStatsBucket, Long> {
+
+    List<VitalStatsBucket> findByPatientIdAndMetricAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+            Long patientId, VitalSign metric, Long bucketStart);
+
+    @Modifying
+    @Query("UPDATE VitalStatsBucket b SET b.count = :count, b.sum = :sum, b.min = :min, b.max = :max, " +
+           "b.sketch = :sketch WHERE b.id = :bucketId")
+    int updateStats(@Param("bucketId") Long bucketId, @Param("count") long count, @Param("sum") double sum,
+                    @Param("min") double min, @Param("max") double max, @Param("sketch") byte[] sketch);
+
+    @Modifying
+    @Query("DELETE FROM VitalStatsBucket b WHERE b.bucketStart < :bucketStart")
+    int deleteOlderThan(@Param("bucketStart") long bucketStart);
+}
@@ -16,6 +16,9 @@ public class UserPrincipal implements UserDetails {
     private String email;
     private String password;
     private Collection<? extends GrantedAuthority> authorities;
+    // Profile ids resolved when the principal is loaded; null when the user has no such profile
+    private Long patientId;
+    private Long doctorId;
 
     public UserPrincipal(Long id, String firstName, String lastName, String email, String password,
                         Collection<? extends GrantedAuthority> authorities) {
@@ -83,4 +86,23 @@ public class UserPrincipal implements UserDetails {
     public String getFirstName() { return firstName; }
     public String getLastName() { return lastName; }
     public String getEmail() { return email; }
+    public Long getPatientId() { return patientId; }
+    public Long getDoctorId() { return doctorId; }
+
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Long requirePatientId() {
+        if (patientId == null) {
+            throw new RuntimeException("Patient not found");
+        }
+        return patientId;
+    }
+
+    public Long requireDoctorId() {
+        if (doctorId == null) {
+            throw new RuntimeException("Doctor not found");
+        }
+        return doctorId;
+    }
 }
\ No newline at end of file
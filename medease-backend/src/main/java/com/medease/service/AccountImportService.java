@@ -0,0 +1,477 @@
+package com.medease.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.dto.ImportResponse;
+import com.medease.entity.Doctor;
+import com.medease.entity.Role;
+import com.medease.entity.User;
+import com.medease.event.DoctorChangedEvent;
+import com.medease.event.PatientChangedEvent;
+import com.medease.imports.RecordReader;
+import com.medease.repository.DoctorRepository;
+import com.medease.repository.PatientRepository;
+import com.medease.repository.RoleRepository;
+import com.medease.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Imports doctor or patient accounts from a CSV or NDJSON stream. Rows are
+// validated as they are read and grouped into chunks. A chunk's passwords are
+// hashed on a dedicated pool while the previous chunk is inserted with JDBC
+// batches in its own transaction, so at most two chunks are held at once.
+// A failure part way through stops the import and is reported alongside the
+// results of the chunks that had already committed.
+@Service
+public class AccountImportService {
+
+    public enum Kind {
+        DOCTORS, PATIENTS
+    }
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (first_name, last_name, email, phone, password, date_of_birth, gender, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_PATIENT = "INSERT INTO patients (user_id) VALUES (?)";
+    private static final String INSERT_DOCTOR =
+            "INSERT INTO doctors (user_id, specialty, qualifications, experience_years, hospital_affiliation, latitude, longitude, " +
+            "license_number, consultation_fee, bio, rating, total_reviews, is_available, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${medease.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${medease.import.hash-threads:0}")
+    private int configuredHashThreads;
+
+    private int hashThreads;
+    private ExecutorService hashPool;
+
+    @PostConstruct
+    public void start() {
+        hashThreads = configuredHashThreads > 0 ? configuredHashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        hashPool = Executors.newFixedThreadPool(hashThreads, runnable -> {
+            Thread thread = new Thread(runnable, "import-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        hashPool.shutdownNow();
+    }
+
+    public ImportResponse importAccounts(Kind kind, Format format, InputStream body) {
+        long started = System.nanoTime();
+        ImportResponse response = new ImportResponse(kind.name(), hashThreads);
+        Role role = roleRepository.findByName(kind == Kind.DOCTORS ? Role.RoleName.ROLE_DOCTOR : Role.RoleName.ROLE_PATIENT)
+                .orElseThrow(() -> new RuntimeException("Role not found"));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        RecordReader records = format == Format.CSV ? RecordReader.csv(reader) : RecordReader.ndjson(reader, objectMapper);
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> rows = new ArrayList<>(batchSize);
+        Chunk hashing = null;
+        AtomicLong hashNanos = new AtomicLong();
+        try {
+            while (true) {
+                Map<String, String> record;
+                try {
+                    record = records.next();
+                } catch (RecordReader.MalformedRecordException e) {
+                    response.setRows(response.getRows() + 1);
+                    response.reject(records.getRecordNumber(), null, e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    break;
+                }
+                response.setRows(response.getRows() + 1);
+
+                Row row;
+                try {
+                    row = parse(kind, records.getRecordNumber(), record);
+                } catch (IllegalArgumentException e) {
+                    response.reject(records.getRecordNumber(), record.get("email"), e.getMessage());
+                    continue;
+                }
+                if (!seenEmails.add(row.user.getEmail().toLowerCase(Locale.ROOT))) {
+                    response.reject(row.number, row.user.getEmail(), "Duplicate email in this file");
+                    continue;
+                }
+                rows.add(row);
+                if (rows.size() >= batchSize) {
+                    Chunk previous = hashing;
+                    hashing = startHashing(rows, records.getRecordNumber(), response, hashNanos);
+                    if (previous != null) {
+                        insert(previous, kind, role, response, transaction);
+                    }
+                    rows = new ArrayList<>(batchSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                Chunk previous = hashing;
+                hashing = startHashing(rows, records.getRecordNumber(), response, hashNanos);
+                if (previous != null) {
+                    insert(previous, kind, role, response, transaction);
+                }
+            }
+            if (hashing != null) {
+                insert(hashing, kind, role, response, transaction);
+                hashing = null;
+            }
+            response.setCompletedThrough(records.getRecordNumber());
+        } catch (IOException | RuntimeException e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.toString();
+            response.setError("Import stopped after row " + response.getCompletedThrough() + ": " + message
+                    + "; later rows not listed in errors were not imported");
+        } finally {
+            if (hashing != null) {
+                hashing.cancel();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        response.setElapsedMs(elapsedNanos / 1_000_000);
+        response.setHashingMs(hashNanos.get() / 1_000_000);
+        response.setRowsPerSecond(elapsedNanos > 0 ? Math.round(response.getRows() * 1e9 / elapsedNanos) : 0);
+        return response;
+    }
+
+    // Accounts that already exist are rejected before any hashing is spent on them
+    private Chunk startHashing(List<Row> rows, int throughRow, ImportResponse response, AtomicLong hashNanos) {
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+                rows.stream().map(row -> row.user.getEmail()).collect(Collectors.toList())));
+        List<Row> fresh = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (existing.contains(row.user.getEmail())) {
+                response.reject(row.number, row.user.getEmail(), "Email is already registered");
+            } else {
+                fresh.add(row);
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>(hashThreads);
+        int sliceSize = Math.max(1, (fresh.size() + hashThreads - 1) / hashThreads);
+        for (int from = 0; from < fresh.size(); from += sliceSize) {
+            List<Row> slice = fresh.subList(from, Math.min(from + sliceSize, fresh.size()));
+            futures.add(hashPool.submit(() -> {
+                long sliceStarted = System.nanoTime();
+                for (Row row : slice) {
+                    row.user.setPassword(passwordEncoder.encode(row.user.getPassword()));
+                }
+                hashNanos.addAndGet(System.nanoTime() - sliceStarted);
+            }));
+        }
+        return new Chunk(fresh, throughRow, futures);
+    }
+
+    private void insert(Chunk chunk, Kind kind, Role role, ImportResponse response, TransactionTemplate transaction) {
+        chunk.await();
+        List<Row> rows = chunk.rows;
+        if (rows.isEmpty()) {
+            response.setCompletedThrough(chunk.throughRow);
+            return;
+        }
+        long insertStarted = System.nanoTime();
+        try {
+            transaction.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.batchUpdate(INSERT_USER, rows, rows.size(), (statement, row) -> {
+                    User user = row.user;
+                    statement.setString(1, user.getFirstName());
+                    statement.setString(2, user.getLastName());
+                    statement.setString(3, user.getEmail());
+                    statement.setString(4, user.getPhone());
+                    statement.setString(5, user.getPassword());
+                    statement.setDate(6, user.getDateOfBirth() != null ? Date.valueOf(user.getDateOfBirth()) : null);
+                    statement.setString(7, user.getGender() != null ? user.getGender().name() : null);
+                    statement.setTimestamp(8, now);
+                    statement.setTimestamp(9, now);
+                });
+
+                Map<String, Long> userIds = new HashMap<>();
+                for (Object[] idAndEmail : userRepository.findIdsByEmailIn(
+                        rows.stream().map(row -> row.user.getEmail()).collect(Collectors.toList()))) {
+                    userIds.put((String) idAndEmail[1], (Long) idAndEmail[0]);
+                }
+                for (Row row : rows) {
+                    row.user.setId(userIds.get(row.user.getEmail()));
+                }
+
+                jdbcTemplate.batchUpdate(INSERT_USER_ROLE, rows, rows.size(), (statement, row) -> {
+                    statement.setLong(1, row.user.getId());
+                    statement.setLong(2, role.getId());
+                });
+
+                // Rows written over JDBC skip the entity listeners, so the indexes are told directly
+                if (kind == Kind.DOCTORS) {
+                    jdbcTemplate.batchUpdate(INSERT_DOCTOR, rows, rows.size(), (statement, row) -> {
+                        Doctor doctor = row.doctor;
+                        statement.setLong(1, row.user.getId());
+                        statement.setString(2, doctor.getSpecialty());
+                        statement.setString(3, doctor.getQualifications());
+                        statement.setObject(4, doctor.getExperienceYears(), Types.INTEGER);
+                        statement.setString(5, doctor.getHospitalAffiliation());
+                        statement.setObject(6, doctor.getLatitude(), Types.DOUBLE);
+                        statement.setObject(7, doctor.getLongitude(), Types.DOUBLE);
+                        statement.setString(8, doctor.getLicenseNumber());
+                        statement.setBigDecimal(9, doctor.getConsultationFee());
+                        statement.setString(10, doctor.getBio());
+                        statement.setDouble(11, 0.0);
+                        statement.setInt(12, 0);
+                        statement.setBoolean(13, doctor.getIsAvailable());
+                        statement.setTimestamp(14, now);
+                        statement.setTimestamp(15, now);
+                    });
+                    for (Doctor doctor : doctorRepository.findByUserIdInWithUser(userIds.values())) {
+                        eventPublisher.publishEvent(new DoctorChangedEvent(doctor, false));
+                    }
+                } else {
+                    jdbcTemplate.batchUpdate(INSERT_PATIENT, rows, rows.size(),
+                            (statement, row) -> statement.setLong(1, row.user.getId()));
+                    for (Long patientId : patientRepository.findIdsByUserIdIn(userIds.values())) {
+                        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.REGISTERED));
+                    }
+                }
+            });
+            response.setImported(response.getImported() + rows.size());
+        } catch (DuplicateKeyException e) {
+            // Another registration took one of these emails after the pre-check; the whole chunk rolled back
+            for (Row row : rows) {
+                response.reject(row.number, row.user.getEmail(), "Not imported: an email in this batch was registered concurrently, retry the row");
+            }
+        }
+        response.setInsertMs(response.getInsertMs() + (System.nanoTime() - insertStarted) / 1_000_000);
+        response.setCompletedThrough(chunk.throughRow);
+    }
+
+    private Row parse(Kind kind, int number, Map<String, String> record) {
+        User user = new User(text(record, "firstName"), text(record, "lastName"), text(record, "email"),
+                text(record, "phone"), text(record, "password"));
+        user.setDateOfBirth(date(record, "dateOfBirth"));
+        String gender = text(record, "gender");
+        if (gender != null) {
+            try {
+                user.setGender(User.Gender.valueOf(gender.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("gender must be MALE, FEMALE or OTHER");
+            }
+        }
+
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (user.getPassword().length() < 6) {
+            throw new IllegalArgumentException("password must be between 6 and 120 characters");
+        }
+
+        Doctor doctor = null;
+        if (kind == Kind.DOCTORS) {
+            String specialty = limited(record, "specialty");
+            if (specialty == null) {
+                throw new IllegalArgumentException("specialty is required");
+            }
+            doctor = new Doctor(user, specialty);
+            doctor.setQualifications(limited(record, "qualifications"));
+            doctor.setHospitalAffiliation(limited(record, "hospitalAffiliation"));
+            doctor.setLicenseNumber(limited(record, "licenseNumber"));
+            doctor.setBio(limited(record, "bio"));
+            Double experience = number(record, "experienceYears", 0, 80);
+            if (experience != null && experience != Math.floor(experience)) {
+                throw new IllegalArgumentException("experienceYears must be a whole number");
+            }
+            doctor.setExperienceYears(experience != null ? experience.intValue() : null);
+            doctor.setLatitude(number(record, "latitude", -90, 90));
+            doctor.setLongitude(number(record, "longitude", -180, 180));
+            if ((doctor.getLatitude() == null) != (doctor.getLongitude() == null)) {
+                throw new IllegalArgumentException("latitude and longitude must be given together");
+            }
+            Double fee = number(record, "consultationFee", 0, 100_000);
+            doctor.setConsultationFee(fee != null ? BigDecimal.valueOf(fee).setScale(2, RoundingMode.HALF_UP) : null);
+            String available = text(record, "isAvailable");
+            if (available != null && !available.equalsIgnoreCase("true") && !available.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("isAvailable must be true or false");
+            }
+            doctor.setIsAvailable(available == null || Boolean.parseBoolean(available));
+        }
+        return new Row(number, user, doctor);
+    }
+
+    private static String text(Map<String, String> record, String field) {
+        String value = record.get(RecordReader.normalize(field));
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Doctor columns are plain VARCHAR(255)
+    private static String limited(Map<String, String> record, String field) {
+        String value = text(record, field);
+        if (value != null && value.length() > 255) {
+            throw new IllegalArgumentException(field + " must be at most 255 characters");
+        }
+        return value;
+    }
+
+    private static LocalDate date(Map<String, String> record, String field) {
+        String value = text(record, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(value);
+            if (date.isAfter(LocalDate.now())) {
+                throw new IllegalArgumentException(field + " is in the future");
+            }
+            return date;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " must be an ISO date (yyyy-MM-dd)");
+        }
+    }
+
+    private static Double number(Map<String, String> record, String field, double min, double max) {
+        String value = text(record, field);
+        if (value == null) {
+            return null;
+        }
+        double parsed;
+        try {
+            parsed = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " must be a number");
+        }
+        if (Double.isNaN(parsed) || parsed < min || parsed > max) {
+            throw new IllegalArgumentException(field + " must be between " + (long) min + " and " + (long) max);
+        }
+        return parsed;
+    }
+
+    private static final class Row {
+        private final int number;
+        private final User user;
+        private final Doctor doctor;
+
+        private Row(int number, User user, Doctor doctor) {
+            this.number = number;
+            this.user = user;
+            this.doctor = doctor;
+        }
+    }
+
+    private static final class Chunk {
+        private final List<Row> rows;
+        // Record number of the last row read before the chunk was formed
+        private final int throughRow;
+        private final List<Future<?>> hashes;
+
+        private Chunk(List<Row> rows, int throughRow, List<Future<?>> hashes) {
+            this.rows = rows;
+            this.throughRow = throughRow;
+            this.hashes = hashes;
+        }
+
+        private void await() {
+            try {
+                for (Future<?> hash : hashes) {
+                    hash.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new RuntimeException("Import interrupted");
+            } catch (ExecutionException e) {
+                cancel();
+                throw new RuntimeException("Password hashing failed", e.getCause());
+            }
+        }
+
+        private void cancel() {
+            for (Future<?> hash : hashes) {
+                hash.cancel(true);
+            }
+        }
+    }
+}
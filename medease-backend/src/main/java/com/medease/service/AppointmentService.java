@@ -3,10 +3,14 @@ package com.medease.service;
 import com.medease.entity.Appointment;
 import com.medease.entity.Doctor;
 import com.medease.entity.Patient;
+import com.medease.event.AppointmentStatusChangedEvent;
+import com.medease.event.PatientChangedEvent;
 import com.medease.repository.AppointmentRepository;
 import com.medease.repository.DoctorRepository;
 import com.medease.repository.PatientRepository;
+import com.medease.web.ResourceVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +20,9 @@ import java.util.List;
 @Service
 public class AppointmentService {
 
+    // Two appointments for the same doctor must be further apart than this
+    public static final long CONFLICT_WINDOW_MINUTES = 30;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -25,6 +32,9 @@ public class AppointmentService {
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public Appointment bookAppointment(Long patientId, Long doctorId, LocalDateTime appointmentDate, 
                                      String reason, Appointment.AppointmentType type) {
@@ -42,8 +52,8 @@ public class AppointmentService {
         // Check for conflicting appointments
         List<Appointment> conflictingAppointments = appointmentRepository
                 .findByDoctorIdAndDateRange(doctorId, 
-                    appointmentDate.minusMinutes(30), 
-                    appointmentDate.plusMinutes(30));
+                    appointmentDate.minusMinutes(CONFLICT_WINDOW_MINUTES), 
+                    appointmentDate.plusMinutes(CONFLICT_WINDOW_MINUTES));
         
         if (!conflictingAppointments.isEmpty()) {
             throw new RuntimeException("Doctor is not available at this time");
@@ -57,7 +67,9 @@ public class AppointmentService {
         appointment.setType(type);
         appointment.setStatus(Appointment.AppointmentStatus.SCHEDULED);
 
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.APPOINTMENTS));
+        return saved;
     }
 
     public List<Appointment> getPatientAppointments(Long patientId) {
@@ -81,7 +93,10 @@ public class AppointmentService {
     public Appointment updateAppointmentStatus(Long appointmentId, Appointment.AppointmentStatus status) {
         Appointment appointment = getAppointmentById(appointmentId);
         appointment.setStatus(status);
-        return appointmentRepository.save(appointment);
+        Appointment saved = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new PatientChangedEvent(appointment.getPatient().getId(), PatientChangedEvent.Aspect.APPOINTMENTS));
+        eventPublisher.publishEvent(new AppointmentStatusChangedEvent(appointmentId, status));
+        return saved;
     }
 
     @Transactional
@@ -89,6 +104,21 @@ public class AppointmentService {
         Appointment appointment = getAppointmentById(appointmentId);
         appointment.setStatus(Appointment.AppointmentStatus.CANCELLED);
         appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new PatientChangedEvent(appointment.getPatient().getId(), PatientChangedEvent.Aspect.APPOINTMENTS));
+        eventPublisher.publishEvent(new AppointmentStatusChangedEvent(appointmentId, Appointment.AppointmentStatus.CANCELLED));
+    }
+
+    public ResourceVersion getAppointmentVersion(Long appointmentId) {
+        return appointmentRepository.findVersionById(appointmentId)
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+    }
+
+    public ResourceVersion getPatientAppointmentsVersion(Long userId) {
+        return appointmentRepository.findVersionByPatientUserId(userId);
+    }
+
+    public ResourceVersion getUpcomingPatientAppointmentsVersion(Long userId) {
+        return appointmentRepository.findUpcomingVersionByPatientUserId(userId, LocalDateTime.now());
     }
 
     @Transactional
@@ -6,12 +6,14 @@ import com.medease.dto.RegisterRequest;
 import com.medease.entity.Patient;
 import com.medease.entity.Role;
 import com.medease.entity.User;
+import com.medease.event.PatientChangedEvent;
 import com.medease.repository.PatientRepository;
 import com.medease.repository.RoleRepository;
 import com.medease.repository.UserRepository;
 import com.medease.security.JwtUtils;
 import com.medease.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -45,6 +47,9 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public AuthResponse register(RegisterRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -72,7 +77,8 @@ public class AuthService {
 
         // Create patient profile
         Patient patient = new Patient(savedUser);
-        patientRepository.save(patient);
+        Patient savedPatient = patientRepository.save(patient);
+        eventPublisher.publishEvent(new PatientChangedEvent(savedPatient.getId(), PatientChangedEvent.Aspect.REGISTERED));
 
         // Generate JWT token
         String jwt = jwtUtils.generateJwtToken(savedUser.getEmail());
@@ -0,0 +1,341 @@
+package com.medease.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.broker.BrokerRelay;
+import com.medease.chat.ChatChannel;
+import com.medease.chat.ChatConnection;
+import com.medease.chat.ChatLog;
+import com.medease.dto.ChatMessage;
+import com.medease.dto.ChatRoomSummary;
+import com.medease.entity.ChatRoom;
+import com.medease.repository.AppointmentRepository;
+import com.medease.repository.ChatRoomRepository;
+import com.medease.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Patient-doctor chat. Rooms are rows; messages live in the room's segmented
+// log and everything live (subscribers, sequence numbers, recent history) sits
+// in a ChatChannel per room, loaded on first use and evicted once idle.
+// Outbound frames go through each connection's bounded queue and are written
+// by a small shared writer pool, so a publisher never blocks on a socket.
+// Live frames are also published through the BrokerRelay, which is the
+// in-process one (see BrokerConfig).
+@Service
+public class ChatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BrokerRelay brokerRelay;
+
+    @Value("${medease.chat.history-size:200}")
+    private int historySize;
+
+    @Value("${medease.chat.max-message-length:4000}")
+    private int maxMessageLength;
+
+    @Value("${medease.chat.writer-threads:4}")
+    private int writerThreads;
+
+    @Value("${medease.chat.send-queue-frames:256}")
+    private int sendQueueFrames;
+
+    @Value("${medease.chat.send-queue-bytes:1048576}")
+    private long sendQueueBytes;
+
+    @Value("${medease.chat.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${medease.chat.log.directory:${java.io.tmpdir}/medease-chat}")
+    private String logDirectory;
+
+    @Value("${medease.chat.log.segment-bytes:8388608}")
+    private long segmentBytes;
+
+    @Value("${medease.chat.log.index-interval-bytes:4096}")
+    private int indexIntervalBytes;
+
+    @Value("${medease.chat.log.retention-days:2555}")
+    private int retentionDays;
+
+    @Value("${medease.chat.idle-room-minutes:10}")
+    private long idleRoomMinutes;
+
+    private final Map<Long, ChatChannel> channels = new ConcurrentHashMap<>();
+    private ExecutorService writer;
+    private ChatLog chatLog;
+
+    @PostConstruct
+    public void start() throws IOException {
+        chatLog = new ChatLog(Paths.get(logDirectory), segmentBytes, indexIntervalBytes);
+        AtomicInteger counter = new AtomicInteger();
+        // A connection has at most one drain task queued, so the queue is bounded by the number of connections
+        writer = new ThreadPoolExecutor(writerThreads, writerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chat-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        brokerRelay.start(this::onRelayed);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        writer.shutdownNow();
+        chatLog.close();
+        for (ChatChannel channel : channels.values()) {
+            try {
+                channel.retire();
+            } catch (IOException e) {
+                logger.warn("Sealing chat room {} failed: {}", channel.getRoomId(), e.getMessage());
+            }
+        }
+    }
+
+    // Rooms nobody has used for a while give up their open segment and memory; the next
+    // join reloads the recent history from the log
+    @Scheduled(fixedDelayString = "${medease.chat.idle-sweep-ms:60000}")
+    public void evictIdleRooms() {
+        long idleSince = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleRoomMinutes);
+        for (ChatChannel channel : channels.values()) {
+            try {
+                if (channel.retireIfIdle(idleSince)) {
+                    channels.remove(channel.getRoomId(), channel);
+                }
+            } catch (IOException e) {
+                logger.warn("Sealing chat room {} failed: {}", channel.getRoomId(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${medease.chat.log.maintenance-cron:0 15 4 * * *}")
+    public void maintainLogs() throws IOException {
+        long retainAfter = retentionDays > 0
+                ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays) : 0;
+        int deleted = 0;
+        int merged = 0;
+        for (Long roomId : chatLog.roomIds()) {
+            ChatRoom room = chatRoomRepository.findById(roomId).orElse(null);
+            if (room == null) {
+                continue;
+            }
+            int[] result = withChannel(room, channel -> {
+                try {
+                    return channel.maintain(retainAfter);
+                } catch (IOException e) {
+                    logger.warn("Chat log maintenance of room {} failed: {}", roomId, e.getMessage());
+                    return new int[2];
+                }
+            });
+            deleted += result[0];
+            merged += result[1];
+        }
+        logger.info("Chat log maintenance deleted {} expired and merged {} small segments", deleted, merged);
+    }
+
+    // Either side may open the room, but only once they have had an appointment together
+    public ChatRoom openRoom(Long patientId, Long doctorId) {
+        ChatRoom existing = chatRoomRepository.findByPatientIdAndDoctorId(patientId, doctorId).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        if (!appointmentRepository.existsByDoctorIdAndPatientId(doctorId, patientId)) {
+            throw new RuntimeException("Chat requires an appointment with this doctor");
+        }
+        try {
+            return chatRoomRepository.save(new ChatRoom(patientId, doctorId));
+        } catch (DataIntegrityViolationException e) {
+            // The other participant opened it at the same moment
+            return chatRoomRepository.findByPatientIdAndDoctorId(patientId, doctorId)
+                    .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        }
+    }
+
+    public List<ChatRoomSummary> getRooms(UserPrincipal principal) {
+        List<ChatRoomSummary> rooms = new ArrayList<>();
+        if (principal.getPatientId() != null) {
+            for (Object[] row : chatRoomRepository.findPatientRooms(principal.getPatientId())) {
+                ChatRoom room = (ChatRoom) row[0];
+                rooms.add(summary(room, row[1] + " " + row[2], (String) row[3]));
+            }
+        }
+        if (principal.getDoctorId() != null) {
+            for (Object[] row : chatRoomRepository.findDoctorRooms(principal.getDoctorId())) {
+                ChatRoom room = (ChatRoom) row[0];
+                rooms.add(summary(room, row[1] + " " + row[2], null));
+            }
+        }
+        return rooms;
+    }
+
+    // Without `before` the newest messages come from memory; paging further back reads the log
+    public List<ChatMessage> getMessages(UserPrincipal principal, Long roomId, Long before, int limit) {
+        ChatRoom room = requireParticipant(principal, roomId);
+        int capped = Math.max(1, Math.min(limit, historySize));
+        return withChannel(room, channel -> before == null ? channel.recent(capped) : channel.readBefore(before, capped));
+    }
+
+    public ChatConnection connect(WebSocketSession session, UserPrincipal principal) {
+        // Bounds how long a writer thread can be stuck on a client that stopped reading
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session standard = nativeSession.getNativeSession(Session.class);
+            if (standard != null) {
+                standard.getUserProperties().put("org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT", sendTimeoutMs);
+            }
+        }
+        return new ChatConnection(session, principal, writer, sendQueueFrames, sendQueueBytes);
+    }
+
+    public void join(ChatConnection connection, Long roomId) {
+        ChatRoom room = requireParticipant(connection.getPrincipal(), roomId);
+        connection.getRooms().add(roomId);
+        withChannel(room, channel -> channel.join(connection, historySize) ? Boolean.TRUE : null);
+    }
+
+    public void leave(ChatConnection connection, Long roomId) {
+        connection.getRooms().remove(roomId);
+        ChatChannel channel = channels.get(roomId);
+        if (channel != null) {
+            channel.leave(connection);
+        }
+    }
+
+    public ChatMessage send(ChatConnection connection, Long roomId, String content, String clientId) {
+        if (!connection.getRooms().contains(roomId)) {
+            throw new RuntimeException("Join the room before sending");
+        }
+        if (content == null || content.isBlank()) {
+            throw new RuntimeException("Message is empty");
+        }
+        if (content.length() > maxMessageLength) {
+            throw new RuntimeException("Message is longer than " + maxMessageLength + " characters");
+        }
+        if (clientId != null && clientId.length() > 64) {
+            throw new RuntimeException("Client id is too long");
+        }
+        ChatRoom room = requireParticipant(connection.getPrincipal(), roomId);
+        UserPrincipal sender = connection.getPrincipal();
+        boolean fromDoctor = sender.getDoctorId() != null && sender.getDoctorId().equals(room.getDoctorId());
+        ChatMessage message = new ChatMessage(roomId, sender.getId(),
+                sender.getFirstName() + " " + sender.getLastName(), fromDoctor, content, clientId);
+        message.setTimestamp(LocalDateTime.now());
+        return withChannel(room, channel -> channel.publish(message));
+    }
+
+    // Frames for a room that is not loaded have nobody to go to and are dropped
+    public void broadcast(Long roomId, TextMessage frame) {
+        ChatChannel channel = channels.get(roomId);
+        if (channel != null) {
+            channel.broadcast(frame);
+        }
+    }
+
+    public void disconnect(ChatConnection connection) {
+        connection.closed();
+        for (Long roomId : connection.getRooms()) {
+            leave(connection, roomId);
+        }
+    }
+
+    public String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize chat frame", e);
+        }
+    }
+
+    // A channel is subscribed to its topic only while it has subscribers, and so is loaded
+    private void onRelayed(String topic, String payload) {
+        ChatChannel channel = channels.get(Long.valueOf(topic.substring(topic.lastIndexOf('.') + 1)));
+        if (channel != null) {
+            channel.broadcastLocal(new TextMessage(payload));
+        }
+    }
+
+    private ChatRoomSummary summary(ChatRoom room, String participantName, String specialty) {
+        ChatRoomSummary summary = new ChatRoomSummary(room.getId(), room.getPatientId(), room.getDoctorId(),
+                participantName, specialty);
+        ChatChannel channel = channels.get(room.getId());
+        if (channel != null) {
+            summary.setLastMessage(channel.lastMessage());
+        }
+        return summary;
+    }
+
+    // A loaded channel already knows its participants, so only rooms not in memory cost a query
+    private ChatRoom requireParticipant(UserPrincipal principal, Long roomId) {
+        ChatChannel channel = channels.get(roomId);
+        ChatRoom room;
+        if (channel != null) {
+            room = new ChatRoom(channel.getPatientId(), channel.getDoctorId());
+            room.setId(roomId);
+        } else {
+            room = chatRoomRepository.findById(roomId)
+                    .filter(found -> Boolean.TRUE.equals(found.getIsActive()))
+                    .orElseThrow(() -> new RuntimeException("Chat room not found"));
+        }
+        boolean participant = (principal.getPatientId() != null && principal.getPatientId().equals(room.getPatientId()))
+                || (principal.getDoctorId() != null && principal.getDoctorId().equals(room.getDoctorId()));
+        if (!participant) {
+            throw new RuntimeException("Chat room not found");
+        }
+        return room;
+    }
+
+    // Runs the action on the room's live channel. A channel retired by the idle sweep
+    // answers null, and the action is retried on a freshly loaded one.
+    private <T> T withChannel(ChatRoom room, Function<ChatChannel, T> action) {
+        while (true) {
+            ChatChannel channel = channels.computeIfAbsent(room.getId(), id -> {
+                try {
+                    return ChatChannel.open(id, room.getPatientId(), room.getDoctorId(), historySize, objectMapper, chatLog, brokerRelay);
+                } catch (IOException e) {
+                    throw new RuntimeException("Chat room could not be loaded", e);
+                }
+            });
+            T result = action.apply(channel);
+            if (result != null) {
+                return result;
+            }
+            channels.remove(room.getId(), channel);
+        }
+    }
+}
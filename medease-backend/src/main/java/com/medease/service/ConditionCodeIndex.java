@@ -0,0 +1,156 @@
+package com.medease.service;
+
+import com.medease.codes.CodeTable;
+import com.medease.dto.ConditionCode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+// ICD-10 code lookup for condition autocomplete. The code file is compiled
+// once into a sorted table on disk and memory-mapped, so a restart only
+// checksums the source and maps the table, and keystrokes never reach the
+// database. Codes are keyed without the dot, so "E119" and "e11.9" both match.
+@Component
+public class ConditionCodeIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ConditionCodeIndex.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${medease.conditions.codes:classpath:data/icd10-codes.csv}")
+    private String sourceLocation;
+
+    @Value("${medease.conditions.code-table:${java.io.tmpdir}/medease-icd10.idx}")
+    private String tableLocation;
+
+    private CodeTable table;
+
+    @PostConstruct
+    public void load() throws IOException {
+        long checksum = checksumSource();
+        Path path = Paths.get(tableLocation);
+        table = CodeTable.open(path, checksum);
+        if (table != null) {
+            logger.info("Mapped {} ICD-10 codes from {}", table.size(), path);
+            return;
+        }
+        CodeTable.write(path, readSource(), checksum);
+        table = CodeTable.open(path, checksum);
+        if (table == null) {
+            throw new IllegalStateException("Could not map ICD-10 code table at " + path);
+        }
+        logger.info("Built ICD-10 code table with {} codes at {}", table.size(), path);
+    }
+
+    // A query that starts like a code ("I1", "e11.") matches code prefixes,
+    // anything else is matched against the descriptions
+    public List<ConditionCode> suggest(String query, int limit) {
+        String key = key(query);
+        List<CodeTable.Entry> entries;
+        if (key.isEmpty() || looksLikeCode(key)) {
+            entries = table.withPrefix(key, limit);
+        } else {
+            entries = table.descriptionContains(query.trim().toLowerCase(Locale.ROOT), limit);
+        }
+        return entries.stream().map(ConditionCodeIndex::toConditionCode).collect(Collectors.toList());
+    }
+
+    public ConditionCode find(String code) {
+        if (code == null) {
+            return null;
+        }
+        String key = key(code);
+        CodeTable.Entry entry = key.isEmpty() ? null : table.get(key);
+        return entry != null ? toConditionCode(entry) : null;
+    }
+
+    public ConditionCode require(String code) {
+        ConditionCode conditionCode = find(code);
+        if (conditionCode == null) {
+            throw new RuntimeException("Unknown ICD-10 code: " + code);
+        }
+        return conditionCode;
+    }
+
+    private long checksumSource() throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        try (InputStream in = resourceLoader.getResource(sourceLocation).getInputStream()) {
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private TreeMap<String, String> readSource() throws IOException {
+        TreeMap<String, String> entries = new TreeMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                resourceLoader.getResource(sourceLocation).getInputStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine(); // header
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // The description is free text and may contain commas
+                String[] row = line.split(",", 2);
+                String key = row.length == 2 ? key(row[0]) : "";
+                if (key.isEmpty()) {
+                    logger.warn("Skipping malformed ICD-10 row: {}", line);
+                    continue;
+                }
+                entries.put(key, row[1].trim());
+            }
+        }
+        return entries;
+    }
+
+    private static String key(String code) {
+        if (code == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(code.length());
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c != '.' && !Character.isWhitespace(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean looksLikeCode(String key) {
+        if (key.length() > 7 || key.charAt(0) < 'A' || key.charAt(0) > 'Z') {
+            return false;
+        }
+        if (key.length() == 1) {
+            return true;
+        }
+        char second = key.charAt(1);
+        return second >= '0' && second <= '9';
+    }
+
+    private static ConditionCode toConditionCode(CodeTable.Entry entry) {
+        String key = entry.getKey();
+        String code = key.length() > 3 ? key.substring(0, 3) + "." + key.substring(3) : key;
+        return new ConditionCode(code, entry.getDescription());
+    }
+}
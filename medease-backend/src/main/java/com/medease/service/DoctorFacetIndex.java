@@ -0,0 +1,242 @@
+package com.medease.service;
+
+import com.medease.entity.Doctor;
+import com.medease.event.DoctorChangedEvent;
+import com.medease.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// One bitset per facet value over dense doctor ordinals. Filtering is bitset
+// intersection (OR within a facet, AND across facets) and counts are popcounts
+// of each value's bitset against the filtered set. A removed doctor's ordinal
+// goes on a free list and is handed to the next new doctor, so the bitsets
+// stay as wide as the largest number of doctors indexed at once.
+@Component
+public class DoctorFacetIndex {
+
+    public static final String SPECIALTY = "specialty";
+    public static final String FEE_BAND = "feeBand";
+    public static final String EXPERIENCE_BAND = "experienceBand";
+    public static final String AVAILABILITY = "availability";
+
+    public static final List<String> FACETS = List.of(SPECIALTY, FEE_BAND, EXPERIENCE_BAND, AVAILABILITY);
+
+    private static final int[] FEE_BOUNDS = {100, 200, 300};
+    private static final int[] EXPERIENCE_BOUNDS = {5, 10, 20};
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<String, BitSet>> facets = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<Integer, Map<String, String>> valuesByOrdinal = new HashMap<>();
+    private final List<Long> doctorIds = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    public DoctorFacetIndex() {
+        for (String facet : FACETS) {
+            facets.put(facet, new TreeMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Doctor doctor : doctorRepository.findAll()) {
+            put(doctor);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.isRemoved()) {
+            remove(event.getDoctor().getId());
+        } else {
+            put(event.getDoctor());
+        }
+    }
+
+    public void put(Doctor doctor) {
+        Map<String, String> values = new HashMap<>();
+        values.put(SPECIALTY, doctor.getSpecialty() != null ? doctor.getSpecialty().trim() : "Unspecified");
+        values.put(FEE_BAND, feeBand(doctor.getConsultationFee()));
+        values.put(EXPERIENCE_BAND, experienceBand(doctor.getExperienceYears()));
+        values.put(AVAILABILITY, Boolean.TRUE.equals(doctor.getIsAvailable()) ? "available" : "unavailable");
+
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(doctor.getId());
+            if (ordinal == null) {
+                ordinal = freeOrdinals.poll();
+                if (ordinal == null) {
+                    ordinal = doctorIds.size();
+                    doctorIds.add(doctor.getId());
+                } else {
+                    doctorIds.set(ordinal, doctor.getId());
+                }
+                ordinals.put(doctor.getId(), ordinal);
+            } else {
+                clearValues(ordinal);
+            }
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                facets.get(value.getKey()).computeIfAbsent(value.getValue(), key -> new BitSet()).set(ordinal);
+            }
+            valuesByOrdinal.put(ordinal, values);
+            live.set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long doctorId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(doctorId);
+            if (ordinal != null) {
+                clearValues(ordinal);
+                valuesByOrdinal.remove(ordinal);
+                live.clear(ordinal);
+                doctorIds.set(ordinal, null);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Counts for each facet are taken with every other facet's filter applied,
+    // so selecting a specialty still shows the counts of the other specialties.
+    public Result search(Map<String, Set<String>> filters, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selections = new HashMap<>();
+            for (String facet : FACETS) {
+                Set<String> selected = filters.get(facet);
+                if (selected != null && !selected.isEmpty()) {
+                    selections.put(facet, union(facets.get(facet), selected));
+                }
+            }
+
+            BitSet matching = (BitSet) live.clone();
+            selections.values().forEach(matching::and);
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = (BitSet) live.clone();
+                selections.forEach((other, selection) -> {
+                    if (!other.equals(facet)) {
+                        base.and(selection);
+                    }
+                });
+                Map<String, Integer> facetCounts = new LinkedHashMap<>();
+                for (Map.Entry<String, BitSet> value : facets.get(facet).entrySet()) {
+                    BitSet intersection = (BitSet) value.getValue().clone();
+                    intersection.and(base);
+                    int count = intersection.cardinality();
+                    if (count > 0) {
+                        facetCounts.put(value.getKey(), count);
+                    }
+                }
+                counts.put(facet, facetCounts);
+            }
+
+            List<Long> page = new ArrayList<>();
+            long position = 0;
+            for (int ordinal = matching.nextSetBit(0); ordinal >= 0 && page.size() < limit; ordinal = matching.nextSetBit(ordinal + 1)) {
+                if (position++ >= offset) {
+                    page.add(doctorIds.get(ordinal));
+                }
+            }
+            return new Result(counts, matching.cardinality(), page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clearValues(int ordinal) {
+        Map<String, String> previous = valuesByOrdinal.get(ordinal);
+        if (previous == null) {
+            return;
+        }
+        previous.forEach((facet, value) -> {
+            BitSet bits = facets.get(facet).get(value);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    facets.get(facet).remove(value);
+                }
+            }
+        });
+    }
+
+    private static BitSet union(Map<String, BitSet> values, Set<String> selected) {
+        BitSet union = new BitSet();
+        values.forEach((value, bits) -> {
+            for (String candidate : selected) {
+                if (candidate.equalsIgnoreCase(value)) {
+                    union.or(bits);
+                }
+            }
+        });
+        return union;
+    }
+
+    static String feeBand(BigDecimal fee) {
+        if (fee == null) {
+            return "unknown";
+        }
+        return band(fee.intValue(), FEE_BOUNDS);
+    }
+
+    static String experienceBand(Integer years) {
+        if (years == null) {
+            return "unknown";
+        }
+        return band(years, EXPERIENCE_BOUNDS);
+    }
+
+    private static String band(int value, int[] bounds) {
+        int lower = 0;
+        for (int bound : bounds) {
+            if (value < bound) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+
+    public static class Result {
+        private final Map<String, Map<String, Integer>> counts;
+        private final int total;
+        private final List<Long> doctorIds;
+
+        public Result(Map<String, Map<String, Integer>> counts, int total, List<Long> doctorIds) {
+            this.counts = counts;
+            this.total = total;
+            this.doctorIds = doctorIds;
+        }
+
+        public Map<String, Map<String, Integer>> getCounts() { return counts; }
+        public int getTotal() { return total; }
+        public List<Long> getDoctorIds() { return doctorIds; }
+    }
+}
@@ -0,0 +1,217 @@
+package com.medease.service;
+
+import com.medease.entity.Doctor;
+import com.medease.event.DoctorChangedEvent;
+import com.medease.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Uniform lat/lon grid over doctor locations. Nearest-neighbour queries visit
+// rings of cells around the query point and stop once no unvisited cell can
+// hold anything closer than the current k-th result.
+@Component
+public class DoctorLocationIndex {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double MAX_LATITUDE = 89.9;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Value("${medease.geo.cell-size-degrees:0.1}")
+    private double cellSizeDegrees;
+
+    private final Map<Long, Map<Long, Location>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Location> byDoctor = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Doctor doctor : doctorRepository.findByLatitudeIsNotNullAndLongitudeIsNotNull()) {
+            put(doctor);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.isRemoved()) {
+            remove(event.getDoctor().getId());
+        } else {
+            put(event.getDoctor());
+        }
+    }
+
+    public synchronized void put(Doctor doctor) {
+        if (doctor.getLatitude() == null || doctor.getLongitude() == null) {
+            remove(doctor.getId());
+            return;
+        }
+        Location location = new Location(doctor.getId(), doctor.getLatitude(), doctor.getLongitude(),
+                doctor.getSpecialty() != null ? doctor.getSpecialty().toLowerCase() : "");
+        Location previous = byDoctor.put(location.doctorId, location);
+        if (previous != null && previous.cell != location.cell) {
+            removeFromCell(previous);
+        }
+        cells.computeIfAbsent(location.cell, key -> new ConcurrentHashMap<>()).put(location.doctorId, location);
+    }
+
+    public synchronized void remove(Long doctorId) {
+        Location previous = byDoctor.remove(doctorId);
+        if (previous != null) {
+            removeFromCell(previous);
+        }
+    }
+
+    public List<Match> findNearest(double latitude, double longitude, double radiusKm, String specialty, int limit) {
+        String specialtyFilter = specialty != null && !specialty.isBlank() ? specialty.toLowerCase() : null;
+        double clampedLatitude = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        int centerRow = row(clampedLatitude);
+        int centerColumn = column(longitude);
+
+        // Rings grow by one cell height north-south and by the same distance east-west,
+        // which takes more columns the narrower cells get towards the poles; the
+        // narrowest row in range decides how many
+        double maxLatitude = Math.min(MAX_LATITUDE, Math.abs(clampedLatitude) + radiusKm / KM_PER_DEGREE);
+        double ringStepKm = cellSizeDegrees * KM_PER_DEGREE;
+        double columnsPerRing = 1.0 / Math.cos(Math.toRadians(maxLatitude));
+        int maxRing = (int) Math.min(Math.ceil(radiusKm / ringStepKm), rows());
+        int maxSpan = columns() / 2;
+
+        PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::getDistanceKm).reversed());
+        // Once the span covers every column, wrapped columns would repeat cells
+        Set<Long> visited = new HashSet<>();
+        int previousSpan = -1;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (best.size() == limit && best.peek().distanceKm <= (ring - 1) * ringStepKm) {
+                break;
+            }
+            int span = (int) Math.min(Math.ceil(ring * columnsPerRing), maxSpan);
+            for (int dRow = -ring; dRow <= ring; dRow++) {
+                int row = centerRow + dRow;
+                if (row < 0 || row >= rows()) {
+                    continue;
+                }
+                for (int dColumn = -span; dColumn <= span; dColumn++) {
+                    if (Math.abs(dRow) < ring && Math.abs(dColumn) <= previousSpan) {
+                        continue;
+                    }
+                    long key = cellKey(row, centerColumn + dColumn);
+                    if (!visited.add(key)) {
+                        continue;
+                    }
+                    Map<Long, Location> cell = cells.get(key);
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Location location : cell.values()) {
+                        if (specialtyFilter != null && !location.specialty.contains(specialtyFilter)) {
+                            continue;
+                        }
+                        double distance = haversineKm(latitude, longitude, location.latitude, location.longitude);
+                        if (distance > radiusKm) {
+                            continue;
+                        }
+                        if (best.size() < limit) {
+                            best.add(new Match(location.doctorId, distance));
+                        } else if (distance < best.peek().distanceKm) {
+                            best.poll();
+                            best.add(new Match(location.doctorId, distance));
+                        }
+                    }
+                }
+            }
+            previousSpan = span;
+        }
+
+        List<Match> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return result;
+    }
+
+    public int size() {
+        return byDoctor.size();
+    }
+
+    private void removeFromCell(Location location) {
+        Map<Long, Location> cell = cells.get(location.cell);
+        if (cell != null) {
+            cell.remove(location.doctorId);
+            if (cell.isEmpty()) {
+                cells.remove(location.cell);
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return Math.min((int) Math.floor((latitude + 90.0) / cellSizeDegrees), rows() - 1);
+    }
+
+    private int rows() {
+        return (int) Math.ceil(180.0 / cellSizeDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    private int columns() {
+        return (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    private long cellKey(int row, int column) {
+        // Wrap around the antimeridian
+        int wrapped = Math.floorMod(column, columns());
+        return ((long) row << 32) | wrapped;
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private final class Location {
+        private final long doctorId;
+        private final double latitude;
+        private final double longitude;
+        private final String specialty;
+        private final long cell;
+
+        private Location(long doctorId, double latitude, double longitude, String specialty) {
+            this.doctorId = doctorId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.specialty = specialty;
+            this.cell = cellKey(row(latitude), column(longitude));
+        }
+    }
+
+    public static class Match {
+        private final long doctorId;
+        private final double distanceKm;
+
+        public Match(long doctorId, double distanceKm) {
+            this.doctorId = doctorId;
+            this.distanceKm = distanceKm;
+        }
+
+        public long getDoctorId() { return doctorId; }
+        public double getDistanceKm() { return distanceKm; }
+    }
+}
@@ -0,0 +1,151 @@
+package com.medease.service;
+
+import com.medease.event.ReviewSubmittedEvent;
+import com.medease.repository.DoctorRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Accumulates submitted review scores in memory and folds them into
+// Doctor.rating/totalReviews in periodic batches, so a popular doctor's row is
+// written once per flush instead of once per review. Each doctor's pending
+// reviews are spread over a few striped cells, picked by thread, so a popular
+// doctor is not one contended word either. A cell packs the sum and count of
+// its reviews into one long, so a review is never split across flushes.
+// Doctors with nothing to flush are retired: their cells are sealed and any
+// review racing with that goes to a fresh set of cells.
+@Component
+public class DoctorRatingAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(DoctorRatingAggregator.class);
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+    private static final long RETIRED = Long.MIN_VALUE;
+    // Cells sit a cache line apart
+    private static final int STRIDE = 8;
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Per cell: sum of scores in the high 32 bits, number of reviews in the low 32 bits
+    private final Map<Long, AtomicLongArray> pending = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener
+    public void onReviewSubmitted(ReviewSubmittedEvent event) {
+        record(event.getDoctorId(), event.getRating());
+    }
+
+    public void record(Long doctorId, int rating) {
+        add(doctorId, rating, 1);
+    }
+
+    public double[] pendingFor(Long doctorId) {
+        AtomicLongArray cells = pending.get(doctorId);
+        long sum = 0;
+        long count = 0;
+        for (int i = 0; cells != null && i < STRIPES; i++) {
+            long packed = cells.get(i * STRIDE);
+            if (packed != RETIRED) {
+                sum += packed >>> 32;
+                count += packed & COUNT_MASK;
+            }
+        }
+        return new double[] {sum, count};
+    }
+
+    @Scheduled(fixedDelayString = "${medease.ratings.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Drained> batch = new ArrayList<>();
+        pending.forEach((doctorId, cells) -> {
+            long sum = 0;
+            long count = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                long packed = cells.getAndSet(i * STRIDE, 0);
+                sum += packed >>> 32;
+                count += packed & COUNT_MASK;
+            }
+            if (count == 0) {
+                // Idle since the last flush; whatever arrives before a cell is sealed is still flushed
+                for (int i = 0; i < STRIPES; i++) {
+                    long packed = cells.getAndSet(i * STRIDE, RETIRED);
+                    sum += packed >>> 32;
+                    count += packed & COUNT_MASK;
+                }
+                pending.remove(doctorId, cells);
+            }
+            if (count != 0) {
+                batch.add(new Drained(doctorId, sum, count));
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                for (Drained drained : batch) {
+                    doctorRepository.addRatings(drained.doctorId, drained.sum, (int) drained.count, now);
+                }
+            });
+            logger.debug("Flushed ratings for {} doctors", batch.size());
+        } catch (Exception e) {
+            logger.error("Failed to flush doctor ratings, will retry: {}", e.getMessage());
+            for (Drained drained : batch) {
+                add(drained.doctorId, drained.sum, drained.count);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void add(Long doctorId, long sum, long count) {
+        long delta = (sum << 32) | count;
+        int cell = stripe() * STRIDE;
+        while (true) {
+            AtomicLongArray cells = pending.computeIfAbsent(doctorId, id -> new AtomicLongArray(STRIPES * STRIDE));
+            long packed = cells.get(cell);
+            if (packed == RETIRED) {
+                pending.remove(doctorId, cells);
+            } else if (cells.compareAndSet(cell, packed, packed + delta)) {
+                return;
+            }
+        }
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+
+    private static final class Drained {
+        private final Long doctorId;
+        private final long sum;
+        private final long count;
+
+        private Drained(Long doctorId, long sum, long count) {
+            this.doctorId = doctorId;
+            this.sum = sum;
+            this.count = count;
+        }
+    }
+}
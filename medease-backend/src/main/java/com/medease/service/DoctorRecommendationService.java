@@ -0,0 +1,190 @@
+package com.medease.service;
+
+import com.medease.dto.DoctorRecommendation;
+import com.medease.entity.Doctor;
+import com.medease.repository.AppointmentRepository;
+import com.medease.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class DoctorRecommendationService {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${medease.recommend.weights.rating:0.35}")
+    private double defaultRatingWeight;
+
+    @Value("${medease.recommend.weights.reviews:0.15}")
+    private double defaultReviewsWeight;
+
+    @Value("${medease.recommend.weights.fee:0.15}")
+    private double defaultFeeWeight;
+
+    @Value("${medease.recommend.weights.experience:0.15}")
+    private double defaultExperienceWeight;
+
+    @Value("${medease.recommend.weights.availability:0.2}")
+    private double defaultAvailabilityWeight;
+
+    @Value("${medease.schedule.start-hour:9}")
+    private int startHour;
+
+    @Value("${medease.schedule.end-hour:17}")
+    private int endHour;
+
+    @Value("${medease.schedule.slot-minutes:30}")
+    private int slotMinutes;
+
+    @Value("${medease.schedule.horizon-days:14}")
+    private int horizonDays;
+
+    public List<DoctorRecommendation> recommend(String specialty, int k, Weights overrides) {
+        Weights weights = new Weights(
+                overrides.rating != null ? overrides.rating : defaultRatingWeight,
+                overrides.reviews != null ? overrides.reviews : defaultReviewsWeight,
+                overrides.fee != null ? overrides.fee : defaultFeeWeight,
+                overrides.experience != null ? overrides.experience : defaultExperienceWeight,
+                overrides.availability != null ? overrides.availability : defaultAvailabilityWeight);
+
+        List<Object[]> rows = doctorRepository.findRecommendationCandidates(
+                specialty != null && !specialty.isBlank() ? specialty.trim() : null);
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusDays(horizonDays);
+        Map<Long, List<LocalDateTime>> booked = new HashMap<>();
+        for (Object[] slot : appointmentRepository.findBookedSlotsBetweenDates(
+                now.minusMinutes(AppointmentService.CONFLICT_WINDOW_MINUTES), horizon)) {
+            booked.computeIfAbsent((Long) slot[0], id -> new ArrayList<>()).add((LocalDateTime) slot[1]);
+        }
+
+        // Normalisation bounds over the candidate set
+        double maxFee = 0;
+        int maxReviews = 0;
+        for (Object[] row : rows) {
+            maxFee = Math.max(maxFee, row[3] != null ? ((BigDecimal) row[3]).doubleValue() : 0);
+            maxReviews = Math.max(maxReviews, row[2] != null ? (Integer) row[2] : 0);
+        }
+        double horizonMinutes = Duration.between(now, horizon).toMinutes();
+
+        // Min-heap of the best k seen so far; anything below its head is discarded
+        PriorityQueue<Scored> top = new PriorityQueue<>(Comparator.comparingDouble(scored -> scored.score));
+        for (Object[] row : rows) {
+            Long doctorId = (Long) row[0];
+            double rating = row[1] != null ? (Double) row[1] : 0;
+            int reviews = row[2] != null ? (Integer) row[2] : 0;
+            double fee = row[3] != null ? ((BigDecimal) row[3]).doubleValue() : maxFee;
+            int experience = row[4] != null ? (Integer) row[4] : 0;
+            LocalDateTime earliest = earliestFreeSlot(booked.getOrDefault(doctorId, List.of()), now, horizon);
+
+            double score = weights.rating * (rating / 5.0)
+                    + weights.reviews * (maxReviews > 0 ? Math.log1p(reviews) / Math.log1p(maxReviews) : 0)
+                    + weights.fee * (maxFee > 0 ? 1.0 - fee / maxFee : 0)
+                    + weights.experience * (Math.min(experience, 30) / 30.0)
+                    + weights.availability * (earliest != null ? 1.0 - Duration.between(now, earliest).toMinutes() / horizonMinutes : 0);
+
+            if (top.size() < k) {
+                top.add(new Scored(doctorId, score, earliest));
+            } else if (score > top.peek().score) {
+                top.poll();
+                top.add(new Scored(doctorId, score, earliest));
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble((Scored scored) -> scored.score).reversed());
+
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(
+                        ranked.stream().map(scored -> scored.doctorId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+
+        return ranked.stream()
+                .filter(scored -> doctors.containsKey(scored.doctorId))
+                .map(scored -> new DoctorRecommendation(doctors.get(scored.doctorId), scored.score, scored.earliestSlot))
+                .collect(Collectors.toList());
+    }
+
+    // Walks working-hour slots forward, skipping any that fall inside the
+    // booking conflict window of an existing appointment. Booked times are sorted.
+    LocalDateTime earliestFreeSlot(List<LocalDateTime> bookedTimes, LocalDateTime from, LocalDateTime until) {
+        LocalDateTime slot = from.truncatedTo(ChronoUnit.HOURS);
+        while (slot.isBefore(from)) {
+            slot = slot.plusMinutes(slotMinutes);
+        }
+
+        int next = 0;
+        while (slot.isBefore(until)) {
+            if (slot.getDayOfWeek() == DayOfWeek.SATURDAY || slot.getDayOfWeek() == DayOfWeek.SUNDAY
+                    || slot.getHour() >= endHour) {
+                slot = slot.toLocalDate().plusDays(1).atTime(startHour, 0);
+                continue;
+            }
+            if (slot.getHour() < startHour) {
+                slot = slot.toLocalDate().atTime(startHour, 0);
+                continue;
+            }
+
+            LocalDateTime windowStart = slot.minusMinutes(AppointmentService.CONFLICT_WINDOW_MINUTES);
+            LocalDateTime windowEnd = slot.plusMinutes(AppointmentService.CONFLICT_WINDOW_MINUTES);
+            while (next < bookedTimes.size() && bookedTimes.get(next).isBefore(windowStart)) {
+                next++;
+            }
+            if (next >= bookedTimes.size() || bookedTimes.get(next).isAfter(windowEnd)) {
+                return slot;
+            }
+            slot = slot.plusMinutes(slotMinutes);
+        }
+        return null;
+    }
+
+    public static class Weights {
+        private final Double rating;
+        private final Double reviews;
+        private final Double fee;
+        private final Double experience;
+        private final Double availability;
+
+        public Weights(Double rating, Double reviews, Double fee, Double experience, Double availability) {
+            this.rating = rating;
+            this.reviews = reviews;
+            this.fee = fee;
+            this.experience = experience;
+            this.availability = availability;
+        }
+    }
+
+    private static final class Scored {
+        private final Long doctorId;
+        private final double score;
+        private final LocalDateTime earliestSlot;
+
+        private Scored(Long doctorId, double score, LocalDateTime earliestSlot) {
+            this.doctorId = doctorId;
+            this.score = score;
+            this.earliestSlot = earliestSlot;
+        }
+    }
+}
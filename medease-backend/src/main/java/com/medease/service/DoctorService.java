@@ -1,13 +1,20 @@
 package com.medease.service;
 
+import com.medease.dto.DoctorFacetResponse;
+import com.medease.dto.NearbyDoctorResponse;
 import com.medease.entity.Doctor;
 import com.medease.repository.DoctorRepository;
+import com.medease.web.ResourceVersion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class DoctorService {
@@ -15,6 +22,12 @@ public class DoctorService {
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private DoctorLocationIndex doctorLocationIndex;
+
+    @Autowired
+    private DoctorFacetIndex doctorFacetIndex;
+
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
@@ -36,6 +49,48 @@ public class DoctorService {
         return doctorRepository.findByIsAvailableTrue();
     }
 
+    public ResourceVersion getDirectoryVersion() {
+        return doctorRepository.findDirectoryVersion();
+    }
+
+    public ResourceVersion getDoctorVersion(Long doctorId) {
+        return doctorRepository.findVersionById(doctorId)
+                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+    }
+
+    public List<NearbyDoctorResponse> findNearbyDoctors(double latitude, double longitude, double radiusKm,
+                                                        String specialty, int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new RuntimeException("Invalid coordinates");
+        }
+        List<DoctorLocationIndex.Match> matches = doctorLocationIndex.findNearest(latitude, longitude, radiusKm, specialty, limit);
+
+        // Only the matched doctors are loaded, in one query
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(
+                        matches.stream().map(DoctorLocationIndex.Match::getDoctorId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+
+        return matches.stream()
+                .filter(match -> doctors.containsKey(match.getDoctorId()))
+                .map(match -> new NearbyDoctorResponse(doctors.get(match.getDoctorId()), match.getDistanceKm()))
+                .collect(Collectors.toList());
+    }
+
+    public DoctorFacetResponse browseDoctors(Map<String, Set<String>> filters, int page, int size) {
+        DoctorFacetIndex.Result result = doctorFacetIndex.search(filters, (long) page * size, size);
+
+        Map<Long, Doctor> doctors = doctorRepository.findAllById(result.getDoctorIds())
+                .stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+        List<Doctor> ordered = result.getDoctorIds().stream()
+                .filter(doctors::containsKey)
+                .map(doctors::get)
+                .collect(Collectors.toList());
+
+        return new DoctorFacetResponse(result.getCounts(), result.getTotal(), ordered);
+    }
+
     public List<Doctor> searchDoctors(String query) {
         return doctorRepository.findByUserFirstNameContainingIgnoreCaseOrUserLastNameContainingIgnoreCaseOrSpecialtyContainingIgnoreCase(
                 query, query, query);
@@ -0,0 +1,188 @@
+package com.medease.service;
+
+import com.medease.documents.BlobStore;
+import com.medease.documents.MultipartStream;
+import com.medease.entity.MedicalDocument;
+import com.medease.repository.AppointmentRepository;
+import com.medease.repository.MedicalDocumentRepository;
+import com.medease.repository.PatientRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+
+// Lab reports and scans uploaded by patients. The multipart body is parsed as
+// it arrives and the file part is streamed to the blob store, so upload size
+// is bounded by disk rather than heap. Documents with identical bytes share a
+// blob, which is deleted together with its last document.
+@Service
+public class DocumentService {
+    private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
+
+    @Autowired
+    private MedicalDocumentRepository documentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${medease.documents.directory:${java.io.tmpdir}/medease-documents}")
+    private String directory;
+
+    @Value("${medease.documents.max-size-bytes:52428800}")
+    private long maxSizeBytes;
+
+    private BlobStore blobStore;
+
+    // Saving and deleting references to the same blob are serialized, so a blob is
+    // never removed while a new document pointing at it is being saved
+    private final Object[] blobLocks = new Object[64];
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (int i = 0; i < blobLocks.length; i++) {
+            blobLocks[i] = new Object();
+        }
+        blobStore = new BlobStore(Paths.get(directory));
+    }
+
+    public MedicalDocument upload(Long patientId, Long uploadedBy, String contentType, InputStream body) throws IOException {
+        String boundary = MultipartStream.boundaryOf(contentType);
+        if (boundary == null) {
+            throw new RuntimeException("Expected a multipart/form-data upload");
+        }
+        MultipartStream multipart = new MultipartStream(body, boundary);
+        MedicalDocument document = new MedicalDocument();
+        BlobStore.Upload upload = null;
+        try {
+            MultipartStream.Part part;
+            while ((part = multipart.nextPart()) != null) {
+                if ("file".equals(part.getName()) && part.isFile()) {
+                    if (upload != null) {
+                        throw new RuntimeException("Only one file can be uploaded per request");
+                    }
+                    upload = blobStore.receive(part.getInputStream(), maxSizeBytes);
+                    document.setOriginalName(fileName(part.getFileName()));
+                    document.setMimeType(mimeType(part.getContentType()));
+                } else if ("category".equals(part.getName())) {
+                    document.setCategory(MedicalDocument.Category.valueOf(part.readString(32).trim().toUpperCase(Locale.ROOT)));
+                } else if ("description".equals(part.getName())) {
+                    String description = part.readString(4000).trim();
+                    if (description.length() > 1000) {
+                        throw new RuntimeException("Description must be at most 1000 characters");
+                    }
+                    document.setDescription(description.isEmpty() ? null : description);
+                }
+            }
+            if (upload == null) {
+                throw new RuntimeException("No file part named \"file\"");
+            }
+            if (upload.getSize() == 0) {
+                throw new RuntimeException("File is empty");
+            }
+
+            document.setPatient(patientRepository.getReferenceById(patientId));
+            document.setSha256(upload.getSha256());
+            document.setSize(upload.getSize());
+            document.setUploadedBy(uploadedBy);
+            synchronized (lockFor(upload.getSha256())) {
+                BlobStore.Upload committed = upload;
+                upload = null;
+                blobStore.commit(committed);
+                try {
+                    return documentRepository.save(document);
+                } catch (RuntimeException e) {
+                    releaseBlob(committed.getSha256());
+                    throw e;
+                }
+            }
+        } finally {
+            if (upload != null) {
+                blobStore.discard(upload);
+            }
+        }
+    }
+
+    public List<MedicalDocument> getPatientDocuments(Long patientId, MedicalDocument.Category category) {
+        if (category != null) {
+            return documentRepository.findByPatientIdAndCategoryOrderByUploadedAtDesc(patientId, category);
+        }
+        return documentRepository.findByPatientIdOrderByUploadedAtDesc(patientId);
+    }
+
+    // A doctor sees the documents of patients they have an appointment with
+    public List<MedicalDocument> getPatientDocumentsForDoctor(Long doctorId, Long patientId, MedicalDocument.Category category) {
+        if (!appointmentRepository.existsByDoctorIdAndPatientId(doctorId, patientId)) {
+            throw new RuntimeException("Patient not found");
+        }
+        return getPatientDocuments(patientId, category);
+    }
+
+    public MedicalDocument getReadableDocument(Long documentId, Long patientId, Long doctorId) {
+        MedicalDocument document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new RuntimeException("Document not found"));
+        Long ownerId = document.getPatient().getId();
+        if (patientId != null && patientId.equals(ownerId)) {
+            return document;
+        }
+        if (doctorId != null && appointmentRepository.existsByDoctorIdAndPatientId(doctorId, ownerId)) {
+            return document;
+        }
+        throw new RuntimeException("Document not found");
+    }
+
+    public Path getContentPath(MedicalDocument document) {
+        return blobStore.path(document.getSha256());
+    }
+
+    public void deleteDocument(Long patientId, Long documentId) {
+        MedicalDocument document = documentRepository.findByIdAndPatientId(documentId, patientId)
+                .orElseThrow(() -> new RuntimeException("Document not found"));
+        synchronized (lockFor(document.getSha256())) {
+            documentRepository.delete(document);
+            releaseBlob(document.getSha256());
+        }
+    }
+
+    private void releaseBlob(String sha256) {
+        if (documentRepository.countBySha256(sha256) == 0) {
+            try {
+                blobStore.delete(sha256);
+            } catch (IOException e) {
+                logger.warn("Could not delete unreferenced blob {}: {}", sha256, e.getMessage());
+            }
+        }
+    }
+
+    private Object lockFor(String sha256) {
+        return blobLocks[Math.floorMod(sha256.hashCode(), blobLocks.length)];
+    }
+
+    // Browsers may send a full client path; only the last segment is kept
+    private static String fileName(String submitted) {
+        String name = submitted.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1).replaceAll("[\\p{Cntrl}\"]", "_").trim();
+        if (name.isEmpty()) {
+            name = "document";
+        }
+        return name.length() > 255 ? name.substring(name.length() - 255) : name;
+    }
+
+    private static String mimeType(String submitted) {
+        if (submitted == null || submitted.isBlank() || submitted.length() > 100) {
+            return "application/octet-stream";
+        }
+        return submitted.trim().toLowerCase(Locale.ROOT);
+    }
+}
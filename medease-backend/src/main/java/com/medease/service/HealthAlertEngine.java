@@ -0,0 +1,175 @@
+package com.medease.service;
+
+import com.medease.alerts.AlertRuleCompiler;
+import com.medease.alerts.CompiledRules;
+import com.medease.alerts.HitWindows;
+import com.medease.entity.AlertRule;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.MedicalCondition;
+import com.medease.event.HealthAlertEvent;
+import com.medease.repository.AlertRuleRepository;
+import com.medease.repository.MedicalConditionRepository;
+import com.medease.timeseries.SeriesCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Evaluates every health-metric update against the compiled alert rules on
+// the caller's thread and hands firings off as events; persisting and
+// notifying happen asynchronously in HealthAlertNotifier. Sliding windows and
+// cooldowns are per-patient state in a SeriesCache, so a reading's effect on
+// them only becomes visible once its transaction commits.
+@Component
+public class HealthAlertEngine {
+    private static final Logger logger = LoggerFactory.getLogger(HealthAlertEngine.class);
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private MedicalConditionRepository medicalConditionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${medease.alerts.cooldown-minutes:60}")
+    private long cooldownMinutes;
+
+    @Value("${medease.alerts.idle-minutes:120}")
+    private long idleMinutes;
+
+    private volatile CompiledRules rules = CompiledRules.EMPTY;
+    private final SeriesCache<PatientState> states = new SeriesCache<>(PatientState::copy);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<AlertRule> valid = new ArrayList<>();
+        for (AlertRule rule : alertRuleRepository.findByEnabledTrueOrderByIdAsc()) {
+            try {
+                AlertRuleCompiler.validate(rule.getExpression());
+                valid.add(rule);
+            } catch (RuntimeException e) {
+                logger.warn("Skipping alert rule {}: {}", rule.getName(), e.getMessage());
+            }
+        }
+        rules = AlertRuleCompiler.compile(valid);
+    }
+
+    // Must run inside the reading's transaction
+    public void evaluate(Long patientId, LocalDateTime recordedAt, HealthMetrics metrics) {
+        CompiledRules current = rules;
+        if (current.getRuleCount() == 0) {
+            return;
+        }
+        PatientState state = states.acquire(String.valueOf(patientId), PatientState::new);
+        long timestamp = recordedAt.toEpochSecond(ZoneOffset.UTC);
+
+        for (CompiledRules.Firing firing : current.evaluate(metrics, timestamp, state.windows,
+                () -> activeConditions(patientId, state))) {
+            // One alert per rule per cooldown, measured in reading time so backfilled uploads behave the same
+            Long last = state.lastFired.get(firing.getRuleId());
+            if (last != null && Math.abs(timestamp - last) < cooldownMinutes * 60) {
+                continue;
+            }
+            state.lastFired.put(firing.getRuleId(), timestamp);
+            eventPublisher.publishEvent(new HealthAlertEvent(patientId, firing, recordedAt));
+        }
+    }
+
+    // Takes effect once the caller's transaction commits, so an evaluation
+    // still seeing the old conditions cannot cache them again afterwards
+    public void invalidateConditions(Long patientId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearConditions(patientId);
+                }
+            });
+        } else {
+            clearConditions(patientId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${medease.alerts.sweep-ms:60000}")
+    public void evictIdle() {
+        states.evictIdle(idleMinutes * 60_000);
+    }
+
+    private void clearConditions(Long patientId) {
+        PatientState state = states.read(String.valueOf(patientId), () -> null);
+        if (state != null) {
+            state.conditions.clear();
+        }
+    }
+
+    private Set<String> activeConditions(Long patientId, PatientState state) {
+        Set<String> names = state.conditions.names;
+        if (names == null) {
+            long version = state.conditions.version;
+            names = medicalConditionRepository.findByPatientIdAndIsActiveTrue(patientId).stream()
+                    .map(MedicalCondition::getName)
+                    .filter(name -> name != null)
+                    .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            state.conditions.set(names, version);
+        }
+        return names;
+    }
+
+    private static final class PatientState {
+        private final HitWindows windows;
+        private final Map<Long, Long> lastFired;
+        // Not transactional, so shared by every copy of the state
+        private final Conditions conditions;
+
+        private PatientState() {
+            this(new HitWindows(), new HashMap<>(), new Conditions());
+        }
+
+        private PatientState(HitWindows windows, Map<Long, Long> lastFired, Conditions conditions) {
+            this.windows = windows;
+            this.lastFired = lastFired;
+            this.conditions = conditions;
+        }
+
+        private PatientState copy() {
+            return new PatientState(windows.copy(), new HashMap<>(lastFired), conditions);
+        }
+    }
+
+    private static final class Conditions {
+        private volatile Set<String> names;
+        private volatile long version;
+
+        // Dropped if the conditions were invalidated while they were being read
+        private synchronized void set(Set<String> names, long readAt) {
+            if (version == readAt) {
+                this.names = names;
+            }
+        }
+
+        private synchronized void clear() {
+            version++;
+            names = null;
+        }
+    }
+}
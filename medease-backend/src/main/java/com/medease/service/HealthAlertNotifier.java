@@ -0,0 +1,35 @@
+package com.medease.service;
+
+import com.medease.entity.HealthAlert;
+import com.medease.event.HealthAlertEvent;
+import com.medease.repository.HealthAlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Runs on the async executor once the reading's transaction has committed,
+// so the metric write never waits on it and a rolled-back write raises nothing.
+@Component
+public class HealthAlertNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(HealthAlertNotifier.class);
+
+    @Autowired
+    private HealthAlertRepository healthAlertRepository;
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHealthAlert(HealthAlertEvent event) {
+        HealthAlert alert = new HealthAlert();
+        alert.setPatientId(event.getPatientId());
+        alert.setRuleId(event.getFiring().getRuleId());
+        alert.setRuleName(event.getFiring().getRuleName());
+        alert.setSeverity(event.getFiring().getSeverity());
+        alert.setMessage(event.getFiring().getMessage());
+        alert.setReadingTime(event.getReadingTime());
+        healthAlertRepository.save(alert);
+        logger.warn("Health alert for patient {}: {}", event.getPatientId(), event.getFiring().getMessage());
+    }
+}
@@ -0,0 +1,79 @@
+package com.medease.service;
+
+import com.medease.alerts.AlertRuleCompiler;
+import com.medease.entity.AlertRule;
+import com.medease.entity.HealthAlert;
+import com.medease.repository.AlertRuleRepository;
+import com.medease.repository.HealthAlertRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class HealthAlertService {
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private HealthAlertRepository healthAlertRepository;
+
+    @Autowired
+    private HealthAlertEngine healthAlertEngine;
+
+    public List<AlertRule> getRules() {
+        return alertRuleRepository.findAll();
+    }
+
+    // Rule changes are saved first and then recompiled, so the engine never sees an uncommitted rule
+    public AlertRule createRule(AlertRule rule) {
+        AlertRuleCompiler.validate(rule.getExpression());
+        if (rule.getName() == null || rule.getName().isBlank()) {
+            throw new RuntimeException("Alert rule name is required");
+        }
+        if (alertRuleRepository.existsByName(rule.getName())) {
+            throw new RuntimeException("Alert rule name is already taken");
+        }
+        rule.setId(null);
+        AlertRule saved = alertRuleRepository.save(rule);
+        healthAlertEngine.reload();
+        return saved;
+    }
+
+    public AlertRule updateRule(Long ruleId, AlertRule updatedRule) {
+        AlertRule rule = alertRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new RuntimeException("Alert rule not found"));
+        AlertRuleCompiler.validate(updatedRule.getExpression());
+
+        rule.setExpression(updatedRule.getExpression());
+        if (updatedRule.getSeverity() != null) {
+            rule.setSeverity(updatedRule.getSeverity());
+        }
+        if (updatedRule.getEnabled() != null) {
+            rule.setEnabled(updatedRule.getEnabled());
+        }
+        AlertRule saved = alertRuleRepository.save(rule);
+        healthAlertEngine.reload();
+        return saved;
+    }
+
+    public void deleteRule(Long ruleId) {
+        alertRuleRepository.deleteById(ruleId);
+        healthAlertEngine.reload();
+    }
+
+    public Page<HealthAlert> getPatientAlerts(Long patientId, Pageable pageable) {
+        return healthAlertRepository.findByPatientIdOrderByCreatedAtDesc(patientId, pageable);
+    }
+
+    public HealthAlert acknowledgeAlert(Long patientId, Long alertId) {
+        HealthAlert alert = healthAlertRepository.findById(alertId)
+                .filter(candidate -> candidate.getPatientId().equals(patientId))
+                .orElseThrow(() -> new RuntimeException("Alert not found"));
+        alert.setAcknowledged(true);
+        return healthAlertRepository.save(alert);
+    }
+}
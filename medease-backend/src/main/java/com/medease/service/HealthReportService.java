@@ -0,0 +1,326 @@
+package com.medease.service;
+
+import com.medease.dto.RenderedReport;
+import com.medease.entity.Appointment;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.MedicalCondition;
+import com.medease.entity.Patient;
+import com.medease.entity.User;
+import com.medease.event.DoctorChangedEvent;
+import com.medease.event.PatientChangedEvent;
+import com.medease.repository.AppointmentRepository;
+import com.medease.web.ResourceVersion;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Printable health summary: current metrics, active conditions and the
+// appointments around today, rendered to HTML. A rendered report is kept per
+// patient together with the data version it was built from (the timestamp and
+// count queries behind the profile and appointment ETags). Local changes evict
+// it through PatientChangedEvent, or mark every report for a version check
+// through DoctorChangedEvent, so a recently checked report is served without
+// queries. Once it is older than the revalidation interval the version is read
+// again and the report kept only if it still matches, which picks up changes
+// made on other nodes or without an event. Renders run on a small bounded
+// pool and concurrent requests for the same version share one render.
+@Service
+public class HealthReportService {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MMM d, yyyy");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("MMM d, yyyy HH:mm");
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${medease.reports.threads:2}")
+    private int threads;
+
+    @Value("${medease.reports.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${medease.reports.cache-size:1000}")
+    private int cacheSize;
+
+    @Value("${medease.reports.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${medease.reports.appointment-window-days:90}")
+    private int appointmentWindowDays;
+
+    @Value("${medease.reports.revalidate-ms:30000}")
+    private long revalidateMs;
+
+    private ExecutorService executor;
+
+    // patientId -> last rendered report
+    private final Map<Long, CachedReport> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedReport> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final Map<String, CompletableFuture<byte[]>> rendering = new ConcurrentHashMap<>();
+
+    // Bumped by every event, so a render that overlapped one is checked on its next use
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // A full queue rejects the request instead of letting renders pile up
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        invalidations.incrementAndGet();
+        synchronized (cache) {
+            cache.remove(event.getPatientId());
+        }
+    }
+
+    // Appointment rows show the doctor's name and specialty; the version check
+    // tells which reports actually list this doctor
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        invalidations.incrementAndGet();
+        synchronized (cache) {
+            cache.values().forEach(report -> report.checkedAt = 0);
+        }
+    }
+
+    public RenderedReport getReport(Long userId, Long patientId) {
+        long started = System.nanoTime();
+        // Appointments drift out of the window as days pass, so a report is only good for the day it was made
+        LocalDate today = LocalDate.now();
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedReport cached = cache.get(patientId);
+            if (cached != null && cached.day.equals(today) && now - cached.checkedAt < revalidateMs) {
+                return new RenderedReport(cached.html, cached.etag, true, micros(started));
+            }
+        }
+
+        long generation = invalidations.get();
+        ResourceVersion version = patientService.getProfileVersion(userId)
+                .and(appointmentService.getPatientAppointmentsVersion(userId));
+        String etag = version.toETag("report-" + patientId + "-" + today);
+        synchronized (cache) {
+            CachedReport cached = cache.get(patientId);
+            if (cached != null && cached.etag.equals(etag)) {
+                if (invalidations.get() == generation) {
+                    cached.checkedAt = now;
+                }
+                return new RenderedReport(cached.html, cached.etag, true, micros(started));
+            }
+        }
+
+        CompletableFuture<byte[]> render = rendering.computeIfAbsent(etag,
+                key -> CompletableFuture.supplyAsync(() -> render(patientId), executor));
+        render.whenComplete((html, error) -> rendering.remove(etag, render));
+        byte[] html;
+        try {
+            html = render.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Report rendering timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Report rendering interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Report rendering failed", e.getCause());
+        }
+
+        // The render read its data after the version, so it is at least as new as the etag says
+        synchronized (cache) {
+            cache.put(patientId, new CachedReport(html, etag, today, invalidations.get() == generation ? now : 0));
+        }
+        return new RenderedReport(html, etag, false, micros(started));
+    }
+
+    private byte[] render(Long patientId) {
+        Patient patient = patientService.getPatientById(patientId);
+        HealthMetrics metrics = patientService.getHealthMetrics(patientId);
+        List<MedicalCondition> conditions = patientService.getActiveConditions(patientId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Appointment> appointments = appointmentRepository.findPatientAppointmentsBetweenDates(
+                patientId, now.minusDays(appointmentWindowDays), now.plusDays(appointmentWindowDays));
+        appointments.sort(Comparator.comparing(Appointment::getAppointmentDate).reversed());
+        conditions.sort(Comparator.comparing(MedicalCondition::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+        User user = patient.getUser();
+        StringBuilder html = new StringBuilder(8 * 1024);
+        html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n<title>Health summary - ")
+                .append(escape(user.getFirstName() + " " + user.getLastName())).append("</title>\n")
+                .append("<style>\n")
+                .append("body{font-family:Helvetica,Arial,sans-serif;color:#111;margin:2rem;font-size:14px}\n")
+                .append("h1{margin:0 0 .25rem}h2{border-bottom:1px solid #ccc;padding-bottom:.25rem;margin-top:2rem}\n")
+                .append("table{border-collapse:collapse;width:100%}th,td{text-align:left;padding:.35rem .5rem;border-bottom:1px solid #eee}\n")
+                .append(".muted{color:#666}.empty{color:#666;font-style:italic}\n")
+                .append("@media print{body{margin:0}section{page-break-inside:avoid}}\n")
+                .append("</style>\n</head>\n<body>\n");
+
+        html.append("<header>\n<h1>Health summary</h1>\n<p>")
+                .append(escape(user.getFirstName() + " " + user.getLastName()));
+        if (user.getDateOfBirth() != null) {
+            html.append(" &middot; born ").append(user.getDateOfBirth().format(DATE));
+        }
+        if (user.getGender() != null) {
+            html.append(" &middot; ").append(escape(user.getGender().name().toLowerCase(Locale.ROOT)));
+        }
+        html.append("</p>\n<p class=\"muted\">Generated ").append(now.format(DATE_TIME)).append("</p>\n</header>\n");
+
+        html.append("<section>\n<h2>Health metrics</h2>\n");
+        if (metrics == null) {
+            html.append("<p class=\"empty\">No health metrics recorded.</p>\n");
+        } else {
+            html.append("<table>\n<tr><th>Measure</th><th>Value</th></tr>\n");
+            metricRow(html, "Height", metrics.getHeight(), "cm");
+            metricRow(html, "Weight", metrics.getWeight(), "kg");
+            metricRow(html, "BMI", metrics.getBmi(), "");
+            if (metrics.getBloodPressureSystolic() != null && metrics.getBloodPressureDiastolic() != null) {
+                html.append("<tr><td>Blood pressure</td><td>").append(metrics.getBloodPressureSystolic()).append('/')
+                        .append(metrics.getBloodPressureDiastolic()).append(" mmHg</td></tr>\n");
+            }
+            metricRow(html, "Heart rate", metrics.getHeartRate(), "bpm");
+            metricRow(html, "Blood sugar", metrics.getBloodSugar(), "mg/dL");
+            metricRow(html, "Cholesterol", metrics.getCholesterol(), "mg/dL");
+            metricRow(html, "Temperature", metrics.getTemperature(), "");
+            html.append("</table>\n");
+            if (metrics.getLastUpdated() != null) {
+                html.append("<p class=\"muted\">Last updated ").append(metrics.getLastUpdated().format(DATE_TIME)).append("</p>\n");
+            }
+        }
+        html.append("</section>\n");
+
+        html.append("<section>\n<h2>Active conditions</h2>\n");
+        if (conditions.isEmpty()) {
+            html.append("<p class=\"empty\">No active conditions.</p>\n");
+        } else {
+            html.append("<table>\n<tr><th>Condition</th><th>ICD-10</th><th>Severity</th><th>Diagnosed</th><th>Medications</th></tr>\n");
+            for (MedicalCondition condition : conditions) {
+                html.append("<tr><td>").append(escape(condition.getName()))
+                        .append("</td><td>").append(escape(condition.getIcd10Code()))
+                        .append("</td><td>").append(condition.getSeverity() != null ? condition.getSeverity().name() : "")
+                        .append("</td><td>").append(condition.getDiagnosedDate() != null ? condition.getDiagnosedDate().format(DATE) : "")
+                        .append("</td><td>").append(escape(condition.getMedications()))
+                        .append("</td></tr>\n");
+            }
+            html.append("</table>\n");
+        }
+        html.append("</section>\n");
+
+        html.append("<section>\n<h2>Appointments</h2>\n<p class=\"muted\">The ").append(appointmentWindowDays)
+                .append(" days before and after today</p>\n");
+        if (appointments.isEmpty()) {
+            html.append("<p class=\"empty\">No appointments in this period.</p>\n");
+        } else {
+            html.append("<table>\n<tr><th>Date</th><th>Doctor</th><th>Specialty</th><th>Type</th><th>Status</th><th>Reason</th></tr>\n");
+            for (Appointment appointment : appointments) {
+                User doctor = appointment.getDoctor().getUser();
+                html.append("<tr><td>").append(appointment.getAppointmentDate().format(DATE_TIME))
+                        .append("</td><td>").append(escape(doctor.getFirstName() + " " + doctor.getLastName()))
+                        .append("</td><td>").append(escape(appointment.getDoctor().getSpecialty()))
+                        .append("</td><td>").append(appointment.getType() != null ? appointment.getType().name() : "")
+                        .append("</td><td>").append(appointment.getStatus() != null ? appointment.getStatus().name() : "")
+                        .append("</td><td>").append(escape(appointment.getReason()))
+                        .append("</td></tr>\n");
+            }
+            html.append("</table>\n");
+        }
+        html.append("</section>\n</body>\n</html>\n");
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void metricRow(StringBuilder html, String label, Number value, String unit) {
+        if (value == null) {
+            return;
+        }
+        String formatted = value instanceof Double ? String.format(Locale.ROOT, "%.1f", value.doubleValue()) : value.toString();
+        html.append("<tr><td>").append(label).append("</td><td>").append(formatted);
+        if (!unit.isEmpty()) {
+            html.append(' ').append(unit);
+        }
+        html.append("</td></tr>\n");
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '&' -> escaped.append("&amp;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&#39;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static long micros(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1000;
+    }
+
+    private static final class CachedReport {
+        private final byte[] html;
+        private final String etag;
+        private final LocalDate day;
+        // When the etag was last known to match the data; guarded by the cache lock
+        private long checkedAt;
+
+        private CachedReport(byte[] html, String etag, LocalDate day, long checkedAt) {
+            this.html = html;
+            this.etag = etag;
+            this.day = day;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.medease.service;
+
+import com.medease.dto.DrugInteraction;
+import com.medease.dto.Medication;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Read-only medication catalog loaded from CSV at startup. Each medication
+// gets a dense ordinal and a row of the interaction adjacency matrix stored
+// as a bitset, so checking one drug against a set of others is one AND per
+// 64 catalog entries; details are only looked up for the pairs that hit.
+@Component
+public class MedicationCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(MedicationCatalog.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${medease.medications.catalog:classpath:data/medications.csv}")
+    private String catalogLocation;
+
+    @Value("${medease.medications.interactions:classpath:data/drug-interactions.csv}")
+    private String interactionsLocation;
+
+    private final List<Medication> medications = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<Long, DrugInteraction> interactions = new HashMap<>();
+    private long[][] adjacency = new long[0][];
+    private int words;
+
+    @PostConstruct
+    public void load() throws IOException {
+        for (String[] row : readCsv(catalogLocation, 3)) {
+            String code = row[0].trim().toLowerCase(Locale.ROOT);
+            if (ordinals.putIfAbsent(code, medications.size()) == null) {
+                medications.add(new Medication(code, row[1].trim(), row[2].trim()));
+            }
+        }
+
+        words = (medications.size() + 63) >>> 6;
+        adjacency = new long[medications.size()][words];
+        for (String[] row : readCsv(interactionsLocation, 4)) {
+            Integer a = ordinals.get(row[0].trim().toLowerCase(Locale.ROOT));
+            Integer b = ordinals.get(row[1].trim().toLowerCase(Locale.ROOT));
+            if (a == null || b == null || a.equals(b)) {
+                logger.warn("Skipping interaction with unknown medication: {} / {}", row[0], row[1]);
+                continue;
+            }
+            adjacency[a][b >>> 6] |= 1L << b;
+            adjacency[b][a >>> 6] |= 1L << a;
+            interactions.put(pairKey(a, b), new DrugInteraction(medications.get(a), medications.get(b),
+                    DrugInteraction.Severity.valueOf(row[2].trim().toUpperCase(Locale.ROOT)), row[3].trim()));
+        }
+        logger.info("Loaded {} medications and {} interactions", medications.size(), interactions.size());
+    }
+
+    public Medication find(String code) {
+        Integer ordinal = code != null ? ordinals.get(code.trim().toLowerCase(Locale.ROOT)) : null;
+        return ordinal != null ? medications.get(ordinal) : null;
+    }
+
+    public Medication require(String code) {
+        Medication medication = find(code);
+        if (medication == null) {
+            throw new RuntimeException("Medication not found");
+        }
+        return medication;
+    }
+
+    public List<Medication> search(String query, int limit) {
+        String needle = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+        List<Medication> prefix = new ArrayList<>();
+        List<Medication> contains = new ArrayList<>();
+        for (Medication medication : medications) {
+            String name = medication.getName().toLowerCase(Locale.ROOT);
+            if (needle.isEmpty() || name.startsWith(needle) || medication.getCode().startsWith(needle)) {
+                prefix.add(medication);
+            } else if (name.contains(needle) || medication.getDrugClass().toLowerCase(Locale.ROOT).contains(needle)) {
+                contains.add(medication);
+            }
+        }
+        prefix.addAll(contains);
+        return prefix.subList(0, Math.max(0, Math.min(limit, prefix.size())));
+    }
+
+    // Bitset over catalog ordinals; codes not in the catalog are ignored
+    public long[] maskOf(Collection<String> codes) {
+        long[] mask = new long[words];
+        for (String code : codes) {
+            Integer ordinal = code != null ? ordinals.get(code.trim().toLowerCase(Locale.ROOT)) : null;
+            if (ordinal != null) {
+                mask[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        return mask;
+    }
+
+    // Interactions between `code` and any medication in `mask`, reported from code's side
+    public List<DrugInteraction> interactionsWith(String code, long[] mask) {
+        Integer ordinal = ordinals.get(code.trim().toLowerCase(Locale.ROOT));
+        List<DrugInteraction> found = new ArrayList<>();
+        if (ordinal == null) {
+            return found;
+        }
+        long[] row = adjacency[ordinal];
+        for (int w = 0; w < words; w++) {
+            long hits = row[w] & mask[w];
+            while (hits != 0) {
+                int other = (w << 6) + Long.numberOfTrailingZeros(hits);
+                hits &= hits - 1;
+                DrugInteraction interaction = interactions.get(pairKey(ordinal, other));
+                found.add(new DrugInteraction(medications.get(ordinal), medications.get(other),
+                        interaction.getSeverity(), interaction.getDescription()));
+            }
+        }
+        return found;
+    }
+
+    // Every interacting pair within the set, each reported once
+    public List<DrugInteraction> interactionsAmong(Collection<String> codes) {
+        List<DrugInteraction> found = new ArrayList<>();
+        long[] seen = new long[words];
+        for (String code : codes) {
+            Integer ordinal = code != null ? ordinals.get(code.trim().toLowerCase(Locale.ROOT)) : null;
+            if (ordinal == null || (seen[ordinal >>> 6] & (1L << ordinal)) != 0) {
+                continue;
+            }
+            found.addAll(interactionsWith(code, seen));
+            seen[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return found;
+    }
+
+    public int size() {
+        return medications.size();
+    }
+
+    private List<String[]> readCsv(String location, int columns) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                resourceLoader.getResource(location).getInputStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine(); // header
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // The last column is free text and may contain commas
+                String[] row = line.split(",", columns);
+                if (row.length == columns) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static long pairKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+}
@@ -0,0 +1,165 @@
+package com.medease.service;
+
+import com.medease.dto.DrugInteraction;
+import com.medease.dto.Medication;
+import com.medease.dto.PrescriptionResult;
+import com.medease.entity.Appointment;
+import com.medease.entity.MedicalCondition;
+import com.medease.entity.MedicationEntry;
+import com.medease.event.PatientChangedEvent;
+import com.medease.repository.AppointmentRepository;
+import com.medease.repository.MedicalConditionRepository;
+import com.medease.repository.MedicationEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class MedicationService {
+
+    @Autowired
+    private MedicationCatalog medicationCatalog;
+
+    @Autowired
+    private MedicationEntryRepository medicationEntryRepository;
+
+    @Autowired
+    private MedicalConditionRepository medicalConditionRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public List<MedicationEntry> getActiveMedications(Long patientId) {
+        return medicationEntryRepository.findByPatientIdAndActiveTrueOrderByStartDateDesc(patientId);
+    }
+
+    // One query for the patient's active codes, then a bitset AND against the candidate's row
+    public List<DrugInteraction> checkInteractions(Long patientId, String code) {
+        medicationCatalog.require(code);
+        long[] active = medicationCatalog.maskOf(medicationEntryRepository.findActiveCodesByPatientId(patientId));
+        return medicationCatalog.interactionsWith(code, active);
+    }
+
+    @Transactional
+    public PrescriptionResult addConditionMedication(Long patientId, Long conditionId, MedicationEntry request) {
+        MedicalCondition condition = medicalConditionRepository.findById(conditionId)
+                .filter(candidate -> candidate.getPatient().getId().equals(patientId))
+                .orElseThrow(() -> new RuntimeException("Medical condition not found"));
+
+        MedicationEntry entry = newEntry(patientId, request);
+        entry.setConditionId(conditionId);
+        List<DrugInteraction> interactions = checkInteractions(patientId, entry.getMedicationCode());
+        MedicationEntry saved = medicationEntryRepository.save(entry);
+
+        // Keep the free-text field in step for clients that still read it
+        condition.setMedications(appendLine(condition.getMedications(), saved.describe(),
+                MedicalCondition.MEDICATIONS_LENGTH));
+        medicalConditionRepository.save(condition);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.MEDICATIONS));
+        return new PrescriptionResult(saved, interactions);
+    }
+
+    @Transactional
+    public PrescriptionResult prescribe(Long doctorId, Long appointmentId, MedicationEntry request) {
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .filter(candidate -> candidate.getDoctor().getId().equals(doctorId))
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        Long patientId = appointment.getPatient().getId();
+
+        MedicationEntry entry = newEntry(patientId, request);
+        entry.setAppointmentId(appointmentId);
+        entry.setPrescribedByDoctorId(doctorId);
+        List<DrugInteraction> interactions = checkInteractions(patientId, entry.getMedicationCode());
+        MedicationEntry saved = medicationEntryRepository.save(entry);
+
+        appointment.setPrescription(appendLine(appointment.getPrescription(), saved.describe(),
+                Appointment.PRESCRIPTION_LENGTH));
+        appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.MEDICATIONS));
+        return new PrescriptionResult(saved, interactions);
+    }
+
+    public List<DrugInteraction> checkPrescription(Long doctorId, Long appointmentId, String code) {
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .filter(candidate -> candidate.getDoctor().getId().equals(doctorId))
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        return checkInteractions(appointment.getPatient().getId(), code);
+    }
+
+    @Transactional
+    public MedicationEntry stopMedication(Long patientId, Long entryId) {
+        MedicationEntry entry = medicationEntryRepository.findById(entryId)
+                .filter(candidate -> candidate.getPatientId().equals(patientId))
+                .orElseThrow(() -> new RuntimeException("Medication not found"));
+        entry.setActive(false);
+        entry.setEndDate(LocalDate.now());
+        MedicationEntry saved = medicationEntryRepository.save(entry);
+
+        // Another active entry may still be shown by the same line
+        String line = saved.describe();
+        if (saved.getConditionId() != null
+                && !shows(medicationEntryRepository.findByConditionIdAndActiveTrue(saved.getConditionId()), line)) {
+            medicalConditionRepository.findById(saved.getConditionId()).ifPresent(condition -> {
+                condition.setMedications(removeLine(condition.getMedications(), line));
+                medicalConditionRepository.save(condition);
+            });
+        }
+        if (saved.getAppointmentId() != null
+                && !shows(medicationEntryRepository.findByAppointmentIdAndActiveTrue(saved.getAppointmentId()), line)) {
+            appointmentRepository.findById(saved.getAppointmentId()).ifPresent(appointment -> {
+                appointment.setPrescription(removeLine(appointment.getPrescription(), line));
+                appointmentRepository.save(appointment);
+            });
+        }
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.MEDICATIONS));
+        return saved;
+    }
+
+    private MedicationEntry newEntry(Long patientId, MedicationEntry request) {
+        Medication medication = medicationCatalog.require(request.getMedicationCode());
+        MedicationEntry entry = new MedicationEntry();
+        entry.setPatientId(patientId);
+        entry.setMedicationCode(medication.getCode());
+        entry.setMedicationName(medication.getName());
+        entry.setDose(request.getDose());
+        entry.setFrequency(request.getFrequency());
+        entry.setInstructions(request.getInstructions());
+        entry.setStartDate(request.getStartDate());
+        return entry;
+    }
+
+    // The structured entries are the record; a line that would overflow the
+    // legacy column is left out of it rather than failing the prescription
+    private static String appendLine(String existing, String line, int maxLength) {
+        if (existing == null || existing.isBlank()) {
+            return line.length() <= maxLength ? line : existing;
+        }
+        if (existing.lines().anyMatch(candidate -> candidate.trim().equalsIgnoreCase(line))
+                || existing.length() + 1 + line.length() > maxLength) {
+            return existing;
+        }
+        return existing + "\n" + line;
+    }
+
+    private static String removeLine(String existing, String line) {
+        if (existing == null) {
+            return null;
+        }
+        String remaining = existing.lines()
+                .filter(candidate -> !candidate.trim().equalsIgnoreCase(line))
+                .collect(Collectors.joining("\n"));
+        return remaining.isBlank() ? null : remaining;
+    }
+
+    private static boolean shows(List<MedicationEntry> entries, String line) {
+        return entries.stream().anyMatch(entry -> entry.describe().equalsIgnoreCase(line));
+    }
+}
@@ -0,0 +1,461 @@
+package com.medease.service;
+
+import com.medease.cohort.CompressedBitmap;
+import com.medease.dto.CohortQuery;
+import com.medease.dto.CohortResult;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.VitalSign;
+import com.medease.event.PatientChangedEvent;
+import com.medease.repository.AppointmentRepository;
+import com.medease.repository.HealthMetricsRepository;
+import com.medease.repository.MedicalConditionRepository;
+import com.medease.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Compressed bitmaps over patient ids: one per active condition name, ICD-10
+// code and category, latest-reading band per metric, and day with a kept
+// appointment. A cohort is bitmap algebra over those; metric thresholds that
+// fall inside a band are settled against the stored latest values of that
+// band's members only. Changes arrive as PatientChangedEvents after commit and
+// re-read just the changed aspect of that one patient. Updates are applied one
+// at a time, each reading the database only once it holds the writer lock, so
+// the last one applied saw the newest committed state. Events that arrive
+// while a rebuild is reading are held back and replayed on the new state.
+@Component
+public class PatientCohortIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PatientCohortIndex.class);
+
+    private static final Map<VitalSign, double[]> BAND_BOUNDS = new EnumMap<>(VitalSign.class);
+
+    static {
+        BAND_BOUNDS.put(VitalSign.WEIGHT, new double[]{50, 70, 90, 110, 130});
+        BAND_BOUNDS.put(VitalSign.HEIGHT, new double[]{150, 160, 170, 180, 190});
+        BAND_BOUNDS.put(VitalSign.HEART_RATE, new double[]{50, 60, 80, 100, 120});
+        BAND_BOUNDS.put(VitalSign.BLOOD_PRESSURE_SYSTOLIC, new double[]{90, 120, 130, 140, 160, 180});
+        BAND_BOUNDS.put(VitalSign.BLOOD_PRESSURE_DIASTOLIC, new double[]{60, 80, 90, 100, 120});
+        BAND_BOUNDS.put(VitalSign.BLOOD_SUGAR, new double[]{70, 100, 126, 180, 250});
+        BAND_BOUNDS.put(VitalSign.CHOLESTEROL, new double[]{160, 200, 240, 280});
+        BAND_BOUNDS.put(VitalSign.TEMPERATURE, new double[]{36, 37.5, 38.5, 40});
+        BAND_BOUNDS.put(VitalSign.BMI, new double[]{18.5, 25, 30, 35, 40});
+    }
+
+    private static final Set<String> OPERATORS = Set.of(">", ">=", "<", "<=");
+    private static final CompressedBitmap EMPTY = new CompressedBitmap();
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MedicalConditionRepository medicalConditionRepository;
+
+    @Autowired
+    private HealthMetricsRepository healthMetricsRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes updates and rebuilds; queries only wait for the brief swap or apply
+    private final Lock writer = new ReentrantLock();
+    private State state = new State();
+    // Non-null while a rebuild is reading, guarded by writer
+    private List<PatientChangedEvent> heldBack;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        writer.lock();
+        try {
+            if (heldBack != null) {
+                return;
+            }
+            heldBack = new ArrayList<>();
+        } finally {
+            writer.unlock();
+        }
+        State fresh = null;
+        try {
+            fresh = build();
+        } finally {
+            // On failure the held-back events still go to the old state
+            writer.lock();
+            try {
+                if (fresh != null) {
+                    lock.writeLock().lock();
+                    try {
+                        state = fresh;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+                List<PatientChangedEvent> replay = heldBack;
+                heldBack = null;
+                for (PatientChangedEvent event : replay) {
+                    apply(event);
+                }
+            } finally {
+                writer.unlock();
+            }
+        }
+        logger.info("Built cohort index for {} patients in {} ms", fresh.all.cardinality(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private State build() {
+        State fresh = new State();
+        for (Long patientId : patientRepository.findAllIds()) {
+            fresh.all.add(ordinal(patientId));
+        }
+        groupByPatient(medicalConditionRepository.findActiveConditionKeys())
+                .forEach((patient, rows) -> fresh.putConditions(patient, rows));
+        for (Object[] row : healthMetricsRepository.findAllValues()) {
+            fresh.putMetrics(ordinal((Long) row[0]), toHealthMetrics(row));
+        }
+        groupByPatient(appointmentRepository.findKeptAppointmentDates())
+                .forEach((patient, rows) -> fresh.putAppointments(patient, rows));
+        return fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        writer.lock();
+        try {
+            if (heldBack != null) {
+                heldBack.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    // Called holding writer; the database is read before taking the query lock
+    private void apply(PatientChangedEvent event) {
+        Long patientId = event.getPatientId();
+        int patient = ordinal(patientId);
+        switch (event.getAspect()) {
+            case CONDITIONS: {
+                List<Object[]> rows = medicalConditionRepository.findActiveConditionKeysByPatientId(patientId);
+                update(current -> current.putConditions(patient, rows));
+                break;
+            }
+            case HEALTH_METRICS: {
+                HealthMetrics metrics = healthMetricsRepository.findByPatientId(patientId).orElse(null);
+                update(current -> current.putMetrics(patient, metrics));
+                break;
+            }
+            case APPOINTMENTS: {
+                List<Object[]> rows = appointmentRepository.findKeptAppointmentDatesByPatientId(patientId);
+                update(current -> current.putAppointments(patient, rows));
+                break;
+            }
+            case MEDICATIONS:
+                // Not indexed
+                break;
+            default:
+                update(current -> current.all.add(patient));
+        }
+    }
+
+    public CohortResult query(CohortQuery query) {
+        long started = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            State current = state;
+            CompressedBitmap result = current.all;
+            for (String name : query.getConditions()) {
+                result = CompressedBitmap.and(result, current.conditions.getOrDefault(conditionKey(name), EMPTY));
+            }
+            for (String code : query.getIcd10Codes()) {
+                result = CompressedBitmap.and(result, current.codes.getOrDefault(codeKey(code), EMPTY));
+            }
+            for (String name : query.getExcludeConditions()) {
+                result = CompressedBitmap.andNot(result, current.conditions.getOrDefault(conditionKey(name), EMPTY));
+            }
+            for (CohortQuery.MetricFilter filter : query.getMetrics()) {
+                result = CompressedBitmap.and(result, current.matching(filter));
+            }
+            LocalDate today = LocalDate.now();
+            if (query.getAppointmentWithinDays() != null) {
+                result = CompressedBitmap.and(result, current.appointmentsSince(today, query.getAppointmentWithinDays()));
+            }
+            if (query.getNoAppointmentWithinDays() != null) {
+                result = CompressedBitmap.andNot(result, current.appointmentsSince(today, query.getNoAppointmentWithinDays()));
+            }
+
+            int limit = Math.max(0, Math.min(query.getLimit(), 10000));
+            List<Long> patientIds = new ArrayList<>();
+            for (long id : result.toArray(Math.max(0, query.getOffset()), limit)) {
+                patientIds.add(id);
+            }
+            return new CohortResult(result.cardinality(), patientIds,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(state);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<Integer, List<Object[]>> groupByPatient(List<Object[]> rows) {
+        Map<Integer, List<Object[]>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent(ordinal((Long) row[0]), key -> new ArrayList<>()).add(row);
+        }
+        return grouped;
+    }
+
+    private static HealthMetrics toHealthMetrics(Object[] row) {
+        HealthMetrics metrics = new HealthMetrics();
+        metrics.setWeight((Double) row[1]);
+        metrics.setHeight((Double) row[2]);
+        metrics.setHeartRate((Integer) row[3]);
+        metrics.setBloodPressureSystolic((Integer) row[4]);
+        metrics.setBloodPressureDiastolic((Integer) row[5]);
+        metrics.setBloodSugar((Double) row[6]);
+        metrics.setCholesterol((Double) row[7]);
+        metrics.setTemperature((Double) row[8]);
+        metrics.setBmi((Double) row[9]);
+        return metrics;
+    }
+
+    private static int ordinal(Long patientId) {
+        return Math.toIntExact(patientId);
+    }
+
+    private static String conditionKey(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // "e119", "E11.9" and "E11" all become dotted upper case
+    private static String codeKey(String code) {
+        String key = code == null ? "" : code.trim().toUpperCase(Locale.ROOT).replace(".", "");
+        return key.length() > 3 ? key.substring(0, 3) + "." + key.substring(3) : key;
+    }
+
+    private static int band(double[] bounds, double value) {
+        int band = 0;
+        while (band < bounds.length && value >= bounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    private static boolean compare(double value, String op, double threshold) {
+        switch (op) {
+            case ">": return value > threshold;
+            case ">=": return value >= threshold;
+            case "<": return value < threshold;
+            default: return value <= threshold;
+        }
+    }
+
+    private static final class State {
+        private final CompressedBitmap all = new CompressedBitmap();
+        private final Map<String, CompressedBitmap> conditions = new HashMap<>();
+        private final Map<String, CompressedBitmap> codes = new HashMap<>();
+        private final Map<VitalSign, CompressedBitmap[]> bands = new EnumMap<>(VitalSign.class);
+        private final NavigableMap<Long, CompressedBitmap> appointmentDays = new TreeMap<>();
+
+        // What each patient is currently posted under, so a change can clear it first
+        private final Map<Integer, Set<String>> conditionKeys = new HashMap<>();
+        private final Map<Integer, Set<String>> codeKeys = new HashMap<>();
+        private final Map<Integer, double[]> latestValues = new HashMap<>();
+        private final Map<Integer, long[]> appointmentDaysByPatient = new HashMap<>();
+
+        private State() {
+            for (Map.Entry<VitalSign, double[]> entry : BAND_BOUNDS.entrySet()) {
+                CompressedBitmap[] signBands = new CompressedBitmap[entry.getValue().length + 1];
+                for (int i = 0; i < signBands.length; i++) {
+                    signBands[i] = new CompressedBitmap();
+                }
+                bands.put(entry.getKey(), signBands);
+            }
+        }
+
+        // Rows are (patientId, name, icd10Code) of the patient's active conditions
+        private void putConditions(int patient, List<Object[]> rows) {
+            all.add(patient);
+            Set<String> names = new HashSet<>();
+            Set<String> patientCodes = new HashSet<>();
+            for (Object[] row : rows) {
+                String name = conditionKey((String) row[1]);
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+                String code = (String) row[2];
+                if (code != null && !code.isBlank()) {
+                    String key = codeKey(code);
+                    patientCodes.add(key);
+                    patientCodes.add(key.substring(0, Math.min(3, key.length())));
+                }
+            }
+            repost(patient, conditions, conditionKeys, names);
+            repost(patient, codes, codeKeys, patientCodes);
+        }
+
+        private void putMetrics(int patient, HealthMetrics metrics) {
+            all.add(patient);
+            double[] previous = latestValues.remove(patient);
+            if (previous != null) {
+                forEachBand(previous, (sign, band) -> bands.get(sign)[band].remove(patient));
+            }
+            if (metrics == null) {
+                return;
+            }
+            double[] values = new double[VitalSign.values().length];
+            Arrays.fill(values, Double.NaN);
+            for (VitalSign sign : VitalSign.values()) {
+                Double value = sign.extract(metrics);
+                if (value != null) {
+                    values[sign.ordinal()] = value;
+                }
+            }
+            latestValues.put(patient, values);
+            forEachBand(values, (sign, band) -> bands.get(sign)[band].add(patient));
+        }
+
+        // Rows are (patientId, appointmentDate) of the patient's kept appointments
+        private void putAppointments(int patient, List<Object[]> rows) {
+            all.add(patient);
+            long[] previous = appointmentDaysByPatient.remove(patient);
+            if (previous != null) {
+                for (long day : previous) {
+                    CompressedBitmap bitmap = appointmentDays.get(day);
+                    bitmap.remove(patient);
+                    if (bitmap.isEmpty()) {
+                        appointmentDays.remove(day);
+                    }
+                }
+            }
+            TreeSet<Long> days = new TreeSet<>();
+            for (Object[] row : rows) {
+                days.add(((LocalDateTime) row[1]).toLocalDate().toEpochDay());
+            }
+            if (days.isEmpty()) {
+                return;
+            }
+            long[] patientDays = new long[days.size()];
+            int i = 0;
+            for (long day : days) {
+                appointmentDays.computeIfAbsent(day, key -> new CompressedBitmap()).add(patient);
+                patientDays[i++] = day;
+            }
+            appointmentDaysByPatient.put(patient, patientDays);
+        }
+
+        // Bands wholly inside the range are taken as-is; a band the threshold cuts
+        // through is filtered member by member against the stored latest values
+        private CompressedBitmap matching(CohortQuery.MetricFilter filter) {
+            if (filter.getMetric() == null || filter.getOp() == null) {
+                throw new RuntimeException("Metric filters need a metric and an operator");
+            }
+            double[] bounds = BAND_BOUNDS.get(filter.getMetric());
+            CompressedBitmap[] signBands = bands.get(filter.getMetric());
+            String op = filter.getOp().trim();
+            double threshold = filter.getValue();
+            if (!OPERATORS.contains(op)) {
+                throw new RuntimeException("Unsupported operator: " + op);
+            }
+
+            CompressedBitmap result = new CompressedBitmap();
+            for (int band = 0; band < signBands.length; band++) {
+                double low = band == 0 ? Double.NEGATIVE_INFINITY : bounds[band - 1];
+                double high = band == bounds.length ? Double.POSITIVE_INFINITY : bounds[band];
+                boolean upward = op.startsWith(">");
+                boolean allMatch = upward ? compare(low, op, threshold) : high <= threshold;
+                boolean noneMatch = upward ? high <= threshold : !compare(low, op, threshold);
+                if (allMatch) {
+                    result = CompressedBitmap.or(result, signBands[band]);
+                } else if (!noneMatch) {
+                    int sign = filter.getMetric().ordinal();
+                    CompressedBitmap members = signBands[band];
+                    for (long patient : members.toArray(0, members.cardinality())) {
+                        if (compare(latestValues.get((int) patient)[sign], op, threshold)) {
+                            result.add((int) patient);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private CompressedBitmap appointmentsSince(LocalDate today, int days) {
+            CompressedBitmap result = new CompressedBitmap();
+            long from = today.minusDays(Math.max(0, days)).toEpochDay();
+            for (CompressedBitmap day : appointmentDays.subMap(from, true, today.toEpochDay(), true).values()) {
+                result = CompressedBitmap.or(result, day);
+            }
+            return result;
+        }
+
+        private void repost(int patient, Map<String, CompressedBitmap> postings,
+                            Map<Integer, Set<String>> keysByPatient, Set<String> keys) {
+            Set<String> previous = keysByPatient.remove(patient);
+            if (previous != null) {
+                for (String key : previous) {
+                    CompressedBitmap bitmap = postings.get(key);
+                    bitmap.remove(patient);
+                    if (bitmap.isEmpty()) {
+                        postings.remove(key);
+                    }
+                }
+            }
+            if (keys.isEmpty()) {
+                return;
+            }
+            for (String key : keys) {
+                postings.computeIfAbsent(key, k -> new CompressedBitmap()).add(patient);
+            }
+            keysByPatient.put(patient, keys);
+        }
+
+        private static void forEachBand(double[] values, BandVisitor visitor) {
+            for (Map.Entry<VitalSign, double[]> entry : BAND_BOUNDS.entrySet()) {
+                double value = values[entry.getKey().ordinal()];
+                if (!Double.isNaN(value)) {
+                    visitor.visit(entry.getKey(), band(entry.getValue(), value));
+                }
+            }
+        }
+    }
+
+    private interface BandVisitor {
+        void visit(VitalSign sign, int band);
+    }
+}
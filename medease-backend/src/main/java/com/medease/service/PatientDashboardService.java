@@ -0,0 +1,103 @@
+package com.medease.service;
+
+import com.medease.dto.PatientDashboard;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.MedicalCondition;
+import com.medease.entity.Patient;
+import com.medease.repository.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Builds the patient home page in one call: the patient is resolved once on
+// the request thread and the remaining sections are fetched in parallel on a
+// bounded pool. A section that fails or misses the deadline is reported in
+// `unavailable` instead of failing the whole response.
+@Service
+public class PatientDashboardService {
+    private static final Logger logger = LoggerFactory.getLogger(PatientDashboardService.class);
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${medease.dashboard.threads:16}")
+    private int threads;
+
+    @Value("${medease.dashboard.timeout-ms:2000}")
+    private long timeoutMs;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // When the queue is full the request thread runs the section itself
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public PatientDashboard getDashboard(Long patientId) {
+        Patient patient = patientService.getPatientById(patientId);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+        Future<HealthMetrics> healthMetrics = executor.submit(() -> patientService.getHealthMetrics(patientId));
+        Future<List<MedicalCondition>> conditions = executor.submit(() -> patientService.getPatientConditions(patientId));
+        Future<List<PatientDashboard.UpcomingAppointment>> appointments = executor.submit(() ->
+                appointmentRepository.findUpcomingWithDoctorByPatient(patientId, LocalDateTime.now()).stream()
+                        .map(PatientDashboard.UpcomingAppointment::new)
+                        .collect(Collectors.toList()));
+
+        PatientDashboard dashboard = new PatientDashboard();
+        // The profile is the patient row already loaded above, with its eagerly fetched user
+        dashboard.setProfile(new PatientDashboard.Profile(patient));
+        dashboard.setHealthMetrics(await("healthMetrics", healthMetrics, deadline, dashboard));
+        dashboard.setConditions(await("conditions", conditions, deadline, dashboard));
+        dashboard.setUpcomingAppointments(await("upcomingAppointments", appointments, deadline, dashboard));
+        return dashboard;
+    }
+
+    private <T> T await(String section, Future<T> future, long deadline, PatientDashboard dashboard) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Dashboard section {} timed out", section);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Dashboard section {} failed: {}", section, e.getMessage());
+        }
+        dashboard.getUnavailable().add(section);
+        return null;
+    }
+}
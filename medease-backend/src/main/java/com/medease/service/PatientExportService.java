@@ -0,0 +1,489 @@
+package com.medease.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.entity.ExportJob;
+import com.medease.repository.ExportJobRepository;
+import com.medease.repository.PatientRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Whole-population export as NDJSON, one line per patient with its user,
+// health metrics, conditions and appointments. The patient id range is cut
+// into fixed partitions that run in parallel; each partition merge-joins five
+// forward-only cursors ordered by patient id, so memory holds one patient and
+// one fetch per cursor no matter how large the range. A partition is written
+// to a temporary file and renamed when complete, which is what lets a resumed
+// job skip it. The download concatenates the parts; gzip members concatenate
+// into a valid gzip stream.
+@Service
+public class PatientExportService {
+    private static final Logger logger = LoggerFactory.getLogger(PatientExportService.class);
+
+    private static final String PATIENTS_SQL =
+            "SELECT * FROM patients WHERE id BETWEEN ? AND ? ORDER BY id";
+    private static final String USERS_SQL =
+            "SELECT p.id AS export_patient_id, u.* FROM patients p JOIN users u ON u.id = p.user_id " +
+            "WHERE p.id BETWEEN ? AND ? ORDER BY p.id";
+    private static final String HEALTH_METRICS_SQL =
+            "SELECT * FROM health_metrics WHERE patient_id BETWEEN ? AND ? ORDER BY patient_id";
+    private static final String CONDITIONS_SQL =
+            "SELECT * FROM medical_conditions WHERE patient_id BETWEEN ? AND ? ORDER BY patient_id, id";
+    private static final String APPOINTMENTS_SQL =
+            "SELECT * FROM appointments WHERE patient_id BETWEEN ? AND ? ORDER BY patient_id, appointment_date, id";
+
+    // Never leaves the database
+    private static final Set<String> EXCLUDED_COLUMNS = Set.of("password", "export_patient_id");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExportJobRepository exportJobRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Value("${medease.export.directory:${java.io.tmpdir}/medease-exports}")
+    private String directory;
+
+    @Value("${medease.export.threads:4}")
+    private int threads;
+
+    @Value("${medease.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${medease.export.partition-size:5000}")
+    private int defaultPartitionSize;
+
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    private final Set<Long> cancelRequests = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        // Jobs run one at a time; their partitions share the worker pool
+        coordinator = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "export-coordinator"));
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> daemon(runnable, "export-" + counter.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // A job that was running when the process stopped can be resumed like a failed one
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        for (ExportJob job : exportJobRepository.findByStatusIn(List.of(ExportJob.Status.QUEUED, ExportJob.Status.RUNNING))) {
+            job.setStatus(ExportJob.Status.FAILED);
+            job.setError("Interrupted by a restart");
+            exportJobRepository.save(job);
+        }
+    }
+
+    public ExportJob startExport(Long requestedBy, boolean gzip, Integer partitionSize) {
+        int size = partitionSize != null ? partitionSize : defaultPartitionSize;
+        if (size < 1) {
+            throw new RuntimeException("Partition size must be positive");
+        }
+        ExportJob job = new ExportJob();
+        job.setRequestedBy(requestedBy);
+        job.setGzip(gzip);
+        job.setPartitionSize(size);
+        job.setMinPatientId(patientRepository.findMinId());
+        job.setMaxPatientId(patientRepository.findMaxId());
+        if (job.getMinPatientId() != null) {
+            long span = job.getMaxPatientId() - job.getMinPatientId() + 1;
+            job.setPartitionCount(Math.toIntExact((span + size - 1) / size));
+        }
+        ExportJob saved = exportJobRepository.save(job);
+        submit(saved.getId());
+        return saved;
+    }
+
+    public ExportJob resumeExport(Long jobId) {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() != ExportJob.Status.FAILED && job.getStatus() != ExportJob.Status.CANCELLED) {
+            throw new RuntimeException("Only failed or cancelled exports can be resumed");
+        }
+        job.setStatus(ExportJob.Status.QUEUED);
+        job.setError(null);
+        job.setFinishedAt(null);
+        ExportJob saved = exportJobRepository.save(job);
+        // A cancel that arrived after the previous run had already stopped must not cancel this one
+        cancelRequests.remove(jobId);
+        submit(jobId);
+        return saved;
+    }
+
+    public ExportJob cancelExport(Long jobId) {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() == ExportJob.Status.QUEUED || job.getStatus() == ExportJob.Status.RUNNING) {
+            cancelRequests.add(jobId);
+        }
+        return job;
+    }
+
+    public ExportJob getJob(Long jobId) {
+        return exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Export not found"));
+    }
+
+    public List<ExportJob> getJobs() {
+        return exportJobRepository.findAllByOrderByCreatedAtDesc();
+    }
+
+    public void deleteExport(Long jobId) throws IOException {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() == ExportJob.Status.QUEUED || job.getStatus() == ExportJob.Status.RUNNING) {
+            throw new RuntimeException("Cancel the export before deleting it");
+        }
+        Path jobDirectory = jobDirectory(jobId);
+        if (Files.isDirectory(jobDirectory)) {
+            try (Stream<Path> files = Files.list(jobDirectory)) {
+                for (Path file : files.collect(Collectors.toList())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(jobDirectory);
+        }
+        exportJobRepository.delete(job);
+    }
+
+    // Part files of a completed export, in patient id order
+    public List<Path> getCompletedParts(Long jobId) {
+        ExportJob job = getJob(jobId);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            throw new RuntimeException("Export is not complete");
+        }
+        List<Path> parts = new ArrayList<>();
+        for (int partition = 0; partition < job.getPartitionCount(); partition++) {
+            parts.add(jobDirectory(jobId).resolve(partName(partition, job.getGzip())));
+        }
+        return parts;
+    }
+
+    // Copies part files with transferTo; only a file or socket channel target avoids a
+    // user-space buffer, a channel wrapping an OutputStream still copies through the heap
+    public static void transfer(List<Path> parts, WritableByteChannel target) throws IOException {
+        for (Path part : parts) {
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+                long position = 0;
+                long size = channel.size();
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        }
+    }
+
+    private void submit(Long jobId) {
+        coordinator.submit(() -> {
+            try {
+                run(jobId);
+            } catch (RuntimeException e) {
+                logger.error("Export {} could not be run", jobId, e);
+            }
+        });
+    }
+
+    private void run(Long jobId) {
+        ExportJob job = getJob(jobId);
+        if (cancelRequests.remove(jobId)) {
+            finish(job, ExportJob.Status.CANCELLED, null);
+            return;
+        }
+        job.setStatus(ExportJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = exportJobRepository.save(job);
+
+        Path jobDirectory = jobDirectory(jobId);
+        List<Integer> pending = new ArrayList<>();
+        try {
+            Files.createDirectories(jobDirectory);
+            for (int partition = 0; partition < job.getPartitionCount(); partition++) {
+                // Parts committed by an earlier attempt are already counted in the job's progress
+                if (!Files.exists(jobDirectory.resolve(partName(partition, job.getGzip())))) {
+                    pending.add(partition);
+                }
+            }
+        } catch (IOException e) {
+            finish(job, ExportJob.Status.FAILED, e.getMessage());
+            return;
+        }
+
+        AtomicBoolean abort = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        ExportJob plan = job;
+        for (int partition : pending) {
+            futures.add(workers.submit(() -> {
+                exportPartition(plan, partition, jobDirectory, abort);
+                return null;
+            }));
+        }
+
+        String error = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                abort.set(true);
+                if (error == null && !(e.getCause() instanceof CancellationException)) {
+                    error = e.getCause().getMessage() != null ? e.getCause().getMessage() : e.getCause().toString();
+                    logger.error("Export {} failed", jobId, e.getCause());
+                }
+            } catch (InterruptedException e) {
+                abort.set(true);
+                Thread.currentThread().interrupt();
+                error = "Interrupted";
+            }
+        }
+
+        job = getJob(jobId);
+        if (cancelRequests.remove(jobId)) {
+            finish(job, ExportJob.Status.CANCELLED, null);
+        } else {
+            finish(job, error == null ? ExportJob.Status.COMPLETED : ExportJob.Status.FAILED, error);
+        }
+    }
+
+    private void exportPartition(ExportJob job, int partition, Path jobDirectory, AtomicBoolean abort)
+            throws IOException, SQLException {
+        long from = job.getMinPatientId() + (long) partition * job.getPartitionSize();
+        long to = Math.min(from + job.getPartitionSize() - 1, job.getMaxPatientId());
+        Path target = jobDirectory.resolve(partName(partition, job.getGzip()));
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        long patients = 0;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 OutputStream out = open(channel, job.getGzip());
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+                 Connection connection = dataSource.getConnection()) {
+                generator.setRootValueSeparator(null);
+                connection.setReadOnly(true);
+                // PostgreSQL ignores the fetch size in autocommit mode and reads the whole result set
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (Cursor patientRows = new Cursor(connection, PATIENTS_SQL, "id", from, to, fetchSize);
+                     Cursor users = new Cursor(connection, USERS_SQL, "export_patient_id", from, to, fetchSize);
+                     Cursor healthMetrics = new Cursor(connection, HEALTH_METRICS_SQL, "patient_id", from, to, fetchSize);
+                     Cursor conditions = new Cursor(connection, CONDITIONS_SQL, "patient_id", from, to, fetchSize);
+                     Cursor appointments = new Cursor(connection, APPOINTMENTS_SQL, "patient_id", from, to, fetchSize)) {
+                    while (patientRows.hasRow()) {
+                        if (abort.get() || cancelRequests.contains(job.getId())) {
+                            throw new CancellationException();
+                        }
+                        long patientId = patientRows.key();
+                        generator.writeStartObject();
+                        generator.writeNumberField("patientId", patientId);
+                        generator.writeFieldName("user");
+                        users.writeOne(generator, patientId);
+                        generator.writeFieldName("patient");
+                        patientRows.writeOne(generator, patientId);
+                        generator.writeFieldName("healthMetrics");
+                        healthMetrics.writeOne(generator, patientId);
+                        generator.writeFieldName("conditions");
+                        conditions.writeAll(generator, patientId);
+                        generator.writeFieldName("appointments");
+                        appointments.writeAll(generator, patientId);
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                        patients++;
+                    }
+                } finally {
+                    connection.rollback();
+                    connection.setAutoCommit(autoCommit);
+                }
+            }
+            long bytes = Files.size(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            exportJobRepository.addProgress(job.getId(), patients, bytes);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void finish(ExportJob job, ExportJob.Status status, String error) {
+        job.setStatus(status);
+        job.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        job.setFinishedAt(LocalDateTime.now());
+        exportJobRepository.save(job);
+        logger.info("Export {} {}: {} patients, {} bytes", job.getId(), status, job.getExportedPatients(), job.getBytesWritten());
+    }
+
+    private Path jobDirectory(Long jobId) {
+        return Paths.get(directory, "export-" + jobId);
+    }
+
+    private static String partName(int partition, boolean gzip) {
+        return String.format("part-%05d.ndjson%s", partition, gzip ? ".gz" : "");
+    }
+
+    private static OutputStream open(FileChannel channel, boolean gzip) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        return gzip ? new GZIPOutputStream(out, 64 * 1024) : new BufferedOutputStream(out, 64 * 1024);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Forward-only, read-only result set ordered by patient id; rows are written
+    // straight from the driver's fetch buffer to the generator
+    private static final class Cursor implements AutoCloseable {
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final String[] labels;
+        private final String keyColumn;
+        private boolean hasRow;
+
+        private Cursor(Connection connection, String sql, String keyColumn, long from, long to, int fetchSize)
+                throws SQLException {
+            this.statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            this.keyColumn = keyColumn;
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, from);
+            statement.setLong(2, to);
+            this.resultSet = statement.executeQuery();
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            this.labels = new String[metaData.getColumnCount()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+            }
+            this.hasRow = resultSet.next();
+        }
+
+        private boolean hasRow() {
+            return hasRow;
+        }
+
+        private long key() throws SQLException {
+            return resultSet.getLong(keyColumn);
+        }
+
+        // Skips rows of lower ids, which belong to no exported patient
+        private boolean at(long patientId) throws SQLException {
+            while (hasRow && key() < patientId) {
+                hasRow = resultSet.next();
+            }
+            return hasRow && key() == patientId;
+        }
+
+        private void writeOne(JsonGenerator generator, long patientId) throws SQLException, IOException {
+            if (!at(patientId)) {
+                generator.writeNull();
+                return;
+            }
+            writeRow(generator);
+            // A second row for the same patient would break the one-to-one shape
+            while (at(patientId)) {
+                hasRow = resultSet.next();
+            }
+        }
+
+        private void writeAll(JsonGenerator generator, long patientId) throws SQLException, IOException {
+            generator.writeStartArray();
+            while (at(patientId)) {
+                writeRow(generator);
+                hasRow = resultSet.next();
+            }
+            generator.writeEndArray();
+        }
+
+        private void writeRow(JsonGenerator generator) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                if (EXCLUDED_COLUMNS.contains(labels[i])) {
+                    continue;
+                }
+                generator.writeFieldName(labels[i]);
+                writeValue(generator, resultSet.getObject(i + 1));
+            }
+            generator.writeEndObject();
+        }
+
+        private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof BigDecimal) {
+                generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                generator.writeNumber(((Number) value).doubleValue());
+            } else if (value instanceof Number) {
+                generator.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else if (value instanceof Timestamp) {
+                generator.writeString(((Timestamp) value).toLocalDateTime().toString());
+            } else if (value instanceof java.sql.Date) {
+                generator.writeString(((java.sql.Date) value).toLocalDate().toString());
+            } else if (value instanceof byte[]) {
+                generator.writeBinary((byte[]) value);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                resultSet.close();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
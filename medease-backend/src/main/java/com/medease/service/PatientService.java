@@ -1,16 +1,23 @@
 package com.medease.service;
 
+import com.medease.dto.ConditionCode;
 import com.medease.entity.HealthMetrics;
 import com.medease.entity.MedicalCondition;
 import com.medease.entity.Patient;
+import com.medease.entity.VitalSign;
+import com.medease.event.PatientChangedEvent;
 import com.medease.repository.HealthMetricsRepository;
 import com.medease.repository.MedicalConditionRepository;
 import com.medease.repository.PatientRepository;
+import com.medease.web.ResourceVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class PatientService {
@@ -24,6 +31,18 @@ public class PatientService {
     @Autowired
     private MedicalConditionRepository medicalConditionRepository;
 
+    @Autowired
+    private VitalsTimeSeriesService vitalsTimeSeriesService;
+
+    @Autowired
+    private HealthAlertEngine healthAlertEngine;
+
+    @Autowired
+    private ConditionCodeIndex conditionCodeIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Patient getPatientByUserId(Long userId) {
         return patientRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
@@ -50,8 +69,28 @@ public class PatientService {
         existingMetrics.setBloodSugar(healthMetrics.getBloodSugar());
         existingMetrics.setCholesterol(healthMetrics.getCholesterol());
         existingMetrics.setTemperature(healthMetrics.getTemperature());
-        
-        return healthMetricsRepository.save(existingMetrics);
+
+        HealthMetrics saved = healthMetricsRepository.save(existingMetrics);
+        LocalDateTime now = LocalDateTime.now();
+        // The row above is only the latest snapshot; every reading is kept in the time series
+        vitalsTimeSeriesService.append(patientId, now, saved);
+        healthAlertEngine.evaluate(patientId, now, saved);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.HEALTH_METRICS));
+        return saved;
+    }
+
+    // Only the signs with a reading newer than the snapshot's are changed
+    @Transactional
+    public void applyNewestReadings(Long patientId, Map<VitalSign, Double> newest) {
+        HealthMetrics metrics = healthMetricsRepository.findByPatientId(patientId)
+                .orElseGet(() -> {
+                    HealthMetrics created = new HealthMetrics();
+                    created.setPatient(getPatientById(patientId));
+                    return created;
+                });
+        newest.forEach((sign, value) -> sign.assign(metrics, value));
+        healthMetricsRepository.save(metrics);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.HEALTH_METRICS));
     }
 
     public HealthMetrics getHealthMetrics(Long patientId) {
@@ -71,7 +110,11 @@ public class PatientService {
     public MedicalCondition addCondition(Long patientId, MedicalCondition condition) {
         Patient patient = getPatientById(patientId);
         condition.setPatient(patient);
-        return medicalConditionRepository.save(condition);
+        applyIcd10Code(condition, condition.getIcd10Code());
+        MedicalCondition saved = medicalConditionRepository.save(condition);
+        healthAlertEngine.invalidateConditions(patientId);
+        eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.CONDITIONS));
+        return saved;
     }
 
     @Transactional
@@ -80,16 +123,54 @@ public class PatientService {
                 .orElseThrow(() -> new RuntimeException("Medical condition not found"));
         
         condition.setName(updatedCondition.getName());
+        applyIcd10Code(condition, updatedCondition.getIcd10Code());
         condition.setDescription(updatedCondition.getDescription());
         condition.setSeverity(updatedCondition.getSeverity());
         condition.setIsActive(updatedCondition.getIsActive());
         condition.setMedications(updatedCondition.getMedications());
         
-        return medicalConditionRepository.save(condition);
+        MedicalCondition saved = medicalConditionRepository.save(condition);
+        healthAlertEngine.invalidateConditions(condition.getPatient().getId());
+        eventPublisher.publishEvent(new PatientChangedEvent(condition.getPatient().getId(), PatientChangedEvent.Aspect.CONDITIONS));
+        return saved;
+    }
+
+    // Stores the code in its dotted form; the description stands in for a missing name
+    private void applyIcd10Code(MedicalCondition condition, String code) {
+        if (code == null || code.isBlank()) {
+            condition.setIcd10Code(null);
+            return;
+        }
+        ConditionCode conditionCode = conditionCodeIndex.require(code);
+        condition.setIcd10Code(conditionCode.getCode());
+        if (condition.getName() == null || condition.getName().isBlank()) {
+            condition.setName(conditionCode.getDescription());
+        }
     }
 
     @Transactional
     public void deleteCondition(Long conditionId) {
+        medicalConditionRepository.findById(conditionId).ifPresent(condition -> {
+            Long patientId = condition.getPatient().getId();
+            healthAlertEngine.invalidateConditions(patientId);
+            eventPublisher.publishEvent(new PatientChangedEvent(patientId, PatientChangedEvent.Aspect.CONDITIONS));
+        });
         medicalConditionRepository.deleteById(conditionId);
     }
+
+    public ResourceVersion getProfileVersion(Long userId) {
+        ResourceVersion userVersion = patientRepository.findProfileVersionByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Patient not found"));
+        // The profile embeds health metrics and conditions
+        return userVersion.and(getHealthMetricsVersion(userId)).and(getConditionsVersion(userId));
+    }
+
+    public ResourceVersion getHealthMetricsVersion(Long userId) {
+        return healthMetricsRepository.findVersionByUserId(userId)
+                .orElse(ResourceVersion.NONE);
+    }
+
+    public ResourceVersion getConditionsVersion(Long userId) {
+        return medicalConditionRepository.findVersionByUserId(userId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,341 @@
+package com.medease.service;
+
+import com.medease.chat.ChatConnection;
+import com.medease.chat.TimerWheel;
+import com.medease.dto.PresenceState;
+import com.medease.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Online, idle and typing state of chat users. State changes only mark the
+// affected rooms; a ticker running maxTicksPerSecond times a second sends each
+// room one frame with the members whose state differs from what the room was
+// last told. A burst of typing_start/typing_stop therefore costs a room at
+// most one frame per tick, and flapping back to the previous state costs
+// nothing. Typing and idle expiry run on timer wheels advanced by the same
+// ticker, so pushing a deadline back is a slot move rather than a scheduled
+// task per user.
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    @Autowired
+    private ChatService chatService;
+
+    @Value("${medease.presence.max-ticks-per-second:4}")
+    private int maxTicksPerSecond;
+
+    @Value("${medease.presence.typing-timeout-ms:6000}")
+    private long typingTimeoutMs;
+
+    @Value("${medease.presence.idle-after-ms:300000}")
+    private long idleAfterMs;
+
+    @Value("${medease.presence.wheel-slots:512}")
+    private int wheelSlots;
+
+    private final Map<Long, UserPresence> users = new ConcurrentHashMap<>();
+    private final Map<Long, RoomPresence> rooms = new ConcurrentHashMap<>();
+
+    // Guarded by themselves
+    private TimerWheel<TypingKey> typingTimers;
+    private TimerWheel<Long> idleTimers;
+
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void start() {
+        long tickMillis = Math.max(1, 1000 / maxTicksPerSecond);
+        long now = System.currentTimeMillis();
+        typingTimers = new TimerWheel<>(tickMillis, wheelSlots, now);
+        idleTimers = new TimerWheel<>(tickMillis, wheelSlots, now);
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "presence-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    public void connected(ChatConnection connection) {
+        UserPrincipal principal = connection.getPrincipal();
+        UserPresence user = users.compute(principal.getId(), (id, existing) -> {
+            UserPresence presence = existing != null ? existing
+                    : new UserPresence(id, principal.getFirstName() + " " + principal.getLastName());
+            presence.connections++;
+            return presence;
+        });
+        activity(user);
+    }
+
+    // Marks the user present in the room and sends the joiner everyone's current state
+    public void joined(ChatConnection connection, Long roomId) {
+        UserPresence user = users.get(connection.getPrincipal().getId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            // A repeated join_room from the same connection counts once
+            Set<ChatConnection> joinedBy = user.rooms.computeIfAbsent(roomId, id -> new HashSet<>());
+            if (joinedBy.add(connection) && joinedBy.size() == 1) {
+                mark(roomId, user);
+            }
+        }
+        activity(user);
+
+        List<PresenceState> members = new ArrayList<>();
+        rooms.computeIfPresent(roomId, (id, room) -> {
+            Map<Long, PresenceState> current = new HashMap<>(room.sent);
+            current.putAll(room.pending);
+            for (PresenceState state : current.values()) {
+                if (state.getStatus() != PresenceState.Status.OFFLINE) {
+                    members.add(state);
+                }
+            }
+            return room;
+        });
+        connection.send(frame(roomId, members, true));
+    }
+
+    public void left(ChatConnection connection, Long roomId) {
+        UserPresence user = users.get(connection.getPrincipal().getId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            Set<ChatConnection> joinedBy = user.rooms.get(roomId);
+            if (joinedBy != null && joinedBy.remove(connection) && joinedBy.isEmpty()) {
+                user.rooms.remove(roomId);
+                user.typingRooms.remove(roomId);
+                cancelTyping(user.userId, roomId);
+                mark(roomId, user, PresenceState.Status.OFFLINE, false);
+            }
+        }
+    }
+
+    public void disconnected(ChatConnection connection) {
+        for (Long roomId : connection.getRooms()) {
+            left(connection, roomId);
+        }
+        users.computeIfPresent(connection.getPrincipal().getId(), (id, user) -> {
+            if (--user.connections > 0) {
+                return user;
+            }
+            synchronized (idleTimers) {
+                idleTimers.cancel(id);
+            }
+            return null;
+        });
+    }
+
+    // typing_start refreshes the timeout; the flag drops by itself if typing_stop never comes
+    public void typing(ChatConnection connection, Long roomId, boolean typing) {
+        UserPresence user = users.get(connection.getPrincipal().getId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            if (!user.rooms.containsKey(roomId)) {
+                throw new RuntimeException("Join the room before typing");
+            }
+            if (typing) {
+                synchronized (typingTimers) {
+                    typingTimers.schedule(new TypingKey(user.userId, roomId), System.currentTimeMillis() + typingTimeoutMs);
+                }
+                if (user.typingRooms.add(roomId)) {
+                    mark(roomId, user);
+                }
+            } else if (user.typingRooms.remove(roomId)) {
+                cancelTyping(user.userId, roomId);
+                mark(roomId, user);
+            }
+        }
+        activity(user);
+    }
+
+    // Sending a message ends typing in that room and counts as activity
+    public void sent(ChatConnection connection, Long roomId) {
+        typing(connection, roomId, false);
+    }
+
+    private void activity(UserPresence user) {
+        synchronized (idleTimers) {
+            idleTimers.schedule(user.userId, System.currentTimeMillis() + idleAfterMs);
+        }
+        synchronized (user) {
+            if (user.idle) {
+                user.idle = false;
+                for (Long roomId : user.rooms.keySet()) {
+                    mark(roomId, user);
+                }
+            }
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<TypingKey> typingExpired;
+            synchronized (typingTimers) {
+                typingExpired = typingTimers.advance(now);
+            }
+            for (TypingKey key : typingExpired) {
+                UserPresence user = users.get(key.userId);
+                if (user != null) {
+                    synchronized (user) {
+                        if (user.typingRooms.remove(key.roomId)) {
+                            mark(key.roomId, user);
+                        }
+                    }
+                }
+            }
+            List<Long> idleExpired;
+            synchronized (idleTimers) {
+                idleExpired = idleTimers.advance(now);
+            }
+            for (Long userId : idleExpired) {
+                UserPresence user = users.get(userId);
+                if (user != null) {
+                    synchronized (user) {
+                        if (!user.idle) {
+                            user.idle = true;
+                            for (Long roomId : user.rooms.keySet()) {
+                                mark(roomId, user);
+                            }
+                        }
+                    }
+                }
+            }
+            flush();
+        } catch (RuntimeException e) {
+            // An exception would cancel the fixed-rate schedule
+            logger.error("Presence tick failed", e);
+        }
+    }
+
+    // One frame per room with pending changes, holding only what differs from the last frame
+    private void flush() {
+        for (Long roomId : rooms.keySet()) {
+            List<PresenceState> changes = new ArrayList<>();
+            rooms.computeIfPresent(roomId, (id, room) -> {
+                for (PresenceState state : room.pending.values()) {
+                    PresenceState previous = room.sent.get(state.getUserId());
+                    // Someone who came and went within one tick was never announced, so needs no goodbye
+                    if (previous == null ? state.getStatus() != PresenceState.Status.OFFLINE : !state.sameAs(previous)) {
+                        changes.add(state);
+                    }
+                    if (state.getStatus() == PresenceState.Status.OFFLINE) {
+                        room.sent.remove(state.getUserId());
+                    } else {
+                        room.sent.put(state.getUserId(), state);
+                    }
+                }
+                room.pending.clear();
+                return room.sent.isEmpty() ? null : room;
+            });
+            if (!changes.isEmpty()) {
+                chatService.broadcast(roomId, frame(roomId, changes, false));
+            }
+        }
+    }
+
+    // Must hold the user's lock
+    private void mark(Long roomId, UserPresence user) {
+        mark(roomId, user, user.idle ? PresenceState.Status.IDLE : PresenceState.Status.ONLINE,
+                user.typingRooms.contains(roomId));
+    }
+
+    private void mark(Long roomId, UserPresence user, PresenceState.Status status, boolean typing) {
+        PresenceState state = new PresenceState(user.userId, user.name, status, typing);
+        rooms.compute(roomId, (id, room) -> {
+            RoomPresence presence = room != null ? room : new RoomPresence();
+            presence.pending.put(user.userId, state);
+            return presence;
+        });
+    }
+
+    private void cancelTyping(Long userId, Long roomId) {
+        synchronized (typingTimers) {
+            typingTimers.cancel(new TypingKey(userId, roomId));
+        }
+    }
+
+    private TextMessage frame(Long roomId, List<PresenceState> members, boolean snapshot) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "presence");
+        frame.put("roomId", roomId);
+        frame.put("snapshot", snapshot);
+        frame.put("members", members);
+        return new TextMessage(chatService.toJson(frame));
+    }
+
+    private static final class UserPresence {
+        private final Long userId;
+        private final String name;
+        // Only changed inside compute on the users map
+        private int connections;
+        // The rest is guarded by this
+        private boolean idle;
+        // roomId -> connections of this user joined to it
+        private final Map<Long, Set<ChatConnection>> rooms = new HashMap<>();
+        private final Set<Long> typingRooms = new HashSet<>();
+
+        private UserPresence(Long userId, String name) {
+            this.userId = userId;
+            this.name = name;
+        }
+    }
+
+    // Only touched inside ConcurrentHashMap.compute on the rooms map, which serializes access per room
+    private static final class RoomPresence {
+        // What the room's subscribers were last told, absent once they were told OFFLINE
+        private final Map<Long, PresenceState> sent = new HashMap<>();
+        // Latest state per user since the last tick
+        private final Map<Long, PresenceState> pending = new HashMap<>();
+    }
+
+    private static final class TypingKey {
+        private final Long userId;
+        private final Long roomId;
+
+        private TypingKey(Long userId, Long roomId) {
+            this.userId = userId;
+            this.roomId = roomId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TypingKey key && userId.equals(key.userId) && roomId.equals(key.roomId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, roomId);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.medease.service;
+
+import com.medease.dto.RatingSummary;
+import com.medease.entity.Doctor;
+import com.medease.entity.Patient;
+import com.medease.entity.Review;
+import com.medease.event.ReviewSubmittedEvent;
+import com.medease.repository.DoctorRepository;
+import com.medease.repository.PatientRepository;
+import com.medease.repository.ReviewRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ReviewService {
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRatingAggregator doctorRatingAggregator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public Review submitReview(Long patientId, Long doctorId, Integer rating, String comment) {
+        if (rating == null || rating < 1 || rating > 5) {
+            throw new RuntimeException("Rating must be between 1 and 5");
+        }
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new RuntimeException("Doctor not found");
+        }
+
+        // References only: the doctor row is neither read nor locked here
+        Doctor doctor = doctorRepository.getReferenceById(doctorId);
+        Patient patient = patientRepository.getReferenceById(patientId);
+
+        Review saved = reviewRepository.save(new Review(doctor, patient, rating, comment));
+        eventPublisher.publishEvent(new ReviewSubmittedEvent(doctorId, rating));
+        return saved;
+    }
+
+    public Page<Review> getDoctorReviews(Long doctorId, Pageable pageable) {
+        return reviewRepository.findByDoctorIdOrderByCreatedAtDesc(doctorId, pageable);
+    }
+
+    public RatingSummary getRatingSummary(Long doctorId) {
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+
+        // Fold in scores that have not been flushed yet
+        double[] pending = doctorRatingAggregator.pendingFor(doctorId);
+        double storedCount = doctor.getTotalReviews() != null ? doctor.getTotalReviews() : 0;
+        double storedRating = doctor.getRating() != null ? doctor.getRating() : 0.0;
+        double count = storedCount + pending[1];
+        double rating = count > 0 ? (storedRating * storedCount + pending[0]) / count : 0.0;
+
+        return new RatingSummary(doctorId, Math.round(rating * 100.0) / 100.0, (int) count);
+    }
+}
@@ -0,0 +1,165 @@
+package com.medease.service;
+
+import com.medease.chat.ChatConnection;
+import com.medease.entity.Appointment;
+import com.medease.event.AppointmentStatusChangedEvent;
+import com.medease.repository.AppointmentRepository;
+import com.medease.security.UserPrincipal;
+import com.medease.signaling.CallSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// WebRTC signaling for consultation video calls. The server never looks inside
+// offers, answers or ICE candidates: once both sides have joined an
+// appointment's call, each such frame is passed to the other side as the very
+// TextMessage that arrived. Sockets reuse the chat connections' bounded
+// queues and writer pool. A call exists only while someone is in it and is
+// torn down, closing both sockets, as soon as its appointment stops being
+// active.
+@Service
+public class SignalingService {
+
+    private static final Set<Appointment.AppointmentStatus> ACTIVE = EnumSet.of(
+            Appointment.AppointmentStatus.SCHEDULED,
+            Appointment.AppointmentStatus.CONFIRMED,
+            Appointment.AppointmentStatus.IN_PROGRESS);
+
+    private static final CloseStatus CALL_ENDED = CloseStatus.NORMAL.withReason("Appointment ended");
+    private static final CloseStatus REPLACED = CloseStatus.NORMAL.withReason("Joined from another connection");
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final Map<Long, CallSession> calls = new ConcurrentHashMap<>();
+
+    public ChatConnection connect(WebSocketSession session, UserPrincipal principal) {
+        return chatService.connect(session, principal);
+    }
+
+    public CallSession join(ChatConnection connection, Long appointmentId) {
+        List<Object[]> rows = appointmentRepository.findParticipantsById(appointmentId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Appointment not found");
+        }
+        Object[] row = rows.get(0);
+        Long patientId = (Long) row[1];
+        Long doctorId = (Long) row[2];
+        UserPrincipal principal = connection.getPrincipal();
+        boolean asDoctor = doctorId.equals(principal.getDoctorId());
+        if (!asDoctor && !patientId.equals(principal.getPatientId())) {
+            throw new RuntimeException("Not a participant in this appointment");
+        }
+        if (row[3] != Appointment.AppointmentType.CONSULTATION) {
+            throw new RuntimeException("Video calls are only available for consultations");
+        }
+        if (!ACTIVE.contains((Appointment.AppointmentStatus) row[4])) {
+            throw new RuntimeException("Appointment has ended");
+        }
+
+        ChatConnection[] replaced = new ChatConnection[1];
+        CallSession call = calls.compute(appointmentId, (id, existing) -> {
+            CallSession session = existing != null ? existing : new CallSession(id, patientId, doctorId);
+            replaced[0] = session.attach(connection, asDoctor);
+            return session;
+        });
+        if (replaced[0] != null) {
+            replaced[0].close(REPLACED);
+        }
+        ChatConnection peer = call.peerOf(connection);
+        if (peer != null) {
+            peer.send(frame("peer_joined", appointmentId, null));
+        }
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("role", asDoctor ? "DOCTOR" : "PATIENT");
+        extra.put("peerConnected", peer != null);
+        connection.send(frame("joined", appointmentId, extra));
+        return call;
+    }
+
+    // Passes an offer, answer or ICE candidate to the other side unchanged
+    public void relay(ChatConnection connection, CallSession call, TextMessage frame) {
+        ChatConnection peer = call.peerOf(connection);
+        if (peer == null) {
+            throw new RuntimeException(call.isAttached(connection) ? "Peer is not connected" : "Not in this call");
+        }
+        peer.send(frame);
+    }
+
+    public void leave(ChatConnection connection, CallSession call) {
+        ChatConnection[] peer = new ChatConnection[1];
+        calls.computeIfPresent(call.getAppointmentId(), (id, existing) -> {
+            // A replaced or ended socket has nothing left to clean up
+            if (existing != call || !call.isAttached(connection)) {
+                return existing;
+            }
+            peer[0] = call.peerOf(connection);
+            return call.detach(connection) ? null : call;
+        });
+        if (peer[0] != null) {
+            peer[0].send(frame("peer_left", call.getAppointmentId(), null));
+        }
+    }
+
+    public void disconnect(ChatConnection connection, CallSession call) {
+        connection.closed();
+        if (call != null) {
+            leave(connection, call);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentStatusChanged(AppointmentStatusChangedEvent event) {
+        if (!ACTIVE.contains(event.getStatus())) {
+            end(event.getAppointmentId());
+        }
+    }
+
+    // Catches appointments that ended while one side was still joining
+    @Scheduled(fixedDelayString = "${medease.signaling.sweep-ms:60000}")
+    public void endFinishedCalls() {
+        if (calls.isEmpty()) {
+            return;
+        }
+        for (Long appointmentId : appointmentRepository.findEndedIds(new ArrayList<>(calls.keySet()))) {
+            end(appointmentId);
+        }
+    }
+
+    private void end(Long appointmentId) {
+        CallSession call = calls.remove(appointmentId);
+        if (call == null) {
+            return;
+        }
+        for (ChatConnection connection : call.end()) {
+            if (connection != null) {
+                connection.close(CALL_ENDED);
+            }
+        }
+    }
+
+    public TextMessage frame(String type, Long appointmentId, Map<String, Object> extra) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        frame.put("appointmentId", appointmentId);
+        if (extra != null) {
+            frame.putAll(extra);
+        }
+        return new TextMessage(chatService.toJson(frame));
+    }
+}
@@ -0,0 +1,405 @@
+package com.medease.service;
+
+import com.medease.entity.Appointment;
+import com.medease.entity.Role;
+import com.medease.repository.DoctorRepository;
+import com.medease.repository.PatientRepository;
+import com.medease.repository.RoleRepository;
+import com.medease.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generates production-sized data for performance work, e.g.
+// --seed.patients=1000000 --seed.doctors=5000 --seed.appointmentsPerPatient=20.
+// Accounts are generated in blocks of batchSize, each from its own random
+// stream derived from seed.random-seed and the block number. Ages, careers
+// and appointment dates and statuses are laid out around seed.reference-date,
+// so with a fixed reference date the same settings always produce the same
+// people and appointments however the blocks are spread over the threads
+// (generated ids follow insertion order and may differ, and created/updated
+// timestamps record when the rows were actually inserted). Blocks are
+// inserted in parallel with JDBC batches, one transaction per block. All
+// seeded accounts share one password, hashed once: BCrypt per row would take
+// hours at this scale. Runs before the application is ready, so the in-memory
+// indexes load the seeded rows when they build.
+@Service
+public class SyntheticDataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataSeeder.class);
+
+    private static final String EMAIL_DOMAIN = "@seed.medease.test";
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (first_name, last_name, email, phone, password, date_of_birth, gender, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+    private static final String INSERT_PATIENT = "INSERT INTO patients (user_id) VALUES (?)";
+    private static final String INSERT_DOCTOR =
+            "INSERT INTO doctors (user_id, specialty, qualifications, experience_years, hospital_affiliation, latitude, longitude, " +
+            "license_number, consultation_fee, bio, rating, total_reviews, is_available, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_APPOINTMENT =
+            "INSERT INTO appointments (patient_id, doctor_id, appointment_date, status, type, reason, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] MALE_NAMES = {"James", "Robert", "John", "Michael", "David", "William", "Richard",
+            "Joseph", "Thomas", "Carlos", "Daniel", "Matthew", "Anthony", "Mark", "Wei", "Steven", "Andrew", "Kenji",
+            "Joshua", "Ahmed", "Luis", "Kevin", "Brian", "Omar", "Ravi"};
+    private static final String[] FEMALE_NAMES = {"Mary", "Patricia", "Jennifer", "Linda", "Elizabeth", "Barbara",
+            "Susan", "Jessica", "Sarah", "Karen", "Lisa", "Nancy", "Maria", "Sandra", "Ashley", "Priya", "Emily",
+            "Mei", "Fatima", "Michelle", "Aisha", "Laura", "Sofia", "Yuki", "Grace"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+            "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Nguyen", "Hill",
+            "Patel", "Kim", "Chen", "Khan", "Singh", "Cohen", "Murphy", "Rivera", "Cooper", "Reed", "Bailey", "Bell"};
+    private static final String[] SPECIALTIES = {"General Practice", "Internal Medicine", "Pediatrics", "Cardiology",
+            "Dermatology", "Orthopedics", "Neurology", "Psychiatry", "Obstetrics and Gynecology", "Ophthalmology",
+            "Endocrinology", "Gastroenterology", "Pulmonology", "Oncology", "Urology", "Rheumatology"};
+    // Roughly how common each specialty is among practising doctors
+    private static final int[] SPECIALTY_WEIGHTS = {20, 14, 10, 6, 4, 6, 4, 6, 6, 3, 3, 4, 3, 4, 3, 2};
+    private static final String[] QUALIFICATIONS = {"MD", "MD, FACP", "DO", "MD, PhD", "MBBS", "MD, FAAP"};
+    private static final String[] HOSPITALS = {"City General Hospital", "Community Health Center", "St. Mary's Medical Center",
+            "University Hospital", "Riverside Clinic", "Mercy Hospital", "Lakeside Family Practice", "Northside Medical Group"};
+    // Cities doctors cluster around, as latitude, longitude
+    private static final double[][] CITIES = {{40.7128, -74.0060}, {34.0522, -118.2437}, {41.8781, -87.6298},
+            {29.7604, -95.3698}, {33.4484, -112.0740}, {39.9526, -75.1652}, {32.7157, -117.1611}, {47.6062, -122.3321},
+            {42.3601, -71.0589}, {25.7617, -80.1918}};
+    private static final String[] REASONS = {"Annual checkup", "Follow-up visit", "Blood pressure review",
+            "Persistent cough", "Back pain", "Skin rash", "Headaches", "Medication review", "Lab results discussion",
+            "Chest pain", "Fatigue", "Joint pain", "Diabetes management", "Vaccination", "Sleep problems"};
+    private static final Appointment.AppointmentType[] TYPES = {Appointment.AppointmentType.CONSULTATION,
+            Appointment.AppointmentType.FOLLOW_UP, Appointment.AppointmentType.ROUTINE_CHECKUP,
+            Appointment.AppointmentType.SPECIALIST_REFERRAL, Appointment.AppointmentType.EMERGENCY};
+    private static final int[] TYPE_WEIGHTS = {45, 25, 20, 7, 3};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Value("${seed.patients:0}")
+    private int patients;
+
+    @Value("${seed.doctors:0}")
+    private int doctors;
+
+    @Value("${seed.appointmentsPerPatient:0}")
+    private int appointmentsPerPatient;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    // ISO date; empty means the day seeding runs
+    @Value("${seed.reference-date:}")
+    private String referenceDate;
+
+    @Value("${seed.threads:0}")
+    private int configuredThreads;
+
+    @Value("${seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${seed.password:password123}")
+    private String password;
+
+    // Set before any block runs
+    private LocalDate referenceDay;
+
+    public boolean isEnabled() {
+        return patients > 0 || doctors > 0;
+    }
+
+    public void seed() {
+        if (userRepository.existsByEmail(email("doctor", 1)) || userRepository.existsByEmail(email("patient", 1))) {
+            logger.warn("Synthetic data is already present, not seeding again");
+            return;
+        }
+        referenceDay = referenceDate.isBlank() ? LocalDate.now() : LocalDate.parse(referenceDate);
+        int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "seed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long started = System.nanoTime();
+        try {
+            String passwordHash = passwordEncoder.encode(password);
+            Long patientRole = roleRepository.findByName(Role.RoleName.ROLE_PATIENT)
+                    .orElseThrow(() -> new RuntimeException("Role not found")).getId();
+            Long doctorRole = roleRepository.findByName(Role.RoleName.ROLE_DOCTOR)
+                    .orElseThrow(() -> new RuntimeException("Role not found")).getId();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            logger.info("Seeding {} doctors and {} patients with {} appointments each on {} threads (seed {}, reference date {})",
+                    doctors, patients, appointmentsPerPatient, threads, randomSeed, referenceDay);
+
+            long[] seededDoctors = new long[doctors];
+            long rows = runBlocks(pool, "doctors", doctors, 1, (from, to, random) ->
+                    transaction.execute(status -> insertDoctors(from, to, random, passwordHash, doctorRole, seededDoctors)));
+            // Without seeded doctors, appointments go to whichever doctors exist
+            long[] doctorIds = doctors > 0 ? seededDoctors
+                    : jdbcTemplate.queryForList("SELECT id FROM doctors ORDER BY id", Long.class)
+                            .stream().mapToLong(Long::longValue).toArray();
+            rows += runBlocks(pool, "patients", patients, 2, (from, to, random) ->
+                    transaction.execute(status -> insertPatients(from, to, random, passwordHash, patientRole, doctorIds)));
+
+            double seconds = (System.nanoTime() - started) / 1e9;
+            logger.info("Seeded {} rows in {} s, {} rows/s", rows, String.format("%.1f", seconds), Math.round(rows / seconds));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Runs [0, count) in blocks of batchSize on the pool and returns the rows written
+    private long runBlocks(ExecutorService pool, String what, int count, long stream, Block block) {
+        if (count <= 0) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        AtomicInteger finished = new AtomicInteger();
+        int blocks = (count + batchSize - 1) / batchSize;
+        int reportEvery = Math.max(1, blocks / 10);
+        List<Future<?>> futures = new ArrayList<>(blocks);
+        for (int b = 0; b < blocks; b++) {
+            int from = b * batchSize;
+            int to = Math.min(from + batchSize, count);
+            // Multiplying by the generator's own gamma would make neighbouring blocks' streams overlap
+            SplittableRandom random = new SplittableRandom(randomSeed ^ (stream << 56) ^ (b * 0xBF58476D1CE4E5B9L));
+            futures.add(pool.submit(() -> {
+                rows.addAndGet(block.insert(from, to, random));
+                int done = finished.incrementAndGet();
+                if (done % reportEvery == 0 && done < blocks) {
+                    double seconds = (System.nanoTime() - started) / 1e9;
+                    logger.info("Seeding {}: {}/{} blocks, {} rows/s", what, done, blocks, Math.round(rows.get() / seconds));
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Seeding interrupted");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Seeding " + what + " failed", e.getCause());
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        logger.info("Seeded {} {} ({} rows) in {} s, {} rows/s", count, what, rows.get(),
+                String.format("%.1f", seconds), Math.round(rows.get() / seconds));
+        return rows.get();
+    }
+
+    private long insertDoctors(int from, int to, SplittableRandom random, String passwordHash, Long roleId, long[] doctorIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Person> people = people("doctor", from, to, random, 28, 70);
+        Map<Long, Integer> indexByUser = insertUsers(people, passwordHash, roleId, now);
+        jdbcTemplate.batchUpdate(INSERT_DOCTOR, people, batchSize, (statement, person) -> {
+            SplittableRandom r = person.random;
+            double[] city = CITIES[r.nextInt(CITIES.length)];
+            int experience = Math.max(1, referenceDay.getYear() - person.dateOfBirth.getYear() - 28 + r.nextInt(-2, 3));
+            statement.setLong(1, person.userId);
+            statement.setString(2, SPECIALTIES[weighted(r, SPECIALTY_WEIGHTS)]);
+            statement.setString(3, QUALIFICATIONS[r.nextInt(QUALIFICATIONS.length)]);
+            statement.setInt(4, experience);
+            statement.setString(5, HOSPITALS[r.nextInt(HOSPITALS.length)]);
+            // Within about 30 km of the city centre
+            statement.setDouble(6, city[0] + r.nextDouble(-0.27, 0.27));
+            statement.setDouble(7, city[1] + r.nextDouble(-0.35, 0.35));
+            statement.setString(8, "SD" + (1_000_000 + person.index));
+            statement.setBigDecimal(9, BigDecimal.valueOf(50 + r.nextInt(0, 31) * 10L).setScale(2));
+            statement.setString(10, person.firstName + " " + person.lastName + " has practised for " + experience + " years.");
+            statement.setDouble(11, Math.round(r.nextDouble(3.0, 5.0) * 10) / 10.0);
+            statement.setInt(12, r.nextInt(0, 500));
+            statement.setBoolean(13, r.nextInt(10) != 0);
+            statement.setTimestamp(14, now);
+            statement.setTimestamp(15, now);
+        });
+        for (Object[] idAndUserId : doctorRepository.findIdAndUserIdByUserIdIn(indexByUser.keySet())) {
+            doctorIds[indexByUser.get((Long) idAndUserId[1])] = (Long) idAndUserId[0];
+        }
+        return people.size() * 3L;
+    }
+
+    private long insertPatients(int from, int to, SplittableRandom random, String passwordHash, Long roleId, long[] doctorIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Person> people = people("patient", from, to, random, 0, 95);
+        Map<Long, Integer> indexByUser = insertUsers(people, passwordHash, roleId, now);
+        jdbcTemplate.batchUpdate(INSERT_PATIENT, people, batchSize,
+                (statement, person) -> statement.setLong(1, person.userId));
+        long rows = people.size() * 3L;
+        if (appointmentsPerPatient <= 0 || doctorIds.length == 0) {
+            return rows;
+        }
+
+        long[] patientIds = new long[people.size()];
+        for (Object[] idAndUserId : patientRepository.findIdAndUserIdByUserIdIn(indexByUser.keySet())) {
+            patientIds[indexByUser.get((Long) idAndUserId[1]) - from] = (Long) idAndUserId[0];
+        }
+        LocalDateTime reference = referenceDay.atStartOfDay();
+        List<Object[]> appointments = new ArrayList<>(people.size() * appointmentsPerPatient);
+        for (int i = 0; i < people.size(); i++) {
+            SplittableRandom r = people.get(i).random;
+            // Patients mostly stay with a few doctors; popular doctors see more patients
+            long[] own = new long[3];
+            for (int k = 0; k < own.length; k++) {
+                own[k] = doctorIds[(int) (doctorIds.length * Math.pow(r.nextDouble(), 2))];
+            }
+            for (int a = 0; a < appointmentsPerPatient; a++) {
+                // Two years back to three months ahead, on the half hour in office hours
+                LocalDate day = referenceDay.plusDays(r.nextInt(-730, 91));
+                LocalDateTime when = day.atTime(9 + r.nextInt(8), r.nextBoolean() ? 0 : 30);
+                long doctorId = r.nextInt(5) == 0 ? doctorIds[r.nextInt(doctorIds.length)] : own[r.nextInt(own.length)];
+                appointments.add(new Object[] {patientIds[i], doctorId, Timestamp.valueOf(when),
+                        status(r, when.isBefore(reference)).name(),
+                        TYPES[weighted(r, TYPE_WEIGHTS)].name(), REASONS[r.nextInt(REASONS.length)], now, now});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_APPOINTMENT, appointments, batchSize, (statement, row) -> {
+            for (int c = 0; c < row.length; c++) {
+                statement.setObject(c + 1, row[c]);
+            }
+        });
+        return rows + appointments.size();
+    }
+
+    // Inserts the users and their role, sets their ids and returns seed index by user id
+    private Map<Long, Integer> insertUsers(List<Person> people, String passwordHash, Long roleId, Timestamp now) {
+        jdbcTemplate.batchUpdate(INSERT_USER, people, batchSize, (statement, person) -> {
+            statement.setString(1, person.firstName);
+            statement.setString(2, person.lastName);
+            statement.setString(3, person.email);
+            statement.setString(4, person.phone);
+            statement.setString(5, passwordHash);
+            statement.setDate(6, Date.valueOf(person.dateOfBirth));
+            statement.setString(7, person.gender);
+            statement.setTimestamp(8, now);
+            statement.setTimestamp(9, now);
+        });
+        Map<String, Person> byEmail = new HashMap<>();
+        for (Person person : people) {
+            byEmail.put(person.email, person);
+        }
+        Map<Long, Integer> indexByUser = new HashMap<>();
+        for (Object[] idAndEmail : userRepository.findIdsByEmailIn(byEmail.keySet())) {
+            Person person = byEmail.get((String) idAndEmail[1]);
+            person.userId = (Long) idAndEmail[0];
+            indexByUser.put(person.userId, person.index);
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, people, batchSize, (statement, person) -> {
+            statement.setLong(1, person.userId);
+            statement.setLong(2, roleId);
+        });
+        return indexByUser;
+    }
+
+    private List<Person> people(String kind, int from, int to, SplittableRandom random, int minAge, int maxAge) {
+        List<Person> people = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            Person person = new Person();
+            person.index = index;
+            // Each person draws from a stream split off in order, so a row never depends on how many draws another took
+            person.random = random.split();
+            boolean female = person.random.nextInt(100) < 51;
+            person.firstName = female ? FEMALE_NAMES[person.random.nextInt(FEMALE_NAMES.length)]
+                    : MALE_NAMES[person.random.nextInt(MALE_NAMES.length)];
+            person.lastName = LAST_NAMES[person.random.nextInt(LAST_NAMES.length)];
+            person.gender = female ? "FEMALE" : "MALE";
+            person.email = email(kind, index + 1);
+            person.phone = String.valueOf(2_000_000_000L + person.random.nextLong(7_000_000_000L));
+            person.dateOfBirth = referenceDay.minusYears(person.random.nextInt(minAge, maxAge + 1))
+                    .minusDays(person.random.nextInt(365));
+            people.add(person);
+        }
+        return people;
+    }
+
+    private static Appointment.AppointmentStatus status(SplittableRandom random, boolean past) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 82 ? Appointment.AppointmentStatus.COMPLETED
+                    : roll < 93 ? Appointment.AppointmentStatus.CANCELLED : Appointment.AppointmentStatus.NO_SHOW;
+        }
+        return roll < 55 ? Appointment.AppointmentStatus.SCHEDULED
+                : roll < 93 ? Appointment.AppointmentStatus.CONFIRMED : Appointment.AppointmentStatus.CANCELLED;
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String email(String kind, int number) {
+        return kind + number + EMAIL_DOMAIN;
+    }
+
+    private interface Block {
+        long insert(int from, int to, SplittableRandom random);
+    }
+
+    private static final class Person {
+        private int index;
+        private SplittableRandom random;
+        private String firstName;
+        private String lastName;
+        private String gender;
+        private String email;
+        private String phone;
+        private LocalDate dateOfBirth;
+        private Long userId;
+    }
+}
@@ -1,27 +1,86 @@
 package com.medease.service;
 
+import com.medease.entity.Role;
 import com.medease.entity.User;
+import com.medease.repository.DoctorRepository;
+import com.medease.repository.PatientRepository;
 import com.medease.repository.UserRepository;
 import com.medease.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Value("${medease.security.profile-cache-size:10000}")
+    private int profileCacheSize;
+
+    // userId -> {patientId, doctorId}. A user's profile ids never change once
+    // created, so entries only leave the cache by LRU eviction.
+    private final Map<Long, Long[]> profileIds = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long[]> eldest) {
+            return size() > profileCacheSize;
+        }
+    };
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmailWithRoles(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
 
-        return UserPrincipal.create(user);
+        UserPrincipal principal = UserPrincipal.create(user);
+        Long[] ids = resolveProfileIds(user);
+        principal.setPatientId(ids[0]);
+        principal.setDoctorId(ids[1]);
+        return principal;
+    }
+
+    private Long[] resolveProfileIds(User user) {
+        synchronized (profileIds) {
+            Long[] cached = profileIds.get(user.getId());
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Long patientId = null;
+        Long doctorId = null;
+        for (Role role : user.getRoles()) {
+            if (role.getName() == Role.RoleName.ROLE_PATIENT) {
+                patientId = patientRepository.findIdByUserId(user.getId()).orElse(null);
+            } else if (role.getName() == Role.RoleName.ROLE_DOCTOR) {
+                doctorId = doctorRepository.findIdByUserId(user.getId()).orElse(null);
+            }
+        }
+        Long[] ids = {patientId, doctorId};
+        // A missing profile may still be mid-registration, so only cache complete lookups
+        boolean complete = user.getRoles().stream().noneMatch(role ->
+                (role.getName() == Role.RoleName.ROLE_PATIENT && ids[0] == null)
+                        || (role.getName() == Role.RoleName.ROLE_DOCTOR && ids[1] == null));
+        if (complete) {
+            synchronized (profileIds) {
+                profileIds.put(user.getId(), ids);
+            }
+        }
+        return ids;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,283 @@
+package com.medease.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.dto.BulkIngestResponse;
+import com.medease.dto.VitalReading;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.VitalSign;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Streams a JSON array of device readings: elements are parsed one at a time
+// and processed in fixed-size batches, each in its own transaction. A batch
+// holding a sign's newest reading also moves the patient's HealthMetrics
+// snapshot for that sign.
+@Service
+public class VitalsIngestionService {
+
+    private static final String INSERT_KEY =
+            "INSERT INTO device_readings (patient_id, device_id, recorded_at) VALUES (?, ?, ?)";
+    private static final String SELECT_KEYS =
+            "SELECT device_id, recorded_at FROM device_readings WHERE patient_id = ? AND recorded_at BETWEEN ? AND ?";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VitalsTimeSeriesService vitalsTimeSeriesService;
+
+    @Autowired
+    private HealthAlertEngine healthAlertEngine;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Value("${medease.ingest.batch-size:500}")
+    private int batchSize;
+
+    public BulkIngestResponse ingest(Long patientId, InputStream body) throws IOException {
+        long started = System.nanoTime();
+        BulkIngestResponse response = new BulkIngestResponse();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Expected a JSON array of readings");
+            }
+            List<Item> batch = new ArrayList<>(batchSize);
+            int index = 0;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new JsonParseException(parser, "Unexpected end of input inside the array");
+                    }
+                    int position = index++;
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        response.record(position, BulkIngestResponse.Status.REJECTED, "Reading must be a JSON object");
+                        continue;
+                    }
+                    // Only the current element is ever held as a tree
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        VitalReading reading = objectMapper.treeToValue(node, VitalReading.class);
+                        String error = validate(reading);
+                        if (error != null) {
+                            response.record(position, BulkIngestResponse.Status.REJECTED, error);
+                            continue;
+                        }
+                        // The column keeps microseconds, and the dedupe key must match what is stored
+                        reading.setTimestamp(reading.getTimestamp().truncatedTo(ChronoUnit.MICROS));
+                        batch.add(new Item(position, reading));
+                    } catch (IOException | IllegalArgumentException e) {
+                        response.record(position, BulkIngestResponse.Status.REJECTED, "Malformed reading");
+                        continue;
+                    }
+                    if (batch.size() >= batchSize) {
+                        if (!flush(patientId, batch, response, transaction)) {
+                            break;
+                        }
+                        batch.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // Elements parsed before the bad one are still stored and reported
+                int parsed = response.getResults().size() + batch.size();
+                response.setMalformed(true);
+                response.setError("Body is not valid JSON after " + parsed + " elements: " + e.getOriginalMessage()
+                        + "; the elements before it were processed");
+            }
+            if (!batch.isEmpty() && (response.getError() == null || response.isMalformed())) {
+                flush(patientId, batch, response, transaction);
+            }
+        }
+
+        response.getResults().sort(Comparator.comparingInt(BulkIngestResponse.ItemResult::getIndex));
+        long elapsedNanos = System.nanoTime() - started;
+        response.setElapsedMs(elapsedNanos / 1_000_000);
+        int processed = response.getAccepted() + response.getDuplicates() + response.getRejected();
+        response.setReadingsPerSecond(elapsedNanos > 0 ? Math.round(processed * 1e9 / elapsedNanos) : 0);
+        return response;
+    }
+
+    // Results are only recorded once the batch has committed. Returns false when
+    // a concurrent upload of the same readings won the race; earlier batches stay
+    // committed and reported, and a retry reports them as duplicates.
+    private boolean flush(Long patientId, List<Item> batch, BulkIngestResponse response, TransactionTemplate transaction) {
+        List<BulkIngestResponse.ItemResult> outcomes = new ArrayList<>(batch.size());
+        try {
+            transaction.executeWithoutResult(status -> write(patientId, batch, outcomes));
+        } catch (DuplicateKeyException e) {
+            response.setMalformed(false);
+            response.setError("Readings from index " + batch.get(0).index
+                    + " on were not stored because a concurrent upload of the same readings committed first; retry them");
+            return false;
+        }
+        for (BulkIngestResponse.ItemResult outcome : outcomes) {
+            response.record(outcome.getIndex(), outcome.getStatus(), outcome.getMessage());
+        }
+        return true;
+    }
+
+    private void write(Long patientId, List<Item> batch, List<BulkIngestResponse.ItemResult> outcomes) {
+        List<Item> fresh = dropDuplicates(patientId, batch, outcomes);
+        if (fresh.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_KEY, fresh, fresh.size(), (statement, item) -> {
+            statement.setLong(1, patientId);
+            statement.setString(2, item.reading.getDeviceId());
+            statement.setTimestamp(3, Timestamp.valueOf(item.reading.getTimestamp()));
+        });
+
+        fresh.sort(Comparator.comparing(item -> item.reading.getTimestamp()));
+        long[] timestamps = new long[fresh.size()];
+        double[] values = new double[fresh.size()];
+        List<HealthMetrics> metrics = new ArrayList<>(fresh.size());
+        for (Item item : fresh) {
+            metrics.add(item.reading.toHealthMetrics());
+        }
+        Map<VitalSign, Double> newest = new EnumMap<>(VitalSign.class);
+        for (VitalSign sign : VitalSign.values()) {
+            int length = 0;
+            for (int i = 0; i < fresh.size(); i++) {
+                Double value = sign.extract(metrics.get(i));
+                if (value != null) {
+                    timestamps[length] = fresh.get(i).reading.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+                    values[length] = value;
+                    length++;
+                }
+            }
+            // Sorted by time, so the last value is the batch's newest
+            if (length > 0 && vitalsTimeSeriesService.appendAll(patientId, sign, timestamps, values, length)) {
+                newest.put(sign, values[length - 1]);
+            }
+        }
+        if (!newest.isEmpty()) {
+            patientService.applyNewestReadings(patientId, newest);
+        }
+        for (int i = 0; i < fresh.size(); i++) {
+            Item item = fresh.get(i);
+            healthAlertEngine.evaluate(patientId, item.reading.getTimestamp(), metrics.get(i));
+            outcomes.add(new BulkIngestResponse.ItemResult(item.index, BulkIngestResponse.Status.ACCEPTED, null));
+        }
+    }
+
+    private List<Item> dropDuplicates(Long patientId, List<Item> batch, List<BulkIngestResponse.ItemResult> outcomes) {
+        LocalDateTime min = batch.get(0).reading.getTimestamp();
+        LocalDateTime max = min;
+        for (Item item : batch) {
+            LocalDateTime timestamp = item.reading.getTimestamp();
+            if (timestamp.isBefore(min)) min = timestamp;
+            if (timestamp.isAfter(max)) max = timestamp;
+        }
+
+        // Earlier batches of this request are already stored, so one range query covers them too
+        Set<String> seen = new HashSet<>();
+        jdbcTemplate.query(SELECT_KEYS, resultSet -> {
+            seen.add(key(resultSet.getString(1), resultSet.getTimestamp(2).toLocalDateTime()));
+        }, patientId, Timestamp.valueOf(min), Timestamp.valueOf(max));
+
+        List<Item> fresh = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            if (seen.add(key(item.reading.getDeviceId(), item.reading.getTimestamp()))) {
+                fresh.add(item);
+            } else {
+                outcomes.add(new BulkIngestResponse.ItemResult(item.index, BulkIngestResponse.Status.DUPLICATE,
+                        "Already recorded for this device and timestamp"));
+            }
+        }
+        return fresh;
+    }
+
+    private String validate(VitalReading reading) {
+        if (reading.getDeviceId() == null || reading.getDeviceId().isBlank() || reading.getDeviceId().length() > 64) {
+            return "deviceId is required (max 64 characters)";
+        }
+        if (reading.getTimestamp() == null) {
+            return "timestamp is required";
+        }
+        if (reading.getTimestamp().isAfter(LocalDateTime.now().plusMinutes(5))) {
+            return "timestamp is in the future";
+        }
+        String error = checkRange("weight", reading.getWeight(), 1, 400);
+        if (error == null) error = checkRange("height", reading.getHeight(), 30, 250);
+        if (error == null) error = checkRange("heartRate", reading.getHeartRate(), 20, 250);
+        if (error == null) error = checkRange("bloodPressureSystolic", reading.getBloodPressureSystolic(), 50, 260);
+        if (error == null) error = checkRange("bloodPressureDiastolic", reading.getBloodPressureDiastolic(), 30, 160);
+        if (error == null) error = checkRange("bloodSugar", reading.getBloodSugar(), 20, 600);
+        if (error == null) error = checkRange("cholesterol", reading.getCholesterol(), 50, 500);
+        // Celsius or Fahrenheit
+        if (error == null) error = checkRange("temperature", reading.getTemperature(), 30, 113);
+        if (error == null && !hasAnyValue(reading)) {
+            error = "reading has no values";
+        }
+        return error;
+    }
+
+    private static boolean hasAnyValue(VitalReading reading) {
+        HealthMetrics metrics = reading.toHealthMetrics();
+        for (VitalSign sign : VitalSign.values()) {
+            if (sign.extract(metrics) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String checkRange(String field, Number value, double min, double max) {
+        if (value == null) {
+            return null;
+        }
+        double v = value.doubleValue();
+        if (Double.isNaN(v) || v < min || v > max) {
+            return field + " must be between " + (long) min + " and " + (long) max;
+        }
+        return null;
+    }
+
+    private static String key(String deviceId, LocalDateTime timestamp) {
+        return deviceId + "|" + timestamp;
+    }
+
+    private static final class Item {
+        private final int index;
+        private final VitalReading reading;
+
+        private Item(int index, VitalReading reading) {
+            this.index = index;
+            this.reading = reading;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.medease.service;
+
+import com.medease.dto.VitalStats;
+import com.medease.entity.VitalSign;
+import com.medease.entity.VitalStatsBucket;
+import com.medease.repository.VitalStatsBucketRepository;
+import com.medease.timeseries.QuantileSketch;
+import com.medease.timeseries.SeriesCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Rolling per-patient, per-metric statistics kept in daily buckets. Every
+// reading appended to the time series is folded into its day's bucket, so a
+// query merges at most one bucket per day in the window instead of decoding
+// history. Buckets are written through with the readings that changed them,
+// and the cached copies change only once that transaction commits.
+@Service
+public class VitalsStatsService {
+
+    private static final long BUCKET_SECONDS = 24 * 60 * 60;
+
+    @Autowired
+    private VitalStatsBucketRepository vitalStatsBucketRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${medease.stats.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${medease.stats.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final SeriesCache<Series> cache = new SeriesCache<>(Series::copy);
+
+    // Timestamps are epoch seconds (UTC), as in VitalsTimeSeriesService
+    @Transactional
+    public void record(Long patientId, VitalSign sign, long[] timestamps, double[] values, int length) {
+        long oldest = oldestRetainedBucket();
+        Series series = cache.acquire(patientId + ":" + sign, () -> load(patientId, sign, oldest));
+        series.buckets.headMap(oldest, false).clear();
+        Set<Bucket> dirty = new HashSet<>();
+        for (int i = 0; i < length; i++) {
+            long start = Math.floorDiv(timestamps[i], BUCKET_SECONDS) * BUCKET_SECONDS;
+            if (start < oldest) {
+                continue;
+            }
+            Bucket bucket = series.own(start);
+            bucket.add(values[i]);
+            dirty.add(bucket);
+        }
+        for (Bucket bucket : dirty) {
+            write(bucket, patientId, sign);
+        }
+    }
+
+    // The window is the current day plus the days - 1 before it
+    public VitalStats getStats(Long patientId, VitalSign sign, int days, List<Double> percentiles) {
+        if (days < 1 || days > retentionDays) {
+            throw new RuntimeException("days must be between 1 and " + retentionDays);
+        }
+        long today = Math.floorDiv(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC), BUCKET_SECONDS) * BUCKET_SECONDS;
+        long windowStart = today - (days - 1) * BUCKET_SECONDS;
+
+        Series series = cache.read(patientId + ":" + sign, () -> load(patientId, sign, oldestRetainedBucket()));
+
+        VitalStats stats = new VitalStats(sign, days, LocalDateTime.ofEpochSecond(windowStart, 0, ZoneOffset.UTC));
+        QuantileSketch merged = new QuantileSketch();
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Bucket bucket : series.buckets.tailMap(windowStart, true).values()) {
+            count += bucket.count;
+            sum += bucket.sum;
+            min = Math.min(min, bucket.min);
+            max = Math.max(max, bucket.max);
+            merged.merge(bucket.sketch);
+        }
+
+        stats.setCount(count);
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        if (count > 0) {
+            stats.setMean(round(sum / count));
+            stats.setMin(min);
+            stats.setMax(max);
+            for (Double percentile : percentiles) {
+                // The sketch is approximate; keep estimates inside the exact bounds
+                double estimate = Math.min(max, Math.max(min, merged.quantile(percentile / 100.0)));
+                quantiles.put("p" + formatPercentile(percentile), round(estimate));
+            }
+        }
+        stats.setPercentiles(quantiles);
+        return stats;
+    }
+
+    @Scheduled(cron = "${medease.stats.purge-cron:0 30 3 * * *}")
+    public void purgeExpired() {
+        long oldest = oldestRetainedBucket();
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> vitalStatsBucketRepository.deleteOlderThan(oldest));
+    }
+
+    @Scheduled(fixedDelayString = "${medease.stats.sweep-ms:60000}")
+    public void evictIdle() {
+        cache.evictIdle(idleMinutes * 60_000);
+    }
+
+    private void write(Bucket bucket, Long patientId, VitalSign sign) {
+        byte[] sketch = bucket.sketch.toByteArray();
+        if (bucket.id == null) {
+            VitalStatsBucket entity = new VitalStatsBucket(patientId, sign, bucket.start);
+            entity.setCount(bucket.count);
+            entity.setSum(bucket.sum);
+            entity.setMin(bucket.min);
+            entity.setMax(bucket.max);
+            entity.setSketch(sketch);
+            bucket.id = vitalStatsBucketRepository.save(entity).getId();
+        } else {
+            vitalStatsBucketRepository.updateStats(bucket.id, bucket.count, bucket.sum, bucket.min, bucket.max, sketch);
+        }
+    }
+
+    private Series load(Long patientId, VitalSign sign, long oldest) {
+        NavigableMap<Long, Bucket> buckets = new TreeMap<>();
+        for (VitalStatsBucket entity : vitalStatsBucketRepository
+                .findByPatientIdAndMetricAndBucketStartGreaterThanEqualOrderByBucketStartAsc(patientId, sign, oldest)) {
+            Bucket bucket = new Bucket(entity.getBucketStart());
+            bucket.id = entity.getId();
+            bucket.count = entity.getCount();
+            bucket.sum = entity.getSum();
+            bucket.min = entity.getMin() != null ? entity.getMin() : Double.POSITIVE_INFINITY;
+            bucket.max = entity.getMax() != null ? entity.getMax() : Double.NEGATIVE_INFINITY;
+            bucket.sketch = QuantileSketch.fromByteArray(entity.getSketch());
+            buckets.put(bucket.start, bucket);
+        }
+        return new Series(buckets);
+    }
+
+    private long oldestRetainedBucket() {
+        long today = Math.floorDiv(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC), BUCKET_SECONDS) * BUCKET_SECONDS;
+        return today - (retentionDays - 1) * BUCKET_SECONDS;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class Bucket {
+        private final long start;
+        private Long id;
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private QuantileSketch sketch = new QuantileSketch();
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+
+        private Bucket copy() {
+            Bucket copy = new Bucket(start);
+            copy.id = id;
+            copy.count = count;
+            copy.sum = sum;
+            copy.min = min;
+            copy.max = max;
+            copy.sketch.merge(sketch);
+            return copy;
+        }
+
+        private void add(double value) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sketch.add(value);
+        }
+    }
+
+    private static final class Series {
+        private final NavigableMap<Long, Bucket> buckets;
+        // Buckets already copied by the transaction working on this series
+        private final Set<Long> owned = new HashSet<>();
+
+        private Series(NavigableMap<Long, Bucket> buckets) {
+            this.buckets = buckets;
+        }
+
+        private Bucket own(long start) {
+            Bucket bucket = buckets.get(start);
+            if (bucket == null) {
+                bucket = new Bucket(start);
+            } else if (!owned.contains(start)) {
+                bucket = bucket.copy();
+            } else {
+                return bucket;
+            }
+            buckets.put(start, bucket);
+            owned.add(start);
+            return bucket;
+        }
+
+        private Series copy() {
+            return new Series(new TreeMap<>(buckets));
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.medease.service;
+
+import com.medease.dto.VitalPoint;
+import com.medease.entity.HealthMetrics;
+import com.medease.entity.MetricChunk;
+import com.medease.entity.MetricPoint;
+import com.medease.entity.VitalSign;
+import com.medease.repository.MetricChunkRepository;
+import com.medease.repository.MetricPointRepository;
+import com.medease.timeseries.ChunkDecoder;
+import com.medease.timeseries.ChunkEncoder;
+import com.medease.timeseries.SeriesCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Append-only per-patient, per-metric history. New readings go to the
+// series' open tail, stored one uncompressed row per point and kept in time
+// order in memory; once the tail is full it is encoded into a sealed
+// compressed chunk. A daily sweep seals tails whose oldest reading has aged
+// out, so slow series do not stay uncompressed, and merges runs of adjacent
+// undersized chunks back into full ones. The committed tails of recently
+// written series are kept in a SeriesCache, so a tail changes in memory only
+// once its transaction commits.
+@Service
+public class VitalsTimeSeriesService {
+
+    private static final String INSERT_POINT =
+            "INSERT INTO metric_points (patient_id, metric, point_time, point_value) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private MetricChunkRepository metricChunkRepository;
+
+    @Autowired
+    private MetricPointRepository metricPointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VitalsStatsService vitalsStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${medease.timeseries.chunk-points:240}")
+    private int chunkPoints;
+
+    @Value("${medease.timeseries.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${medease.timeseries.seal-after-hours:24}")
+    private long sealAfterHours;
+
+    private final SeriesCache<Points> tails = new SeriesCache<>(Points::copy);
+
+    @Transactional
+    public void append(Long patientId, LocalDateTime recordedAt, HealthMetrics metrics) {
+        for (VitalSign sign : VitalSign.values()) {
+            Double value = sign.extract(metrics);
+            if (value != null) {
+                append(patientId, sign, recordedAt, value);
+            }
+        }
+    }
+
+    @Transactional
+    public void append(Long patientId, VitalSign sign, LocalDateTime recordedAt, double value) {
+        appendAll(patientId, sign, new long[] {recordedAt.toEpochSecond(ZoneOffset.UTC)}, new double[] {value}, 1);
+    }
+
+    // Timestamps are epoch seconds (UTC). Returns whether the call added a
+    // reading newer than any the series already held.
+    @Transactional
+    public boolean appendAll(Long patientId, VitalSign sign, long[] timestamps, double[] values, int length) {
+        Points points = tails.acquire(key(patientId, sign), () -> load(patientId, sign));
+        long newest = points.newest;
+        // Readings of this call before this index went into a sealed chunk
+        int firstUnsaved = 0;
+        for (int i = 0; i < length; i++) {
+            if (points.count >= chunkPoints) {
+                seal(patientId, sign, points);
+                points.clear();
+                firstUnsaved = i;
+            }
+            points.add(timestamps[i], values[i]);
+        }
+        int from = firstUnsaved;
+        int added = length - firstUnsaved;
+        jdbcTemplate.batchUpdate(INSERT_POINT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                statement.setLong(1, patientId);
+                statement.setString(2, sign.name());
+                statement.setLong(3, timestamps[from + i]);
+                statement.setDouble(4, values[from + i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return added;
+            }
+        });
+        vitalsStatsService.record(patientId, sign, timestamps, values, length);
+        return points.newest > newest;
+    }
+
+    @Scheduled(fixedDelayString = "${medease.timeseries.sweep-ms:60000}")
+    public void evictIdle() {
+        tails.evictIdle(idleMinutes * 60_000);
+    }
+
+    @Scheduled(cron = "${medease.timeseries.maintenance-cron:0 45 3 * * *}")
+    public void maintain() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long cutoff = LocalDateTime.now(ZoneOffset.UTC).minusHours(sealAfterHours).toEpochSecond(ZoneOffset.UTC);
+        for (Object[] series : metricPointRepository.findSeriesOlderThan(cutoff)) {
+            Long patientId = (Long) series[0];
+            VitalSign sign = (VitalSign) series[1];
+            transaction.executeWithoutResult(status -> {
+                Points points = tails.acquire(key(patientId, sign), () -> load(patientId, sign));
+                // Sealed by a full tail since the query ran
+                if (points.count > 0 && points.timestamps[0] < cutoff) {
+                    seal(patientId, sign, points);
+                    points.clear();
+                }
+            });
+        }
+        for (Object[] series : metricChunkRepository.findSeriesWithSmallChunks(chunkPoints)) {
+            Long patientId = (Long) series[0];
+            VitalSign sign = (VitalSign) series[1];
+            transaction.executeWithoutResult(status -> mergeSmallChunks(patientId, sign));
+        }
+    }
+
+    // Merges runs of consecutive chunks that together fit in one full chunk.
+    // Only sealed chunks are touched, so this needs no lock on the tail.
+    private void mergeSmallChunks(Long patientId, VitalSign sign) {
+        List<Long> run = new ArrayList<>();
+        int runPoints = 0;
+        for (Object[] chunk : metricChunkRepository.findSizes(patientId, sign)) {
+            Long id = (Long) chunk[0];
+            int pointCount = (Integer) chunk[1];
+            if (runPoints + pointCount > chunkPoints) {
+                merge(patientId, sign, run);
+                run.clear();
+                runPoints = 0;
+            }
+            if (pointCount < chunkPoints) {
+                run.add(id);
+                runPoints += pointCount;
+            }
+        }
+        merge(patientId, sign, run);
+    }
+
+    private void merge(Long patientId, VitalSign sign, List<Long> ids) {
+        if (ids.size() < 2) {
+            return;
+        }
+        List<MetricChunk> chunks = metricChunkRepository.findAllById(ids);
+        Points points = new Points(chunkPoints);
+        for (MetricChunk chunk : chunks) {
+            ChunkDecoder decoder = new ChunkDecoder(chunk.getData(), chunk.getPointCount());
+            while (decoder.next()) {
+                points.add(decoder.getTimestamp(), decoder.getValue());
+            }
+        }
+        metricChunkRepository.deleteAllInBatch(chunks);
+        metricChunkRepository.save(encode(patientId, sign, points));
+    }
+
+    private void seal(Long patientId, VitalSign sign, Points points) {
+        metricChunkRepository.save(encode(patientId, sign, points));
+        metricPointRepository.deleteSeries(patientId, sign);
+    }
+
+    private static MetricChunk encode(Long patientId, VitalSign sign, Points points) {
+        ChunkEncoder encoder = new ChunkEncoder();
+        for (int i = 0; i < points.count; i++) {
+            encoder.append(points.timestamps[i], points.values[i]);
+        }
+        MetricChunk chunk = new MetricChunk(patientId, sign);
+        chunk.setStartTime(encoder.getFirstTimestamp());
+        chunk.setEndTime(encoder.getLastTimestamp());
+        chunk.setPointCount(encoder.getCount());
+        chunk.setSealed(true);
+        chunk.setData(encoder.toByteArray());
+        return chunk;
+    }
+
+    public List<VitalPoint> getSeries(Long patientId, VitalSign sign, LocalDateTime from, LocalDateTime to,
+                                      long bucketSeconds, Aggregation aggregation) {
+        long start = from.toEpochSecond(ZoneOffset.UTC);
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+
+        List<VitalPoint> points = new ArrayList<>();
+        boolean ordered = true;
+        long previous = Long.MIN_VALUE;
+        for (MetricChunk chunk : metricChunkRepository.findOverlapping(patientId, sign, start, end)) {
+            ChunkDecoder decoder = new ChunkDecoder(chunk.getData(), chunk.getPointCount());
+            while (decoder.next()) {
+                long timestamp = decoder.getTimestamp();
+                if (timestamp < start || timestamp > end) {
+                    continue;
+                }
+                ordered &= timestamp >= previous;
+                previous = timestamp;
+                points.add(new VitalPoint(LocalDateTime.ofEpochSecond(timestamp, 0, ZoneOffset.UTC), decoder.getValue()));
+            }
+        }
+        for (MetricPoint point : metricPointRepository
+                .findByPatientIdAndMetricAndTimestampBetweenOrderByTimestampAscIdAsc(patientId, sign, start, end)) {
+            ordered &= point.getTimestamp() >= previous;
+            previous = point.getTimestamp();
+            points.add(new VitalPoint(LocalDateTime.ofEpochSecond(point.getTimestamp(), 0, ZoneOffset.UTC), point.getValue()));
+        }
+        // Chunks and the tail only overlap after out-of-order appends
+        if (!ordered) {
+            points.sort(Comparator.comparing(VitalPoint::getTimestamp));
+        }
+
+        if (bucketSeconds <= 0) {
+            return points;
+        }
+        return downsample(points, bucketSeconds, aggregation);
+    }
+
+    private List<VitalPoint> downsample(List<VitalPoint> points, long bucketSeconds, Aggregation aggregation) {
+        Map<Long, double[]> buckets = new TreeMap<>();
+        for (VitalPoint point : points) {
+            long timestamp = point.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            long bucket = Math.floorDiv(timestamp, bucketSeconds) * bucketSeconds;
+            double value = point.getValue();
+            double[] acc = buckets.get(bucket);
+            if (acc == null) {
+                buckets.put(bucket, new double[] {value, value, value, value, 1});
+            } else {
+                acc[0] += value;
+                acc[1] = Math.min(acc[1], value);
+                acc[2] = Math.max(acc[2], value);
+                acc[3] = value;
+                acc[4]++;
+            }
+        }
+
+        List<VitalPoint> result = new ArrayList<>(buckets.size());
+        buckets.forEach((bucket, acc) -> {
+            double value;
+            switch (aggregation) {
+                case MIN: value = acc[1]; break;
+                case MAX: value = acc[2]; break;
+                case LAST: value = acc[3]; break;
+                default: value = Math.round(acc[0] / acc[4] * 100.0) / 100.0;
+            }
+            result.add(new VitalPoint(LocalDateTime.ofEpochSecond(bucket, 0, ZoneOffset.UTC), value));
+        });
+        return result;
+    }
+
+    private static String key(Long patientId, VitalSign sign) {
+        return patientId + ":" + sign;
+    }
+
+    private Points load(Long patientId, VitalSign sign) {
+        Points points = new Points(chunkPoints);
+        for (MetricPoint point : metricPointRepository.findByPatientIdAndMetricOrderByTimestampAscIdAsc(patientId, sign)) {
+            points.add(point.getTimestamp(), point.getValue());
+        }
+        Long sealedNewest = metricChunkRepository.findLatestEndTime(patientId, sign);
+        if (sealedNewest != null) {
+            points.newest = Math.max(points.newest, sealedNewest);
+        }
+        return points;
+    }
+
+    public enum Aggregation {
+        AVG, MIN, MAX, LAST
+    }
+
+    private static final class Points {
+        private long[] timestamps;
+        private double[] values;
+        private int count;
+        // Latest time in the whole series, sealed chunks included
+        private long newest = Long.MIN_VALUE;
+
+        private Points(int capacity) {
+            timestamps = new long[capacity];
+            values = new double[capacity];
+        }
+
+        // Keeps time order; a late reading goes after any with the same time
+        private void add(long timestamp, double value) {
+            if (count == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, Math.max(8, count * 2));
+                values = Arrays.copyOf(values, timestamps.length);
+            }
+            int at = count;
+            if (count > 0 && timestamp < timestamps[count - 1]) {
+                int low = 0;
+                int high = count - 1;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (timestamps[mid] <= timestamp) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                at = low;
+                System.arraycopy(timestamps, at, timestamps, at + 1, count - at);
+                System.arraycopy(values, at, values, at + 1, count - at);
+            }
+            timestamps[at] = timestamp;
+            values[at] = value;
+            count++;
+            newest = Math.max(newest, timestamp);
+        }
+
+        private void clear() {
+            count = 0;
+        }
+
+        private Points copy() {
+            Points copy = new Points(0);
+            copy.timestamps = Arrays.copyOf(timestamps, timestamps.length);
+            copy.values = Arrays.copyOf(values, values.length);
+            copy.count = count;
+            copy.newest = newest;
+            return copy;
+        }
+    }
+}
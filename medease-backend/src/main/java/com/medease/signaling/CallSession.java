@@ -0,0 +1,72 @@
+package com.medease.signaling;
+
+import com.medease.chat.ChatConnection;
+
+// The two ends of one appointment's video call. Each side holds at most one
+// socket; joining again from a new socket (a reload, a network change)
+// replaces the old one so the call can be renegotiated straight away.
+public class CallSession {
+
+    private final Long appointmentId;
+    private final Long patientId;
+    private final Long doctorId;
+
+    // Guarded by this
+    private ChatConnection patient;
+    private ChatConnection doctor;
+    private boolean ended;
+
+    public CallSession(Long appointmentId, Long patientId, Long doctorId) {
+        this.appointmentId = appointmentId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+    }
+
+    // Returns the socket this one replaces, or null; throws once the call has ended
+    public synchronized ChatConnection attach(ChatConnection connection, boolean asDoctor) {
+        if (ended) {
+            throw new RuntimeException("Appointment has ended");
+        }
+        ChatConnection previous = asDoctor ? doctor : patient;
+        if (asDoctor) {
+            doctor = connection;
+        } else {
+            patient = connection;
+        }
+        return previous == connection ? null : previous;
+    }
+
+    // True when nobody is left in the call
+    public synchronized boolean detach(ChatConnection connection) {
+        if (patient == connection) {
+            patient = null;
+        } else if (doctor == connection) {
+            doctor = null;
+        }
+        return patient == null && doctor == null;
+    }
+
+    public synchronized ChatConnection peerOf(ChatConnection connection) {
+        if (patient == connection) {
+            return doctor;
+        }
+        return doctor == connection ? patient : null;
+    }
+
+    public synchronized boolean isAttached(ChatConnection connection) {
+        return patient == connection || doctor == connection;
+    }
+
+    // Returns the sockets still in the call; later joins fail
+    public synchronized ChatConnection[] end() {
+        ended = true;
+        ChatConnection[] remaining = {patient, doctor};
+        patient = null;
+        doctor = null;
+        return remaining;
+    }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public Long getPatientId() { return patientId; }
+    public Long getDoctorId() { return doctorId; }
+}
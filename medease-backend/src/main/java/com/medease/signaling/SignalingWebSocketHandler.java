@@ -0,0 +1,135 @@
+package com.medease.signaling;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medease.chat.ChatConnection;
+import com.medease.chat.JwtHandshakeInterceptor;
+import com.medease.security.UserPrincipal;
+import com.medease.service.SignalingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Collections;
+
+// JSON frames on /ws/signal, one call per socket:
+//   {"type":"join","appointmentId":1}  -> joined {role, peerConnected}; the other side gets peer_joined
+//   {"type":"offer"|"answer"|"ice_candidate", ...} -> passed to the other side as sent
+//   {"type":"leave"}                   -> the other side gets peer_left
+//   {"type":"ping"}                    -> pong, to keep the socket open through a long call
+// When the appointment ends the socket is closed with reason "Appointment ended".
+// Frames are read with a streaming parser that only materializes "type" and
+// "appointmentId", so an SDP body is scanned but never copied.
+@Component
+public class SignalingWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String CONNECTION_ATTRIBUTE = "signalingConnection";
+    private static final String CALL_ATTRIBUTE = "signalingCall";
+    private static final TextMessage PONG = new TextMessage("{\"type\":\"pong\"}");
+
+    @Autowired
+    private SignalingService signalingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        UserPrincipal principal = (UserPrincipal) session.getAttributes().get(JwtHandshakeInterceptor.PRINCIPAL_ATTRIBUTE);
+        session.getAttributes().put(CONNECTION_ATTRIBUTE, signalingService.connect(session, principal));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        ChatConnection connection = (ChatConnection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        CallSession call = (CallSession) session.getAttributes().get(CALL_ATTRIBUTE);
+        String type = null;
+        Long appointmentId = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(message.getPayload())) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                connection.send(error(null, "Frame must be a JSON object"));
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("appointmentId".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    appointmentId = parser.getLongValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            // The peer gets the frame as is, so it has to be exactly one well-formed object
+            if (parser.nextToken() != null) {
+                connection.send(error(null, "Frame must be a JSON object"));
+                return;
+            }
+        } catch (IOException e) {
+            connection.send(error(null, "Invalid JSON"));
+            return;
+        }
+        if (type == null) {
+            connection.send(error(appointmentId, "Unknown frame type"));
+            return;
+        }
+        try {
+            switch (type) {
+                case "offer", "answer", "ice_candidate" -> signalingService.relay(connection, requireCall(call), message);
+                case "join" -> {
+                    if (appointmentId == null) {
+                        throw new RuntimeException("appointmentId is required");
+                    }
+                    if (call != null) {
+                        signalingService.leave(connection, call);
+                        session.getAttributes().remove(CALL_ATTRIBUTE);
+                    }
+                    session.getAttributes().put(CALL_ATTRIBUTE, signalingService.join(connection, appointmentId));
+                }
+                case "leave" -> {
+                    signalingService.leave(connection, requireCall(call));
+                    session.getAttributes().remove(CALL_ATTRIBUTE);
+                }
+                case "ping" -> connection.send(PONG);
+                default -> connection.send(error(appointmentId, "Unknown frame type"));
+            }
+        } catch (RuntimeException e) {
+            connection.send(error(call != null ? call.getAppointmentId() : appointmentId, e.getMessage()));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        ChatConnection connection = (ChatConnection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        // Cleanup happens in afterConnectionClosed, which follows
+        if (connection != null) {
+            connection.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ChatConnection connection = (ChatConnection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        if (connection != null) {
+            signalingService.disconnect(connection, (CallSession) session.getAttributes().get(CALL_ATTRIBUTE));
+        }
+    }
+
+    private static CallSession requireCall(CallSession call) {
+        if (call == null) {
+            throw new RuntimeException("Join a call first");
+        }
+        return call;
+    }
+
+    private TextMessage error(Long appointmentId, String message) {
+        return signalingService.frame("error", appointmentId,
+                Collections.singletonMap("message", message));
+    }
+}
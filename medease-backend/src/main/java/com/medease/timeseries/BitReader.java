@@ -0,0 +1,27 @@
+package com.medease.timeseries;
+
+public class BitReader {
+    private final byte[] buffer;
+    private long position;
+
+    public BitReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    public boolean readBit() {
+        if ((position >>> 3) >= buffer.length) {
+            throw new IllegalStateException("Read past end of chunk");
+        }
+        boolean bit = (buffer[(int) (position >>> 3)] & (0x80 >>> (position & 7))) != 0;
+        position++;
+        return bit;
+    }
+
+    public long readBits(int bits) {
+        long value = 0;
+        for (int i = 0; i < bits; i++) {
+            value = (value << 1) | (readBit() ? 1L : 0L);
+        }
+        return value;
+    }
+}
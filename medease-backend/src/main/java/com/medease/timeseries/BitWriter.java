@@ -0,0 +1,50 @@
+package com.medease.timeseries;
+
+import java.util.Arrays;
+
+public class BitWriter {
+    private byte[] buffer;
+    private long bitLength;
+
+    public BitWriter() {
+        this(64);
+    }
+
+    public BitWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(8, initialCapacity)];
+    }
+
+    public void writeBit(boolean bit) {
+        ensureCapacity(bitLength + 1);
+        if (bit) {
+            buffer[(int) (bitLength >>> 3)] |= (byte) (0x80 >>> (bitLength & 7));
+        }
+        bitLength++;
+    }
+
+    // Writes the low `bits` bits of value, most significant first
+    public void writeBits(long value, int bits) {
+        ensureCapacity(bitLength + bits);
+        for (int i = bits - 1; i >= 0; i--) {
+            if (((value >>> i) & 1L) != 0) {
+                buffer[(int) (bitLength >>> 3)] |= (byte) (0x80 >>> (bitLength & 7));
+            }
+            bitLength++;
+        }
+    }
+
+    public long getBitLength() {
+        return bitLength;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, (int) ((bitLength + 7) >>> 3));
+    }
+
+    private void ensureCapacity(long bits) {
+        int bytes = (int) ((bits + 7) >>> 3);
+        if (bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+        }
+    }
+}
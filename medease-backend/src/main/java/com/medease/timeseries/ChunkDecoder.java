@@ -0,0 +1,75 @@
+package com.medease.timeseries;
+
+public class ChunkDecoder {
+    private final BitReader in;
+    private final int count;
+
+    private int read;
+    private long timestamp;
+    private long delta;
+    private long valueBits;
+    private int leading;
+    private int trailing;
+
+    public ChunkDecoder(byte[] data, int count) {
+        this.in = new BitReader(data);
+        this.count = count;
+    }
+
+    public boolean next() {
+        if (read >= count) {
+            return false;
+        }
+        if (read == 0) {
+            timestamp = in.readBits(64);
+            valueBits = in.readBits(64);
+        } else {
+            delta += readDeltaOfDelta();
+            timestamp += delta;
+            readValue();
+        }
+        read++;
+        return true;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public double getValue() { return Double.longBitsToDouble(valueBits); }
+
+    private long readDeltaOfDelta() {
+        if (!in.readBit()) {
+            return 0;
+        }
+        if (!in.readBit()) {
+            return signExtend(in.readBits(7), 7);
+        }
+        if (!in.readBit()) {
+            return signExtend(in.readBits(9), 9);
+        }
+        if (!in.readBit()) {
+            return signExtend(in.readBits(12), 12);
+        }
+        return in.readBits(64);
+    }
+
+    private void readValue() {
+        if (!in.readBit()) {
+            return;
+        }
+        if (in.readBit()) {
+            leading = (int) in.readBits(5);
+            int significant = (int) in.readBits(6);
+            if (significant == 0) {
+                significant = 64;
+            }
+            trailing = 64 - leading - significant;
+        }
+        int significant = 64 - leading - trailing;
+        long xor = in.readBits(significant) << trailing;
+        valueBits ^= xor;
+    }
+
+    private static long signExtend(long value, int bits) {
+        long shift = 64 - bits;
+        return (value << shift) >> shift;
+    }
+}
@@ -0,0 +1,88 @@
+package com.medease.timeseries;
+
+// Gorilla-style chunk encoding: timestamps as delta-of-delta in epoch seconds
+// with variable-width buckets, values as XOR against the previous value with
+// leading/trailing zero compression. Regular, stable readings cost a few bits.
+public class ChunkEncoder {
+    private final BitWriter out = new BitWriter();
+
+    private int count;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastValueBits;
+    private int lastLeading = Integer.MAX_VALUE;
+    private int lastTrailing;
+
+    public void append(long timestamp, double value) {
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            firstTimestamp = timestamp;
+            out.writeBits(timestamp, 64);
+            out.writeBits(valueBits, 64);
+        } else {
+            if (timestamp < lastTimestamp) {
+                throw new IllegalArgumentException("Timestamps must be appended in order");
+            }
+            long delta = timestamp - lastTimestamp;
+            writeDeltaOfDelta(delta - lastDelta);
+            lastDelta = delta;
+            writeValue(valueBits);
+        }
+        lastTimestamp = timestamp;
+        lastValueBits = valueBits;
+        count++;
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        if (dod == 0) {
+            out.writeBit(false);
+        } else if (dod >= -64 && dod <= 63) {
+            out.writeBits(0b10, 2);
+            out.writeBits(dod, 7);
+        } else if (dod >= -256 && dod <= 255) {
+            out.writeBits(0b110, 3);
+            out.writeBits(dod, 9);
+        } else if (dod >= -2048 && dod <= 2047) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(dod, 12);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(dod, 64);
+        }
+    }
+
+    private void writeValue(long valueBits) {
+        long xor = valueBits ^ lastValueBits;
+        if (xor == 0) {
+            out.writeBit(false);
+            return;
+        }
+        out.writeBit(true);
+
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeading != Integer.MAX_VALUE && leading >= lastLeading && trailing >= lastTrailing) {
+            // Meaningful bits fit inside the previous window
+            out.writeBit(false);
+            out.writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int significant = 64 - leading - trailing;
+            out.writeBit(true);
+            out.writeBits(leading, 5);
+            // 64 significant bits is stored as 0 in the 6-bit length field
+            out.writeBits(significant == 64 ? 0 : significant, 6);
+            out.writeBits(xor >>> trailing, significant);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    public int getCount() { return count; }
+    public long getFirstTimestamp() { return firstTimestamp; }
+    public long getLastTimestamp() { return lastTimestamp; }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,156 @@
+package com.medease.timeseries;
+
+import java.io.ByteArrayOutputStream;
+
+// Log-bucketed quantile sketch with 1% relative accuracy: a value v lands in
+// bin ceil(log_gamma(v)), so any quantile is within 1% of a real reading.
+// Two sketches merge by adding bin counts. Values at or below MIN_VALUE
+// (including negatives) share a single zero bin.
+public class QuantileSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_VALUE = 1e-3;
+    private static final int FORMAT_VERSION = 1;
+
+    private long[] bins = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value <= MIN_VALUE) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+            ensureRange(index, index);
+            bins[index - offset]++;
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.bins.length > 0) {
+            ensureRange(other.offset, other.offset + other.bins.length - 1);
+            for (int i = 0; i < other.bins.length; i++) {
+                bins[other.offset + i - offset] += other.bins[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    // q in [0, 1]; NaN when empty
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.min(1, Math.max(0, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < bins.length; i++) {
+            seen += bins[i];
+            if (seen > rank) {
+                // Midpoint of the bin in relative terms
+                return 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, offset + bins.length - 1) / (GAMMA + 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // Version, zero count, first bin index and bin counts, all as varints
+    public byte[] toByteArray() {
+        int first = 0;
+        int last = bins.length - 1;
+        while (first <= last && bins[first] == 0) first++;
+        while (last >= first && bins[last] == 0) last--;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + Math.max(0, last - first + 1) * 2);
+        writeVarLong(out, FORMAT_VERSION);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, zigZag(offset + first));
+        writeVarLong(out, Math.max(0, last - first + 1));
+        for (int i = first; i <= last; i++) {
+            writeVarLong(out, bins[i]);
+        }
+        return out.toByteArray();
+    }
+
+    public static QuantileSketch fromByteArray(byte[] data) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (data == null || data.length == 0) {
+            return sketch;
+        }
+        int[] position = {0};
+        long version = readVarLong(data, position);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch format " + version);
+        }
+        sketch.zeroCount = readVarLong(data, position);
+        long encodedOffset = readVarLong(data, position);
+        sketch.offset = (int) ((encodedOffset >>> 1) ^ -(encodedOffset & 1));
+        int length = (int) readVarLong(data, position);
+        sketch.bins = new long[length];
+        sketch.count = sketch.zeroCount;
+        for (int i = 0; i < length; i++) {
+            sketch.bins[i] = readVarLong(data, position);
+            sketch.count += sketch.bins[i];
+        }
+        return sketch;
+    }
+
+    private void ensureRange(int low, int high) {
+        if (bins.length == 0) {
+            bins = new long[high - low + 1];
+            offset = low;
+            return;
+        }
+        int newLow = Math.min(low, offset);
+        int newHigh = Math.max(high, offset + bins.length - 1);
+        if (newLow == offset && newHigh == offset + bins.length - 1) {
+            return;
+        }
+        long[] grown = new long[newHigh - newLow + 1];
+        System.arraycopy(bins, 0, grown, offset - newLow, bins.length);
+        bins = grown;
+        offset = newLow;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Truncated sketch");
+            }
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
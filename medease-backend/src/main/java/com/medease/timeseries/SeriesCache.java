@@ -0,0 +1,91 @@
+package com.medease.timeseries;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Per-series state cached across transactions. A transaction that writes a
+// series holds its lock until the transaction completes and works on a copy,
+// which replaces the cached state only after commit; after a rollback the
+// next writer loads the state again. Published state is never modified, so
+// readers use it without the lock. Entries left idle are evicted.
+public class SeriesCache<T> {
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final UnaryOperator<T> copier;
+
+    public SeriesCache(UnaryOperator<T> copier) {
+        this.copier = copier;
+    }
+
+    // The transaction's working copy; must be called inside a transaction
+    public T acquire(String key, Supplier<T> loader) {
+        while (true) {
+            Entry<T> entry = entries.computeIfAbsent(key, k -> new Entry<>());
+            if (entry.lock.isHeldByCurrentThread()) {
+                return entry.pending;
+            }
+            entry.lock.lock();
+            // Evicted while waiting for the lock
+            if (entries.get(key) != entry) {
+                entry.lock.unlock();
+                continue;
+            }
+            if (entry.committed == null) {
+                entry.committed = loader.get();
+            }
+            entry.pending = copier.apply(entry.committed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entry.committed = entry.pending;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        entry.committed = null;
+                    }
+                    entry.pending = null;
+                    entry.lastUsed = System.currentTimeMillis();
+                    entry.lock.unlock();
+                }
+            });
+            return entry.pending;
+        }
+    }
+
+    // Committed state, loaded without being cached when the series is not cached
+    public T read(String key, Supplier<T> loader) {
+        Entry<T> entry = entries.get(key);
+        T committed = entry != null ? entry.committed : null;
+        return committed != null ? committed : loader.get();
+    }
+
+    public void evictIdle(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        entries.forEach((key, entry) -> {
+            // A locked entry is in use
+            if (entry.lastUsed < cutoff && entry.lock.tryLock()) {
+                try {
+                    entries.remove(key, entry);
+                } finally {
+                    entry.lock.unlock();
+                }
+            }
+        });
+    }
+
+    private static final class Entry<T> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile T committed;
+        // Only touched by the lock holder
+        private T pending;
+        private volatile long lastUsed = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,41 @@
+package com.medease.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+public final class ConditionalGet {
+
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {}
+
+    // The version comes from a cheap timestamp/count query, so an unchanged resource
+    // is answered with 304 without ever loading or serializing the body.
+    public static <T> ResponseEntity<T> respond(WebRequest request, String scope,
+                                                ResourceVersion version, Supplier<T> body) {
+        String etag = version.toETag(scope);
+        long lastModified = version.getLastModifiedMillis();
+
+        // Weak comparison of If-None-Match, which then takes precedence over If-Modified-Since (RFC 9110, 13.1.2).
+        // A match has already written ETag and Last-Modified to the response.
+        if (request.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CACHE_CONTROL)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .eTag(etag);
+        if (lastModified > 0) {
+            ok.lastModified(lastModified);
+        }
+        return ok.body(body.get());
+    }
+}
@@ -0,0 +1,65 @@
+package com.medease.web;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+public class ResourceVersion {
+    public static final ResourceVersion NONE = new ResourceVersion(null, 0L);
+
+    private final LocalDateTime lastModified;
+    private final long count;
+
+    public ResourceVersion(LocalDateTime lastModified) {
+        this(lastModified, 1L);
+    }
+
+    public ResourceVersion(LocalDateTime lastModified, Long count) {
+        this.lastModified = lastModified;
+        this.count = count != null ? count : 0L;
+    }
+
+    public ResourceVersion(LocalDateTime lastModified, LocalDateTime relatedLastModified, Long count) {
+        this(latest(lastModified, relatedLastModified), count);
+    }
+
+    public ResourceVersion(LocalDateTime lastModified, LocalDateTime doctorModified, LocalDateTime doctorUserModified,
+                           LocalDateTime patientUserModified, Long count) {
+        this(latest(latest(lastModified, doctorModified), latest(doctorUserModified, patientUserModified)), count);
+    }
+
+    // Combine with the version of a section embedded in the same representation
+    public ResourceVersion and(ResourceVersion other) {
+        if (other == null) {
+            return this;
+        }
+        return new ResourceVersion(latest(lastModified, other.lastModified), count * 31 + other.count);
+    }
+
+    public String toETag(String scope) {
+        return "\"" + scope + "-" + Long.toHexString(getLastModifiedMicros()) + "-" + Long.toHexString(count) + "\"";
+    }
+
+    public long getLastModifiedMillis() {
+        if (lastModified == null) {
+            return -1;
+        }
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private long getLastModifiedMicros() {
+        if (lastModified == null) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toMicros(getLastModifiedMillis()) + (lastModified.getNano() / 1000) % 1000;
+    }
+
+    public LocalDateTime getLastModified() { return lastModified; }
+    public long getCount() { return count; }
+
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
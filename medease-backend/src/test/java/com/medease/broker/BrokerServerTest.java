@@ -0,0 +1,134 @@
+package com.medease.broker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Relays connected to an embedded broker on a free local port. Subscriptions
+// travel to the broker asynchronously, so each test first publishes probes on
+// a topic until they arrive; frames from one relay then arrive in order.
+class BrokerServerTest {
+
+    private static final String SECRET = "test-secret";
+    private static final long TIMEOUT_MS = 10_000;
+
+    private BrokerServer server;
+    private final List<TcpBrokerRelay> relays = new ArrayList<>();
+
+    @BeforeEach
+    void startBroker() throws IOException {
+        server = new BrokerServer("127.0.0.1", 0, 1000, SECRET);
+        server.start();
+    }
+
+    @AfterEach
+    void stopBroker() {
+        relays.forEach(TcpBrokerRelay::close);
+        server.close();
+    }
+
+    @Test
+    void deliversOnlySubscribedTopicsToOtherNodes() throws Exception {
+        BlockingQueue<String> a = new LinkedBlockingQueue<>();
+        BlockingQueue<String> b = new LinkedBlockingQueue<>();
+        TcpBrokerRelay nodeA = connect(SECRET, a);
+        TcpBrokerRelay nodeB = connect(SECRET, b);
+        nodeA.subscribe("chat.room.1");
+        nodeB.subscribe("chat.room.1");
+        awaitRoute(nodeB, a, "chat.room.1");
+        awaitRoute(nodeA, b, "chat.room.1");
+
+        nodeB.publish("chat.room.2", "not subscribed");
+        nodeB.publish("chat.room.1", "hello");
+        assertEquals("chat.room.1|hello", a.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // A publisher never gets its own frame back
+        nodeA.publish("chat.room.1", "from a");
+        assertEquals("chat.room.1|from a", b.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        nodeB.publish("chat.room.1", "after");
+        assertEquals("chat.room.1|after", a.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void stopsDeliveringOnceUnsubscribed() throws Exception {
+        BlockingQueue<String> a = new LinkedBlockingQueue<>();
+        TcpBrokerRelay nodeA = connect(SECRET, a);
+        TcpBrokerRelay nodeB = connect(SECRET, new LinkedBlockingQueue<>());
+        nodeA.subscribe("chat.room.1");
+        nodeA.subscribe("chat.room.1");
+        awaitRoute(nodeB, a, "chat.room.1");
+
+        // Subscriptions are counted, so the first unsubscribe keeps the route
+        nodeA.unsubscribe("chat.room.1");
+        nodeA.subscribe("chat.room.2");
+        awaitRoute(nodeB, a, "chat.room.2");
+        nodeB.publish("chat.room.1", "still subscribed");
+        assertEquals("chat.room.1|still subscribed", a.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        // Frames on one connection are handled in order, so once a later subscription
+        // routes, the broker has dropped the earlier one
+        nodeA.unsubscribe("chat.room.1");
+        nodeA.subscribe("chat.room.3");
+        awaitRoute(nodeB, a, "chat.room.3");
+        nodeB.publish("chat.room.1", "dropped");
+        nodeB.publish("chat.room.2", "sentinel");
+        assertEquals("chat.room.2|sentinel", a.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void rejectsNodesWithoutTheSecret() throws Exception {
+        BlockingQueue<String> a = new LinkedBlockingQueue<>();
+        BlockingQueue<String> intruder = new LinkedBlockingQueue<>();
+        TcpBrokerRelay nodeA = connect(SECRET, a);
+        TcpBrokerRelay intruderNode = connect("wrong-secret", intruder);
+        TcpBrokerRelay nodeB = connect(SECRET, new LinkedBlockingQueue<>());
+        nodeA.subscribe("chat.room.1");
+        intruderNode.subscribe("chat.room.1");
+        awaitRoute(nodeB, a, "chat.room.1");
+
+        nodeB.publish("chat.room.1", "private");
+        assertEquals("chat.room.1|private", a.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        assertFalse(intruderNode.isConnected());
+        assertNull(intruder.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    private TcpBrokerRelay connect(String secret, BlockingQueue<String> received) {
+        TcpBrokerRelay relay = new TcpBrokerRelay("127.0.0.1", server.getPort(), 1000, secret);
+        relays.add(relay);
+        relay.start((topic, payload) -> received.add(topic + "|" + payload));
+        return relay;
+    }
+
+    // Publishes probes until one arrives, then drops the extras
+    private static void awaitRoute(TcpBrokerRelay publisher, BlockingQueue<String> received, String topic)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        String probe = topic + "|probe";
+        while (true) {
+            assertTrue(System.currentTimeMillis() < deadline, "No route for " + topic);
+            publisher.publish(topic, "probe");
+            String first = received.poll(50, TimeUnit.MILLISECONDS);
+            if (first != null) {
+                assertEquals(probe, first);
+                break;
+            }
+        }
+        // Probes still in flight arrive within a short quiet period
+        String extra;
+        while ((extra = received.poll(200, TimeUnit.MILLISECONDS)) != null) {
+            assertEquals(probe, extra);
+        }
+    }
+}